@@ -0,0 +1,100 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.common;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+
+/**
+ * Push-style {@link OutputTransformer}, entries are written to the data
+ * container as they come, so only KNIME's table buffer holds the rows.
+ * 
+ * @author ImpressiveCode contributors
+ * 
+ */
+public abstract class StreamingOutputTransformer<T> implements OutputTransformer<T> {
+
+    private final DataTableSpec tableSpec;
+
+    protected StreamingOutputTransformer(final DataTableSpec tableSpec) {
+        checkNotNull(tableSpec, "table specifikation can not be null.");
+        this.tableSpec = tableSpec;
+    }
+
+    public OutputSink<T> open(final ExecutionContext exec) {
+        return open(exec, 0);
+    }
+
+    /**
+     * Opens a sink whose rows are numbered from the given index, so that its
+     * table can be concatenated with a table holding the preceding rows.
+     */
+    public OutputSink<T> open(final ExecutionContext exec, final long firstIndex) {
+        return new ContainerSink(exec, exec.createDataContainer(tableSpec), firstIndex);
+    }
+
+    public BufferedDataTable transform(final Iterator<? extends T> data, final ExecutionContext exec)
+            throws CanceledExecutionException {
+        OutputSink<T> sink = open(exec);
+        while (data.hasNext()) {
+            sink.entryParsed(data.next());
+        }
+        return sink.close();
+    }
+
+    @Override
+    public BufferedDataTable transform(final List<T> data, final ExecutionContext exec)
+            throws CanceledExecutionException {
+        return transform(data.iterator(), exec);
+    }
+
+    protected abstract DataRow createRow(final long index, final T entry);
+
+    private class ContainerSink implements OutputSink<T> {
+        private final ExecutionContext exec;
+        private final BufferedDataContainer container;
+        private long counter;
+
+        ContainerSink(final ExecutionContext exec, final BufferedDataContainer container, final long firstIndex) {
+            this.exec = exec;
+            this.container = container;
+            this.counter = firstIndex;
+        }
+
+        @Override
+        public void entryParsed(final T entry) throws CanceledExecutionException {
+            exec.checkCanceled();
+            container.addRowToTable(createRow(counter++, entry));
+        }
+
+        @Override
+        public BufferedDataTable close() {
+            container.close();
+            return container.getTable();
+        }
+    }
+}
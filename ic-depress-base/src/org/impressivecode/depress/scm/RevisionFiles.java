@@ -0,0 +1,108 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.google.common.io.Files;
+
+/**
+ * Scratch files holding two revisions compared in memory, for tools reading
+ * only files. The files are created once and overwritten for every pair. A
+ * revision already written for the previous pair is not written again, so a
+ * chain of revisions is written once.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class RevisionFiles {
+    private final String prefix;
+    private final String suffix;
+    private File previousFile;
+    private File actualFile;
+    private byte[] previousContent;
+    private byte[] actualContent;
+
+    /**
+     * @param suffix
+     *            suffix of the scratch files, e.g. ".java", as some tools
+     *            pick the language by it
+     */
+    public RevisionFiles(final String prefix, final String suffix) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Writes the revisions, afterwards {@link #getPrevious()} and
+     * {@link #getActual()} hold them.
+     */
+    public void write(final byte[] previous, final byte[] actual) throws IOException {
+        if (previousFile == null) {
+            previousFile = createScratchFile();
+            actualFile = createScratchFile();
+        }
+        if (Arrays.equals(previous, actualContent) && !Arrays.equals(actual, actualContent)) {
+            File file = previousFile;
+            previousFile = actualFile;
+            actualFile = file;
+            previousContent = actualContent;
+            actualContent = null;
+        }
+        if (!Arrays.equals(previous, previousContent)) {
+            previousContent = null;
+            Files.write(previous, previousFile);
+            previousContent = previous;
+        }
+        if (!Arrays.equals(actual, actualContent)) {
+            actualContent = null;
+            Files.write(actual, actualFile);
+            actualContent = actual;
+        }
+    }
+
+    public File getPrevious() {
+        return previousFile;
+    }
+
+    public File getActual() {
+        return actualFile;
+    }
+
+    /**
+     * Deletes the scratch files, they are created again by the next write.
+     */
+    public void release() {
+        if (previousFile != null) {
+            previousFile.delete();
+            actualFile.delete();
+            previousFile = null;
+            actualFile = null;
+            previousContent = null;
+            actualContent = null;
+        }
+    }
+
+    private File createScratchFile() throws IOException {
+        File file = File.createTempFile(prefix, suffix);
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -19,9 +19,12 @@ package org.impressivecode.depress.scm;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.impressivecode.depress.common.Cells.dateTimeCell;
+import static org.impressivecode.depress.common.Cells.integerOrMissingCell;
 import static org.impressivecode.depress.common.Cells.stringCell;
 import static org.impressivecode.depress.common.Cells.stringOrMissingCell;
 
+import java.util.Arrays;
+
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataColumnSpec;
 import org.knime.core.data.DataColumnSpecCreator;
@@ -29,6 +32,7 @@ import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.date.DateAndTimeCell;
 import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.StringCell;
 
 /**
@@ -62,6 +66,18 @@ public class SCMAdapterTableFactory {
     public static final DataColumnSpec MESSAGE_COLSPEC = new DataColumnSpecCreator(MESSAGE_COLNAME, StringCell.TYPE)
     .createSpec();
 
+    public static final String LINES_ADDED_COLNAME = "LinesAdded";
+    public static final DataColumnSpec LINES_ADDED_COLSPEC = new DataColumnSpecCreator(LINES_ADDED_COLNAME,
+            IntCell.TYPE).createSpec();
+
+    public static final String LINES_DELETED_COLNAME = "LinesDeleted";
+    public static final DataColumnSpec LINES_DELETED_COLSPEC = new DataColumnSpecCreator(LINES_DELETED_COLNAME,
+            IntCell.TYPE).createSpec();
+
+    public static final String REPOSITORY_COLNAME = "Repository";
+    public static final DataColumnSpec REPOSITORY_COLSPEC = new DataColumnSpecCreator(REPOSITORY_COLNAME,
+            StringCell.TYPE).createSpec();
+
     public static DataTableSpec[] createTableSpec() {
         return new DataTableSpec[] { SCMAdapterTableFactory.createDataColumnSpec() };
     }
@@ -74,14 +90,58 @@ public class SCMAdapterTableFactory {
         return new DataTableSpec(allColSpecs);
     }
 
+    /**
+     * @return spec of the SCM table followed by the numbers of added and
+     *         deleted lines
+     */
+    public static DataTableSpec createChurnDataColumnSpec() {
+        return new DataTableSpec(createDataColumnSpec(), new DataTableSpec(LINES_ADDED_COLSPEC,
+                LINES_DELETED_COLSPEC));
+    }
+
+    /**
+     * @return the given spec followed by the repository the change was read
+     *         from, for tables imported from many repositories
+     */
+    public static DataTableSpec createRepositoryDataColumnSpec(final DataTableSpec spec) {
+        return new DataTableSpec(spec, new DataTableSpec(REPOSITORY_COLSPEC));
+    }
+
     public static DataRow createTableRow(final String rowId, final SCMDataType scmData) {
+        DataRow row = new DefaultRow(rowId, createCells(scmData));
+        return row;
+    }
+
+    public static DataRow createChurnTableRow(final String rowId, final SCMDataType scmData) {
+        return createTableRow(rowId, scmData, true, false);
+    }
+
+    /**
+     * @return row of a table with the optional churn and repository columns,
+     *         appended in this order
+     */
+    public static DataRow createTableRow(final String rowId, final SCMDataType scmData, final boolean churn,
+            final boolean repository) {
+        DataCell[] cells = createCells(scmData);
+        DataCell[] allCells = Arrays.copyOf(cells, cells.length + (churn ? 2 : 0) + (repository ? 1 : 0));
+        int next = cells.length;
+        if (churn) {
+            allCells[next++] = integerOrMissingCell(scmData.getLinesAdded());
+            allCells[next++] = integerOrMissingCell(scmData.getLinesDeleted());
+        }
+        if (repository) {
+            allCells[next] = stringOrMissingCell(scmData.getRepository());
+        }
+        return new DefaultRow(rowId, allCells);
+    }
+
+    private static DataCell[] createCells(final SCMDataType scmData) {
         assertData(scmData);
         DataCell[] cells = { stringCell(scmData.getResourceName()), stringCell(scmData.getExtension()), stringOrMissingCell(scmData.getAuthor()),
                 stringCell(scmData.getOperation()), stringOrMissingCell(scmData.getMessage()),
                 stringCell(scmData.getPath()), dateTimeCell(scmData.getCommitDate()),
                 stringCell(scmData.getCommitID()), };
-        DataRow row = new DefaultRow(rowId, cells);
-        return row;
+        return cells;
     }
 
     private static void assertData(final SCMDataType scmData) {
@@ -17,18 +17,13 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package org.impressivecode.depress.scm;
 
-import static com.google.common.base.Preconditions.checkNotNull;
+import static org.impressivecode.depress.scm.SCMAdapterTableFactory.LINES_ADDED_COLNAME;
+import static org.impressivecode.depress.scm.SCMAdapterTableFactory.REPOSITORY_COLNAME;
 import static org.impressivecode.depress.scm.SCMAdapterTableFactory.createTableRow;
 
-import java.util.List;
-
-import org.impressivecode.depress.common.OutputTransformer;
+import org.impressivecode.depress.common.StreamingOutputTransformer;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
-import org.knime.core.node.BufferedDataContainer;
-import org.knime.core.node.BufferedDataTable;
-import org.knime.core.node.CanceledExecutionException;
-import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeLogger.LEVEL;
 /**
@@ -36,44 +31,38 @@ import org.knime.core.node.NodeLogger.LEVEL;
  * @author Marek Majchrzak, ImpressiveCode
  * 
  */
-public class SCMAdapterTransformer implements OutputTransformer<SCMDataType>{
+public class SCMAdapterTransformer extends StreamingOutputTransformer<SCMDataType> {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(SCMAdapterTransformer.class);
 
-    private final DataTableSpec tableSpec;
+    /**
+     * Rows carry the numbers of added and deleted lines if the spec has the
+     * churn columns.
+     */
+    private final boolean churn;
+
+    /**
+     * Rows carry the repository they were read from if the spec has the
+     * repository column.
+     */
+    private final boolean repository;
 
     public SCMAdapterTransformer(final DataTableSpec tableSpec) {
-        checkNotNull(tableSpec, "table specifikation can not be null.");
-        this.tableSpec = tableSpec;
+        super(tableSpec);
+        this.churn = tableSpec.containsName(LINES_ADDED_COLNAME);
+        this.repository = tableSpec.containsName(REPOSITORY_COLNAME);
     }
 
     @Override
-    public BufferedDataTable transform(final List<SCMDataType> data, final ExecutionContext exec) throws CanceledExecutionException {
-        BufferedDataContainer container = createDataContainer(exec);
-        Long counter = 0l;
-        for (SCMDataType entry : data) {
-            progress(exec);
-
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Transforming scm entry, id: " + entry.getCommitID());
-            }
-
-            if (LOGGER.isEnabledFor(LEVEL.ALL)) {
-                LOGGER.debug("Transforming issue entry:" + entry.toString());
-            }
-            DataRow row = createTableRow(String.valueOf(counter++),entry);
-            container.addRowToTable(row);
+    protected DataRow createRow(final long index, final SCMDataType entry) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Transforming scm entry, id: " + entry.getCommitID());
         }
-        container.close();
-        BufferedDataTable out = container.getTable();
-        return out;
-    }
-
-    private BufferedDataContainer createDataContainer(final ExecutionContext exec) {
-        return exec.createDataContainer(tableSpec);
-    }
 
-    private void progress(final ExecutionContext exec) throws CanceledExecutionException {
-        exec.checkCanceled();
+        if (LOGGER.isEnabledFor(LEVEL.ALL)) {
+            LOGGER.debug("Transforming issue entry:" + entry.toString());
+        }
+        String rowId = String.valueOf(index);
+        return createTableRow(rowId, entry, churn, repository);
     }
 }
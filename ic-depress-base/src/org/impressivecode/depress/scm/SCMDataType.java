@@ -34,6 +34,9 @@ public class SCMDataType implements Cloneable{
     private Date commitDate;
     private String commitID;
     private String extension;
+    private Integer linesAdded;
+    private Integer linesDeleted;
+    private String repository;
     
     public String getAuthor() {
         return author;
@@ -99,11 +102,46 @@ public class SCMDataType implements Cloneable{
         this.extension = extension;
     }
 
+    /**
+     * @return number of added lines, null if unknown, e.g. for binary files
+     */
+    public Integer getLinesAdded() {
+        return linesAdded;
+    }
+
+    public void setLinesAdded(final Integer linesAdded) {
+        this.linesAdded = linesAdded;
+    }
+
+    /**
+     * @return number of deleted lines, null if unknown, e.g. for binary files
+     */
+    public Integer getLinesDeleted() {
+        return linesDeleted;
+    }
+
+    public void setLinesDeleted(final Integer linesDeleted) {
+        this.linesDeleted = linesDeleted;
+    }
+
+    /**
+     * @return path or URL of the repository the change was read from, null
+     *         if only one repository is imported
+     */
+    public String getRepository() {
+        return repository;
+    }
+
+    public void setRepository(final String repository) {
+        this.repository = repository;
+    }
+
     @Override
     public String toString() {
         return String
-                .format("SCMDataType [resourceName=%s, extension=%s, author=%s, operation=%s, message=%s, path=%s, commitDate=%s, commitID=%s]",
-                        resourceName, extension, author, operation, message, path, commitDate, commitID);
+                .format("SCMDataType [resourceName=%s, extension=%s, author=%s, operation=%s, message=%s, path=%s, commitDate=%s, commitID=%s, linesAdded=%s, linesDeleted=%s, repository=%s]",
+                        resourceName, extension, author, operation, message, path, commitDate, commitID,
+                        linesAdded, linesDeleted, repository);
     }
 
     @Override
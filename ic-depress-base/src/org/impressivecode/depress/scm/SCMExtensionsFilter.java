@@ -0,0 +1,91 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Extension patterns compiled once, matching paths the same way as
+ * {@link SCMExtensionsParser#extensionFits(String, List)}. Instances are
+ * immutable and may be shared between threads.
+ *
+ * @author ImpressiveCode contributors
+ */
+public class SCMExtensionsFilter {
+    private final String[] extensions;
+    private final Pattern[] patterns;
+    private final PatternSyntaxException[] errors;
+
+    private SCMExtensionsFilter(final List<String> extensions) {
+        this.extensions = extensions.toArray(new String[extensions.size()]);
+        this.patterns = new Pattern[this.extensions.length];
+        this.errors = new PatternSyntaxException[this.extensions.length];
+        for (int i = 0; i < this.extensions.length; i++) {
+            try {
+                patterns[i] = Pattern.compile(this.extensions[i], Pattern.CASE_INSENSITIVE);
+            } catch (PatternSyntaxException e) {
+                // thrown only when the extension is reached, as before
+                errors[i] = e;
+            }
+        }
+    }
+
+    public static SCMExtensionsFilter create(final List<String> extensions) {
+        return new SCMExtensionsFilter(checkNotNull(extensions, "Extensions have to be set."));
+    }
+
+    /**
+     * @return true if every path containing a dot fits, so filtering can be
+     *         skipped
+     */
+    public boolean isAnyExtension() {
+        for (String extension : extensions) {
+            if (extension.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean fits(final String str) {
+        int idx = str.lastIndexOf(".");
+        for (int i = 0; i < extensions.length; i++) {
+            String extension = extensions[i];
+            if (idx == -1 && extension.equals("")) {
+                return true;
+            }
+            if (idx == -1 || extension.equals("")) {
+                continue;
+            }
+            if (extension.equals("*") || str.endsWith(extension)) {
+                return true;
+            }
+            if (errors[i] != null) {
+                throw errors[i];
+            }
+            if (patterns[i].matcher(str.substring(idx)).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
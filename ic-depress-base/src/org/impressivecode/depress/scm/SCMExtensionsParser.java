@@ -19,8 +19,6 @@ package org.impressivecode.depress.scm;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
 * @author Maciej Borkowski, Capgemini Poland
@@ -42,22 +40,7 @@ public class SCMExtensionsParser {
   	}
 	
 	public static boolean extensionFits(final String str, final List<String> extensions){
-		for (String extension : extensions) {
-			int idx = str.lastIndexOf(".");
-			if(idx == -1 && extension.equals(""))
-				return true;
-			if(idx == -1 || extension.equals(""))
-				continue;
-			if((extension.equals("*") || str.endsWith(extension)))
-				return true;
-			
-    		Pattern pattern = Pattern.compile(extension, Pattern.CASE_INSENSITIVE);
-    	    Matcher matcher = pattern.matcher(str.substring(idx));
-
-    		if(matcher.matches())
-    			return 	true;
-    	}
-		return false;
+		return SCMExtensionsFilter.create(extensions).fits(str);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Hash of the tokens of a Java source, so revisions differing only in
+ * formatting get the same fingerprint and do not have to be distilled. White
+ * space is dropped unless it separates two words or two operators, string and
+ * character literals are kept verbatim. Comments, license headers included,
+ * are dropped or kept as single tokens.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public final class SourceFingerprint {
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    private static final byte SEPARATOR = ' ';
+    private static final byte LINE_END = '\n';
+    private static final String OPERATORS = "+-*/=<>!&|^%~?:";
+
+    private final byte[] source;
+    private final boolean keepComments;
+    private final Hasher hasher = HASH.newHasher();
+    private byte last = 0;
+    private boolean gap = false;
+
+    private SourceFingerprint(final byte[] source, final boolean keepComments) {
+        this.source = source;
+        this.keepComments = keepComments;
+    }
+
+    /**
+     * @param keepComments
+     *            false when changes of comments do not matter, so revisions
+     *            differing only in comments get the same fingerprint
+     */
+    public static HashCode of(final byte[] source, final boolean keepComments) {
+        return new SourceFingerprint(source, keepComments).hash();
+    }
+
+    private HashCode hash() {
+        int i = 0;
+        while (i < source.length) {
+            byte b = source[i];
+            if (isWhitespace(b)) {
+                gap = true;
+                i++;
+            } else if (b == '/' && i + 1 < source.length && source[i + 1] == '/') {
+                i = comment(i, lineCommentEnd(i + 2), true);
+            } else if (b == '/' && i + 1 < source.length && source[i + 1] == '*') {
+                i = comment(i, blockCommentEnd(i + 2), false);
+            } else if (b == '"' || b == '\'') {
+                i = literal(i);
+            } else {
+                emit(b);
+                i++;
+            }
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * @param line
+     *            true for a line comment, which is ended by a new line so code
+     *            joined into the comment does not hash as the code after it
+     */
+    private int comment(final int start, final int end, final boolean line) {
+        if (keepComments) {
+            emit(source[start]);
+            hasher.putBytes(source, start + 1, end - start - 1);
+            last = source[end - 1];
+            if (line) {
+                hasher.putByte(LINE_END);
+                last = LINE_END;
+            }
+        }
+        gap = true;
+        return end;
+    }
+
+    private int literal(final int start) {
+        byte quote = source[start];
+        int i = start + 1;
+        while (i < source.length && source[i] != quote && source[i] != '\n') {
+            i += source[i] == '\\' ? 2 : 1;
+        }
+        int end = Math.min(i + 1, source.length);
+        emit(quote);
+        hasher.putBytes(source, start + 1, end - start - 1);
+        last = source[end - 1];
+        return end;
+    }
+
+    private int lineCommentEnd(final int from) {
+        int i = from;
+        while (i < source.length && source[i] != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private int blockCommentEnd(final int from) {
+        for (int i = from; i + 1 < source.length; i++) {
+            if (source[i] == '*' && source[i + 1] == '/') {
+                return i + 2;
+            }
+        }
+        return source.length;
+    }
+
+    private void emit(final byte b) {
+        if (gap && last != 0 && needsSeparator(last, b)) {
+            hasher.putByte(SEPARATOR);
+        }
+        hasher.putByte(b);
+        last = b;
+        gap = false;
+    }
+
+    private static boolean needsSeparator(final byte previous, final byte next) {
+        return (isWord(previous) && isWord(next)) || (isOperator(previous) && isOperator(next));
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+    }
+
+    /**
+     * Bytes of multibyte UTF-8 characters are negative and count as word
+     * characters, as Java identifiers may use them.
+     */
+    private static boolean isWord(final byte b) {
+        return b < 0 || b == '_' || b == '$' || (b >= '0' && b <= '9') || (b >= 'a' && b <= 'z')
+                || (b >= 'A' && b <= 'Z');
+    }
+
+    private static boolean isOperator(final byte b) {
+        return OPERATORS.indexOf(b) >= 0;
+    }
+}
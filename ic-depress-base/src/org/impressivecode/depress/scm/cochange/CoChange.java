@@ -0,0 +1,68 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.cochange;
+
+/**
+ * Two files changed together, with the number of commits changing both and
+ * the number of commits changing each of them.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class CoChange {
+    private final String firstPath;
+    private final String secondPath;
+    private final int coChanges;
+    private final int firstChanges;
+    private final int secondChanges;
+
+    CoChange(final String firstPath, final String secondPath, final int coChanges, final int firstChanges,
+            final int secondChanges) {
+        this.firstPath = firstPath;
+        this.secondPath = secondPath;
+        this.coChanges = coChanges;
+        this.firstChanges = firstChanges;
+        this.secondChanges = secondChanges;
+    }
+
+    public String getFirstPath() {
+        return firstPath;
+    }
+
+    public String getSecondPath() {
+        return secondPath;
+    }
+
+    public int getCoChanges() {
+        return coChanges;
+    }
+
+    public int getFirstChanges() {
+        return firstChanges;
+    }
+
+    public int getSecondChanges() {
+        return secondChanges;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CoChange [firstPath=%s, secondPath=%s, coChanges=%s, firstChanges=%s, secondChanges=%s]",
+                firstPath, secondPath, coChanges, firstChanges, secondChanges);
+    }
+}
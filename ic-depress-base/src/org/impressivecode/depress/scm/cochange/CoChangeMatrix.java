@@ -0,0 +1,197 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.cochange;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Sparse matrix of the number of commits changing two files together, built
+ * from the changes of the SCM history. Files are numbered as they come and
+ * every commit keeps only the numbers of its files, pairs are counted once
+ * all changes are added. Commits changing more files than the limit are not
+ * paired, as they are mostly merges, reformats or imports whose pairs
+ * outnumber all others.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class CoChangeMatrix {
+    /**
+     * Most co-changes first, then by the paths.
+     */
+    static final Comparator<CoChange> ORDER = new Comparator<CoChange>() {
+        @Override
+        public int compare(final CoChange o1, final CoChange o2) {
+            if (o1.getCoChanges() != o2.getCoChanges()) {
+                return o1.getCoChanges() > o2.getCoChanges() ? -1 : 1;
+            }
+            int first = o1.getFirstPath().compareTo(o2.getFirstPath());
+            return first != 0 ? first : o1.getSecondPath().compareTo(o2.getSecondPath());
+        }
+    };
+
+    private final int maxFilesPerCommit;
+    private final Map<String, Integer> fileIds = Maps.newHashMap();
+    private final List<String> files = Lists.newArrayList();
+    private final Map<String, CommitFiles> commits = Maps.newHashMap();
+    private int skippedCommits = 0;
+
+    /**
+     * @param maxFilesPerCommit
+     *            commits changing more files are not paired, 0 pairs every
+     *            commit
+     */
+    public CoChangeMatrix(final int maxFilesPerCommit) {
+        checkArgument(maxFilesPerCommit >= 0, "Max files per commit can not be negative.");
+        this.maxFilesPerCommit = maxFilesPerCommit;
+    }
+
+    /**
+     * Adds the change of the file in the commit. Changes of a commit do not
+     * have to be adjacent.
+     */
+    public void add(final String commitId, final String path) {
+        checkNotNull(commitId, "Commit id has to be set.");
+        checkNotNull(path, "Path has to be set.");
+        CommitFiles commit = commits.get(commitId);
+        if (commit == null) {
+            commit = new CommitFiles();
+            commits.put(commitId, commit);
+        }
+        commit.add(fileId(path));
+    }
+
+    /**
+     * @return at most limit pairs changed together in at least minSupport
+     *         commits, most co-changes first
+     */
+    public List<CoChange> top(final int minSupport, final int limit) {
+        checkArgument(minSupport > 0, "Min support has to be positive.");
+        checkArgument(limit > 0, "Limit has to be positive.");
+        int[] changes = new int[files.size()];
+        PairCounts counts = count(changes);
+
+        PriorityQueue<CoChange> top = new PriorityQueue<CoChange>(Math.min(limit, Math.max(counts.size(), 1)),
+                Collections.reverseOrder(ORDER));
+        for (int slot = 0; slot < counts.capacity(); slot++) {
+            long pair = counts.keyAt(slot);
+            int coChanges = counts.countAt(slot);
+            if (pair == 0 || coChanges < minSupport) {
+                continue;
+            }
+            if (top.size() == limit && coChanges < top.peek().getCoChanges()) {
+                continue;
+            }
+            top.add(coChange(pair, coChanges, changes));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<CoChange> result = Lists.newArrayList(top);
+        Collections.sort(result, ORDER);
+        return result;
+    }
+
+    /**
+     * @return number of commits not paired in the last call of top, as they
+     *         change more files than the limit
+     */
+    public int getSkippedCommits() {
+        return skippedCommits;
+    }
+
+    private PairCounts count(final int[] changes) {
+        PairCounts counts = new PairCounts();
+        skippedCommits = 0;
+        for (CommitFiles commit : commits.values()) {
+            int[] ids = commit.distinct();
+            for (int id : ids) {
+                changes[id]++;
+            }
+            if (maxFilesPerCommit > 0 && ids.length > maxFilesPerCommit) {
+                skippedCommits++;
+                continue;
+            }
+            for (int i = 0; i < ids.length; i++) {
+                for (int j = i + 1; j < ids.length; j++) {
+                    counts.increment(PairCounts.pair(ids[i], ids[j]));
+                }
+            }
+        }
+        return counts;
+    }
+
+    private CoChange coChange(final long pair, final int coChanges, final int[] changes) {
+        int first = PairCounts.first(pair);
+        int second = PairCounts.second(pair);
+        String firstPath = files.get(first);
+        String secondPath = files.get(second);
+        if (firstPath.compareTo(secondPath) > 0) {
+            return new CoChange(secondPath, firstPath, coChanges, changes[second], changes[first]);
+        }
+        return new CoChange(firstPath, secondPath, coChanges, changes[first], changes[second]);
+    }
+
+    private int fileId(final String path) {
+        Integer id = fileIds.get(path);
+        if (id == null) {
+            id = files.size();
+            fileIds.put(path, id);
+            files.add(path);
+        }
+        return id;
+    }
+
+    private static class CommitFiles {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        void add(final int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        /**
+         * @return ids of the files in ascending order, each once
+         */
+        int[] distinct() {
+            int[] sorted = Arrays.copyOf(ids, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.cochange;
+
+import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
+
+/**
+ * 
+ * @author ImpressiveCode contributors
+ * 
+ */
+public class CoChangeNodeDialog extends DefaultNodeSettingsPane {
+
+    protected CoChangeNodeDialog() {
+        super();
+        addDialogComponent(new DialogComponentNumber(CoChangeNodeModel.createSettingsMinSupport(),
+                "Minimal number of co-changes: ", 1));
+        addDialogComponent(new DialogComponentNumber(CoChangeNodeModel.createSettingsTopPairs(),
+                "Number of top pairs: ", 100));
+        addDialogComponent(new DialogComponentNumber(CoChangeNodeModel.createSettingsMaxFiles(),
+                "Max files per commit (0 = no limit): ", 10));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.cochange;
+
+import static org.impressivecode.depress.common.DataTableSpecUtils.findMissingColumnSubset;
+import static org.impressivecode.depress.scm.cochange.CoChangeTableFactory.createDataColumnSpec;
+import static org.impressivecode.depress.scm.cochange.CoChangeTableFactory.createHistoryColumnSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.impressivecode.depress.scm.SCMAdapterTableFactory;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.StringValue;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
+
+import com.google.common.collect.Iterables;
+
+/**
+ * Counts how often two files are changed in the same commit. Rows of the SCM
+ * table are grouped by their commit id, only the pairs changed together in
+ * enough commits are returned, without building the cross product of the
+ * changes.
+ * 
+ * @author ImpressiveCode contributors
+ * 
+ */
+public class CoChangeNodeModel extends NodeModel {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(CoChangeNodeModel.class);
+
+    static final String MIN_SUPPORT = "min support";
+    static final String TOP_PAIRS = "top pairs";
+    static final String MAX_FILES = "max files per commit";
+
+    static final int MIN_SUPPORT_DEFAULT = 2;
+    static final int TOP_PAIRS_DEFAULT = 1000;
+    static final int MAX_FILES_DEFAULT = 50;
+
+    private final SettingsModelIntegerBounded minSupport = createSettingsMinSupport();
+    private final SettingsModelIntegerBounded topPairs = createSettingsTopPairs();
+    private final SettingsModelIntegerBounded maxFiles = createSettingsMaxFiles();
+
+    private DataTableSpec historyDataSpec;
+
+    protected CoChangeNodeModel() {
+        super(1, 1);
+    }
+
+    @Override
+    protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
+            throws Exception {
+        LOGGER.info("Preparing to count co-changes.");
+        CoChangeMatrix matrix = buildMatrix(inData[0], exec);
+        List<CoChange> coChanges = matrix.top(minSupport.getIntValue(), topPairs.getIntValue());
+        if (matrix.getSkippedCommits() > 0) {
+            LOGGER.info("Commits changing more than " + maxFiles.getIntValue() + " files not paired: "
+                    + matrix.getSkippedCommits());
+        }
+        BufferedDataTable out = new CoChangeTransformer(createDataColumnSpec()).transform(coChanges, exec);
+        LOGGER.info("Counting co-changes finished.");
+        return new BufferedDataTable[] { out };
+    }
+
+    private CoChangeMatrix buildMatrix(final BufferedDataTable changeHistory, final ExecutionContext exec)
+            throws CanceledExecutionException {
+        int commitIndex = historyDataSpec.findColumnIndex(SCMAdapterTableFactory.UID_COLNAME);
+        int pathIndex = historyDataSpec.findColumnIndex(SCMAdapterTableFactory.PATH_COLNAME);
+        CoChangeMatrix matrix = new CoChangeMatrix(maxFiles.getIntValue());
+        for (DataRow row : changeHistory) {
+            exec.checkCanceled();
+            DataCell commit = row.getCell(commitIndex);
+            DataCell path = row.getCell(pathIndex);
+            if (!commit.isMissing() && !path.isMissing()) {
+                matrix.add(((StringValue) commit).getStringValue(), ((StringValue) path).getStringValue());
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    protected void reset() {
+        this.historyDataSpec = null;
+    }
+
+    @Override
+    protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
+        if (inSpecs.length != 1) {
+            throw new InvalidSettingsException("Wrong number of input suorces");
+        }
+        Set<String> missing = findMissingColumnSubset(inSpecs[0], createHistoryColumnSpec());
+        if (!missing.isEmpty()) {
+            throw new InvalidSettingsException("History data table does not contain required columns. Missing: "
+                    + Iterables.toString(missing));
+        }
+        this.historyDataSpec = inSpecs[0];
+        return new DataTableSpec[] { createDataColumnSpec() };
+    }
+
+    @Override
+    protected void saveSettingsTo(final NodeSettingsWO settings) {
+        minSupport.saveSettingsTo(settings);
+        topPairs.saveSettingsTo(settings);
+        maxFiles.saveSettingsTo(settings);
+    }
+
+    @Override
+    protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
+        minSupport.loadSettingsFrom(settings);
+        topPairs.loadSettingsFrom(settings);
+        maxFiles.loadSettingsFrom(settings);
+    }
+
+    @Override
+    protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
+        minSupport.validateSettings(settings);
+        topPairs.validateSettings(settings);
+        maxFiles.validateSettings(settings);
+    }
+
+    @Override
+    protected void loadInternals(final File internDir, final ExecutionMonitor exec) throws IOException,
+    CanceledExecutionException {
+        // NOOP
+    }
+
+    @Override
+    protected void saveInternals(final File internDir, final ExecutionMonitor exec) throws IOException,
+    CanceledExecutionException {
+        // NOOP
+    }
+
+    static SettingsModelIntegerBounded createSettingsMinSupport() {
+        return new SettingsModelIntegerBounded(MIN_SUPPORT, MIN_SUPPORT_DEFAULT, 1, Integer.MAX_VALUE);
+    }
+
+    static SettingsModelIntegerBounded createSettingsTopPairs() {
+        return new SettingsModelIntegerBounded(TOP_PAIRS, TOP_PAIRS_DEFAULT, 1, Integer.MAX_VALUE);
+    }
+
+    static SettingsModelIntegerBounded createSettingsMaxFiles() {
+        return new SettingsModelIntegerBounded(MAX_FILES, MAX_FILES_DEFAULT, 0, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.cochange;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.impressivecode.depress.common.Cells.integerCell;
+import static org.impressivecode.depress.common.Cells.stringCell;
+
+import org.impressivecode.depress.scm.SCMAdapterTableFactory;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * 
+ * @author ImpressiveCode contributors
+ * 
+ */
+public class CoChangeTableFactory {
+
+    public static final String FIRST_PATH_COLNAME = "Path1";
+    public static final String SECOND_PATH_COLNAME = "Path2";
+    public static final String CO_CHANGES_COLNAME = "CoChanges";
+    public static final String FIRST_CHANGES_COLNAME = "Changes1";
+    public static final String SECOND_CHANGES_COLNAME = "Changes2";
+
+    private CoChangeTableFactory() {
+
+    }
+
+    public static DataTableSpec createDataColumnSpec() {
+        DataColumnSpec[] allColSpecs = { new DataColumnSpecCreator(FIRST_PATH_COLNAME, StringCell.TYPE).createSpec(),
+                new DataColumnSpecCreator(SECOND_PATH_COLNAME, StringCell.TYPE).createSpec(),
+                new DataColumnSpecCreator(CO_CHANGES_COLNAME, IntCell.TYPE).createSpec(),
+                new DataColumnSpecCreator(FIRST_CHANGES_COLNAME, IntCell.TYPE).createSpec(),
+                new DataColumnSpecCreator(SECOND_CHANGES_COLNAME, IntCell.TYPE).createSpec() };
+        return new DataTableSpec(allColSpecs);
+    }
+
+    /**
+     * @return columns of the SCM table the matrix is built from
+     */
+    public static DataTableSpec createHistoryColumnSpec() {
+        return new DataTableSpec(
+                new DataColumnSpecCreator(SCMAdapterTableFactory.PATH_COLNAME, StringCell.TYPE).createSpec(),
+                new DataColumnSpecCreator(SCMAdapterTableFactory.UID_COLNAME, StringCell.TYPE).createSpec());
+    }
+
+    public static DataRow createTableRow(final String rowId, final CoChange coChange) {
+        checkNotNull(coChange, "Co-change has to be set.");
+        DataCell[] cells = { stringCell(coChange.getFirstPath()), stringCell(coChange.getSecondPath()),
+                integerCell(coChange.getCoChanges()), integerCell(coChange.getFirstChanges()),
+                integerCell(coChange.getSecondChanges()) };
+        return new DefaultRow(rowId, cells);
+    }
+}
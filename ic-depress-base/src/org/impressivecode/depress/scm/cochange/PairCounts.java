@@ -0,0 +1,121 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.cochange;
+
+/**
+ * Open addressing map from a pair of file ids to the number of commits
+ * changing both, keys and counts are kept in primitive arrays. Only pairs
+ * that occurred are stored, so the size follows the number of distinct
+ * pairs instead of the square of the number of files.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+class PairCounts {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long EMPTY = 0L;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * @param first
+     *            id of the first file, lower than the second one
+     */
+    static long pair(final int first, final int second) {
+        return ((long) first << 32) | second;
+    }
+
+    static int first(final long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    static int second(final long pair) {
+        return (int) pair;
+    }
+
+    /**
+     * Adds one to the count of the pair. The pair of two different ids is
+     * never 0, which marks the free slots.
+     */
+    void increment(final long pair) {
+        int slot = find(keys, pair);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = pair;
+            size++;
+            if (size * 2 > keys.length) {
+                grow();
+                slot = find(keys, pair);
+            }
+        }
+        counts[slot]++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return number of slots, slots without a pair have the key 0
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    long keyAt(final int slot) {
+        return keys[slot];
+    }
+
+    int countAt(final int slot) {
+        return counts[slot];
+    }
+
+    int count(final long pair) {
+        int slot = find(keys, pair);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int find(final long[] keys, final long pair) {
+        int mask = keys.length - 1;
+        int slot = hash(pair) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != pair) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(final long pair) {
+        long mixed = pair * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
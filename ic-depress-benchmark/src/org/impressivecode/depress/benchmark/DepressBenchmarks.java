@@ -0,0 +1,45 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks of this bundle, or the ones matching the first
+ * argument, and writes throughput together with the allocation rate to
+ * depress-benchmarks.json (or the file given as the second argument).
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class DepressBenchmarks {
+
+    public static void main(final String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : DepressBenchmarks.class.getPackage().getName() + ".*";
+        String result = args.length > 1 ? args[1] : "depress-benchmarks.json";
+        Options options = new OptionsBuilder().include(include).exclude(DepressBenchmarks.class.getSimpleName())
+                .warmupIterations(3).measurementIterations(5).forks(1).addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON).result(result).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark;
+
+import static org.impressivecode.depress.scm.git.GitParserOptions.options;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.impressivecode.depress.benchmark.generator.SyntheticGitRepository;
+import org.impressivecode.depress.benchmark.generator.SyntheticNames;
+import org.impressivecode.depress.scm.git.GitCommit;
+import org.impressivecode.depress.scm.git.GitOnlineLogParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.io.Files;
+
+/**
+ * Online Git import of a synthetic repository, with a growing number of
+ * threads diffing the commits.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GitOnlineImportBenchmark {
+
+    @Param({ "2000" })
+    public int commits;
+
+    @Param({ "5" })
+    public int filesPerCommit;
+
+    @Param({ "1", "2", "4" })
+    public int threads;
+
+    private File repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        repository = new SyntheticGitRepository(commits, filesPerCommit, SyntheticNames.DEFAULT_SEED).write(new File(
+                Files.createTempDir(), ".git"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        delete(repository.getParentFile());
+    }
+
+    @Benchmark
+    public List<GitCommit> gitOnlineLog() throws IOException, ParseException, GitAPIException {
+        GitOnlineLogParser parser = new GitOnlineLogParser();
+        parser.setThreads(threads);
+        return parser.parseEntries(repository.getAbsolutePath(), options("org.", null));
+    }
+
+    private static void delete(final File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
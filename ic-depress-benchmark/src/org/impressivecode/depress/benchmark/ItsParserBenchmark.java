@@ -0,0 +1,127 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.impressivecode.depress.benchmark.generator.SyntheticIssueExport;
+import org.impressivecode.depress.benchmark.generator.SyntheticNames;
+import org.impressivecode.depress.its.ITSDataType;
+import org.impressivecode.depress.its.ITSPriority;
+import org.impressivecode.depress.its.ITSResolution;
+import org.impressivecode.depress.its.ITSStatus;
+import org.impressivecode.depress.its.ITSType;
+import org.impressivecode.depress.its.bugzilla.BugzillaEntriesParser;
+import org.impressivecode.depress.its.jira.JiraEntriesParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xml.sax.SAXException;
+
+/**
+ * Offline ITS parsers fed with synthetic Jira and Bugzilla exports.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ItsParserBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int issues;
+
+    @Param({ "3" })
+    public int commentsPerIssue;
+
+    private File jiraExport;
+    private File bugzillaExport;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticIssueExport export = new SyntheticIssueExport(issues, commentsPerIssue, SyntheticNames.DEFAULT_SEED);
+        jiraExport = export.writeJira(File.createTempFile("depress-jira", ".xml"));
+        bugzillaExport = export.writeBugzilla(File.createTempFile("depress-bugzilla", ".xml"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jiraExport.delete();
+        bugzillaExport.delete();
+    }
+
+    @Benchmark
+    public List<ITSDataType> jira() throws ParserConfigurationException, SAXException, IOException, ParseException {
+        return new JiraEntriesParser(priorities(), types(), resolutions(), statuses()).parseEntries(jiraExport
+                .getAbsolutePath());
+    }
+
+    @Benchmark
+    public List<ITSDataType> bugzilla() throws ParserConfigurationException, SAXException, IOException,
+            ParseException {
+        return new BugzillaEntriesParser(priorities(), resolutions(), statuses()).parseEntries(bugzillaExport
+                .getAbsolutePath());
+    }
+
+    private static HashMap<String, String[]> priorities() {
+        HashMap<String, String[]> mapping = new HashMap<String, String[]>();
+        for (ITSPriority priority : ITSPriority.values()) {
+            mapping.put(priority.getLabel(), new String[] { priority.getLabel() });
+        }
+        return mapping;
+    }
+
+    private static HashMap<String, String[]> types() {
+        HashMap<String, String[]> mapping = new HashMap<String, String[]>();
+        for (ITSType type : ITSType.values()) {
+            mapping.put(type.getLabel(), new String[] { type.getLabel() });
+        }
+        return mapping;
+    }
+
+    private static HashMap<String, String[]> resolutions() {
+        HashMap<String, String[]> mapping = new HashMap<String, String[]>();
+        for (ITSResolution resolution : ITSResolution.values()) {
+            mapping.put(resolution.getLabel(), new String[] { resolution.getLabel() });
+        }
+        return mapping;
+    }
+
+    private static HashMap<String, String[]> statuses() {
+        HashMap<String, String[]> mapping = new HashMap<String, String[]>();
+        for (ITSStatus status : ITSStatus.values()) {
+            mapping.put(status.getLabel(), new String[] { status.getLabel() });
+        }
+        return mapping;
+    }
+}
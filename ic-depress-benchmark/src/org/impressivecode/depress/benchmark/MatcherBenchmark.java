@@ -0,0 +1,111 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.impressivecode.depress.benchmark.generator.SyntheticNames;
+import org.impressivecode.depress.benchmark.generator.SyntheticTables;
+import org.impressivecode.depress.its.ITSDataType;
+import org.impressivecode.depress.scm.SCMAdapterTableFactory;
+import org.impressivecode.depress.support.activitymatcher.ActivityMarkerCellFactory;
+import org.impressivecode.depress.support.extmarkerparser.ExtMarkerCellFactory;
+import org.impressivecode.depress.support.syntacticanalysis.SyntacticAnalysisCellFactory;
+import org.knime.base.data.append.column.AppendedCellFactory;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Marker cell factories applied to every row of a synthetic SCM table.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MatcherBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int commits;
+
+    @Param({ "5" })
+    public int filesPerCommit;
+
+    @Param({ "1000" })
+    public int issues;
+
+    private List<DataRow> rows;
+    private ActivityMarkerCellFactory activity;
+    private ExtMarkerCellFactory extended;
+    private SyntacticAnalysisCellFactory syntactic;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticTables tables = new SyntheticTables(SyntheticNames.DEFAULT_SEED);
+        rows = tables.scmRows(commits, filesPerCommit);
+        List<ITSDataType> its = tables.issues(issues);
+        DataTableSpec spec = SCMAdapterTableFactory.createDataColumnSpec();
+        int dateIndex = spec.findColumnIndex(SCMAdapterTableFactory.DATE_COLNAME);
+        int messageIndex = spec.findColumnIndex(SCMAdapterTableFactory.MESSAGE_COLNAME);
+
+        activity = new ActivityMarkerCellFactory(new org.impressivecode.depress.support.activitymatcher.Configuration(
+                new SettingsModelInteger("interval", 60), new SettingsModelString("builder", "%s"), its), dateIndex);
+        extended = new ExtMarkerCellFactory(new org.impressivecode.depress.support.extmarkerparser.Configuration(
+                new SettingsModelString("regexp", "#([0-9]+)"), new SettingsModelString("builder", "%s")),
+                messageIndex);
+        syntactic = new SyntacticAnalysisCellFactory(
+                new org.impressivecode.depress.support.syntacticanalysis.Configuration(new SettingsModelString(
+                        "regexp", "(bug|fix)"), new SettingsModelString("keywords", "exception,null"),
+                        new SettingsModelString("onlyIds", "^[,0-9 #]+$")), messageIndex);
+    }
+
+    @Benchmark
+    public void activityMarkers(final Blackhole blackhole) {
+        apply(activity, blackhole);
+    }
+
+    @Benchmark
+    public void extendedMarkers(final Blackhole blackhole) {
+        apply(extended, blackhole);
+    }
+
+    @Benchmark
+    public void syntacticAnalysis(final Blackhole blackhole) {
+        apply(syntactic, blackhole);
+    }
+
+    private void apply(final AppendedCellFactory factory, final Blackhole blackhole) {
+        for (DataRow row : rows) {
+            blackhole.consume(factory.getAppendedCell(row));
+        }
+    }
+}
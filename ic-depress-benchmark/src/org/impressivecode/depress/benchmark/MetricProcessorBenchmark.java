@@ -0,0 +1,90 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.impressivecode.depress.benchmark.generator.SyntheticNames;
+import org.impressivecode.depress.benchmark.generator.SyntheticTables;
+import org.impressivecode.depress.its.ITSDataType;
+import org.impressivecode.depress.mg.ipa.IssuesMetricMetricProcessor;
+import org.impressivecode.depress.mg.ipa.IssuesMetricType;
+import org.impressivecode.depress.mg.po.ChangeData;
+import org.impressivecode.depress.mg.po.PeopleOrganizationMetric;
+import org.impressivecode.depress.mg.po.PeopleOrganizationMetricProcessor;
+import org.impressivecode.depress.mg.po.TeamMemberData;
+import org.impressivecode.depress.support.commonmarker.MarkerDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * People organization (PO) and issues per artifact (IPA) metric processors.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MetricProcessorBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int classes;
+
+    @Param({ "10" })
+    public int changesPerClass;
+
+    @Param({ "50" })
+    public int engineers;
+
+    @Param({ "1000" })
+    public int issues;
+
+    private Map<String, ChangeData> changes;
+    private Map<String, TeamMemberData> teamMembers;
+    private List<ITSDataType> its;
+    private List<MarkerDataType> markers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticTables tables = new SyntheticTables(SyntheticNames.DEFAULT_SEED);
+        changes = tables.changes(classes, changesPerClass, engineers);
+        teamMembers = tables.teamMembers(engineers);
+        its = tables.issues(issues);
+        markers = tables.markers(classes, issues, changesPerClass);
+    }
+
+    @Benchmark
+    public List<PeopleOrganizationMetric> peopleOrganization() {
+        return new PeopleOrganizationMetricProcessor(changes, teamMembers).buildMetric();
+    }
+
+    @Benchmark
+    public List<IssuesMetricType> issuesPerArtifact() {
+        return new IssuesMetricMetricProcessor(its, markers).computeMetric();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+
+import org.impressivecode.depress.benchmark.generator.SyntheticGitLog;
+import org.impressivecode.depress.benchmark.generator.SyntheticNames;
+import org.impressivecode.depress.benchmark.generator.SyntheticSvnLog;
+import org.impressivecode.depress.scm.SCMDataType;
+import org.impressivecode.depress.scm.SCMParserOptions;
+import org.impressivecode.depress.scm.git.GitCommit;
+import org.impressivecode.depress.scm.git.GitOfflineLogParser;
+import org.impressivecode.depress.scm.svn.SVNExtensionParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Offline SCM log parsers fed with synthetic git and svn logs.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScmLogParserBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int commits;
+
+    @Param({ "5" })
+    public int filesPerCommit;
+
+    private File gitLog;
+    private File svnLog;
+    private SCMParserOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        gitLog = new SyntheticGitLog(commits, filesPerCommit, SyntheticNames.DEFAULT_SEED).write(File.createTempFile(
+                "depress-git", ".log"));
+        svnLog = new SyntheticSvnLog(commits, filesPerCommit, SyntheticNames.DEFAULT_SEED).write(File.createTempFile(
+                "depress-svn", ".xml"));
+        ArrayList<String> extensions = new ArrayList<String>();
+        extensions.add(".java");
+        options = SCMParserOptions.options("org.", extensions);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        gitLog.delete();
+        svnLog.delete();
+    }
+
+    @Benchmark
+    public List<GitCommit> gitOfflineLog() throws IOException, ParseException {
+        return new GitOfflineLogParser(options).parseEntries(gitLog.getAbsolutePath());
+    }
+
+    @Benchmark
+    public List<SCMDataType> svnOfflineLog() throws JAXBException, CloneNotSupportedException {
+        return new SVNExtensionParser(options).parseEntries(svnLog.getAbsolutePath());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark.generator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Writes a git log in the format read by the offline Git adapter:
+ *
+ * git log --pretty=format:"%H%n%ct%n%an%n%B%n%H" --raw --no-merges --abbrev=40
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class SyntheticGitLog {
+    private static final String[] OPERATIONS = { "M", "M", "M", "A", "D" };
+
+    private final int commits;
+    private final int filesPerCommit;
+    private final long seed;
+
+    public SyntheticGitLog(final int commits, final int filesPerCommit, final long seed) {
+        this.commits = commits;
+        this.filesPerCommit = filesPerCommit;
+        this.seed = seed;
+    }
+
+    public File write(final File file) throws IOException {
+        SyntheticNames names = new SyntheticNames(seed);
+        Writer writer = new BufferedWriter(Files.newWriter(file, Charsets.UTF_8));
+        try {
+            for (int i = commits - 1; i >= 0; i--) {
+                writeCommit(writer, names, i);
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private void writeCommit(final Writer writer, final SyntheticNames names, final int step) throws IOException {
+        String hash = names.hash();
+        writer.write(hash + "\n");
+        writer.write(names.time(step) / 1000 + "\n");
+        writer.write(names.author() + "\n");
+        writer.write(names.sentence(commits) + "\n");
+        writer.write("\n");
+        writer.write(hash + "\n");
+        int files = 1 + names.nextInt(filesPerCommit * 2);
+        for (int i = 0; i < files; i++) {
+            String operation = OPERATIONS[names.nextInt(OPERATIONS.length)];
+            writer.write(":100644 100644 " + names.hash() + " " + names.hash() + " " + operation + "\t"
+                    + names.classPath() + "\n");
+        }
+        writer.write("\n");
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryBuilder;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Writes a bare git repository with a linear history on master, read by the
+ * online Git adapter. Every commit adds, modifies or deletes a few Java
+ * classes. Objects are inserted directly, no working tree is created.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class SyntheticGitRepository {
+    private static final String MASTER = Constants.R_HEADS + Constants.MASTER;
+
+    private final int commits;
+    private final int filesPerCommit;
+    private final long seed;
+
+    public SyntheticGitRepository(final int commits, final int filesPerCommit, final long seed) {
+        this.commits = commits;
+        this.filesPerCommit = filesPerCommit;
+        this.seed = seed;
+    }
+
+    /**
+     * @return the git directory of the created repository
+     */
+    public File write(final File directory) throws IOException {
+        SyntheticNames names = new SyntheticNames(seed);
+        Repository repository = new RepositoryBuilder().setGitDir(directory).setBare().build();
+        repository.create(true);
+        ObjectInserter inserter = repository.newObjectInserter();
+        try {
+            Map<String, ObjectId> files = new TreeMap<String, ObjectId>();
+            ObjectId head = null;
+            for (int i = 0; i < commits; i++) {
+                changeFiles(inserter, names, files);
+                head = insertCommit(inserter, names, i, writeTree(inserter, files), head);
+            }
+            inserter.flush();
+            RefUpdate update = repository.updateRef(MASTER);
+            update.setNewObjectId(head);
+            update.forceUpdate();
+        } finally {
+            inserter.release();
+            repository.close();
+        }
+        return directory;
+    }
+
+    private void changeFiles(final ObjectInserter inserter, final SyntheticNames names,
+            final Map<String, ObjectId> files) throws IOException {
+        int changes = 1 + names.nextInt(filesPerCommit * 2);
+        for (int i = 0; i < changes; i++) {
+            String path = names.classPath();
+            if (files.containsKey(path) && names.nextInt(5) == 0) {
+                files.remove(path);
+            } else {
+                files.put(path, inserter.insert(Constants.OBJ_BLOB, source(names, path)));
+            }
+        }
+    }
+
+    private static byte[] source(final SyntheticNames names, final String path) {
+        String className = path.substring(path.lastIndexOf('/') + 1, path.length() - ".java".length());
+        StringBuilder source = new StringBuilder();
+        source.append("public class ").append(className).append(" {\n");
+        int fields = 20 + names.nextInt(40);
+        for (int i = 0; i < fields; i++) {
+            source.append("    int field").append(i).append(" = ").append(names.nextInt(1000)).append(";\n");
+        }
+        source.append("}\n");
+        return source.toString().getBytes(Charsets.UTF_8);
+    }
+
+    private static ObjectId writeTree(final ObjectInserter inserter, final Map<String, ObjectId> files)
+            throws IOException {
+        DirCache index = DirCache.newInCore();
+        DirCacheBuilder builder = index.builder();
+        for (Map.Entry<String, ObjectId> file : files.entrySet()) {
+            DirCacheEntry entry = new DirCacheEntry(file.getKey());
+            entry.setFileMode(FileMode.REGULAR_FILE);
+            entry.setObjectId(file.getValue());
+            builder.add(entry);
+        }
+        builder.finish();
+        return index.writeTree(inserter);
+    }
+
+    private ObjectId insertCommit(final ObjectInserter inserter, final SyntheticNames names, final int step,
+            final ObjectId tree, final ObjectId parent) throws IOException {
+        String author = names.author();
+        PersonIdent ident = new PersonIdent(author, author + "@impressivecode.org", new Date(names.time(step)),
+                TimeZone.getTimeZone("UTC"));
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(tree);
+        if (parent != null) {
+            commit.setParentId(parent);
+        }
+        commit.setAuthor(ident);
+        commit.setCommitter(ident);
+        commit.setMessage(names.sentence(commits) + "\n");
+        return inserter.insert(commit);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark.generator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Writes Jira (RSS) and Bugzilla XML exports as read by the offline ITS
+ * adapters.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class SyntheticIssueExport {
+    private static final String[] TYPES = { "Bug", "Improvement", "New Feature", "Test" };
+    private static final String[] PRIORITIES = { "Trivial", "Minor", "Major", "Critical", "Blocker" };
+    private static final String[] STATUSES = { "Open", "In Progress", "Reopened", "Resolved", "Closed" };
+    private static final String[] RESOLUTIONS = { "Fixed", "Invalid", "Won't Fix", "Duplicate", "Unresolved" };
+    private static final String[] SEVERITIES = { "trivial", "minor", "normal", "major", "critical", "blocker" };
+    private static final String[] BUG_STATUSES = { "NEW", "ASSIGNED", "REOPENED", "RESOLVED", "VERIFIED", "CLOSED" };
+    private static final String[] BUG_RESOLUTIONS = { "FIXED", "INVALID", "WONTFIX", "DUPLICATE", "WORKSFORME" };
+
+    private final int issues;
+    private final int commentsPerIssue;
+    private final long seed;
+
+    public SyntheticIssueExport(final int issues, final int commentsPerIssue, final long seed) {
+        this.issues = issues;
+        this.commentsPerIssue = commentsPerIssue;
+        this.seed = seed;
+    }
+
+    public File writeJira(final File file) throws IOException {
+        SyntheticNames names = new SyntheticNames(seed);
+        SimpleDateFormat format = dateFormat("EEE, dd MMM yyyy HH:mm:ss Z");
+        Writer writer = new BufferedWriter(Files.newWriter(file, Charsets.UTF_8));
+        try {
+            writer.write("<rss version=\"0.92\">\n<channel>\n<title>Synthetic JIRA</title>\n");
+            writer.write("<link>https://jira.example.com/secure/IssueNavigator.jspa</link>\n");
+            for (int i = 0; i < issues; i++) {
+                String key = "DEP-" + i;
+                writer.write("<item>\n");
+                writer.write("<title>[" + key + "] " + names.sentence(0) + "</title>\n");
+                writer.write("<link>https://jira.example.com/browse/" + key + "</link>\n");
+                writer.write("<description>&lt;p&gt;" + names.sentence(issues) + "&lt;/p&gt;</description>\n");
+                writer.write("<key id=\"" + i + "\">" + key + "</key>\n");
+                writer.write("<summary>" + names.sentence(0) + "</summary>\n");
+                writer.write("<type id=\"1\">" + pick(names, TYPES) + "</type>\n");
+                writer.write("<priority id=\"3\">" + pick(names, PRIORITIES) + "</priority>\n");
+                writer.write("<status id=\"6\">" + pick(names, STATUSES) + "</status>\n");
+                writer.write("<resolution id=\"1\">" + escape(pick(names, RESOLUTIONS)) + "</resolution>\n");
+                writer.write("<assignee username=\"" + names.author() + "\">Assignee</assignee>\n");
+                writer.write("<reporter username=\"" + names.author() + "\">Reporter</reporter>\n");
+                long created = names.time(i);
+                writer.write("<created>" + format.format(new Date(created)) + "</created>\n");
+                writer.write("<updated>" + format.format(new Date(created + 86400000L)) + "</updated>\n");
+                writer.write("<resolved>" + format.format(new Date(created + 172800000L)) + "</resolved>\n");
+                writer.write("<version>1." + names.nextInt(5) + "</version>\n");
+                writer.write("<fixVersion>1." + (5 + names.nextInt(5)) + "</fixVersion>\n");
+                writer.write("<timeoriginalestimate seconds=\"" + 3600 * (1 + names.nextInt(8))
+                        + "\">hours</timeoriginalestimate>\n");
+                writer.write("<timespent seconds=\"" + 3600 * (1 + names.nextInt(8)) + "\">hours</timespent>\n");
+                writer.write("<comments>\n");
+                int comments = names.nextInt(commentsPerIssue * 2 + 1);
+                for (int c = 0; c < comments; c++) {
+                    writer.write("<comment id=\"" + c + "\" author=\"" + names.author() + "\" created=\""
+                            + format.format(new Date(created + c * 60000L)) + "\">&lt;p&gt;" + names.sentence(issues)
+                            + "&lt;/p&gt;</comment>\n");
+                }
+                writer.write("</comments>\n");
+                writer.write("</item>\n");
+            }
+            writer.write("</channel>\n</rss>\n");
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    public File writeBugzilla(final File file) throws IOException {
+        SyntheticNames names = new SyntheticNames(seed);
+        SimpleDateFormat format = dateFormat("yyyy-MM-dd HH:mm:ss Z");
+        Writer writer = new BufferedWriter(Files.newWriter(file, Charsets.UTF_8));
+        try {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\" ?>\n");
+            writer.write("<bugzilla version=\"4.2.6+\" urlbase=\"https://bugzilla.example.com/\">\n");
+            for (int i = 0; i < issues; i++) {
+                long created = names.time(i);
+                writer.write("<bug>\n");
+                writer.write("<bug_id>" + (100000 + i) + "</bug_id>\n");
+                writer.write("<creation_ts>" + format.format(new Date(created)) + "</creation_ts>\n");
+                writer.write("<short_desc>" + names.sentence(0) + "</short_desc>\n");
+                writer.write("<delta_ts>" + format.format(new Date(created + 86400000L)) + "</delta_ts>\n");
+                writer.write("<version>1." + names.nextInt(5) + "</version>\n");
+                writer.write("<bug_status>" + pick(names, BUG_STATUSES) + "</bug_status>\n");
+                writer.write("<resolution>" + pick(names, BUG_RESOLUTIONS) + "</resolution>\n");
+                writer.write("<priority>--</priority>\n");
+                writer.write("<bug_severity>" + pick(names, SEVERITIES) + "</bug_severity>\n");
+                writer.write("<target_milestone>1." + (5 + names.nextInt(5)) + "</target_milestone>\n");
+                writer.write("<reporter name=\"Reporter\">" + names.author() + "</reporter>\n");
+                writer.write("<assigned_to name=\"Assignee\">" + names.author() + "</assigned_to>\n");
+                writer.write("<estimated_time>" + (1 + names.nextInt(8)) + ".00</estimated_time>\n");
+                writer.write("<actual_time>" + (1 + names.nextInt(8)) + ".00</actual_time>\n");
+                int comments = 1 + names.nextInt(commentsPerIssue * 2 + 1);
+                for (int c = 0; c < comments; c++) {
+                    writer.write("<long_desc isprivate=\"0\">\n");
+                    writer.write("<commentid>" + c + "</commentid>\n");
+                    writer.write("<who name=\"Commenter\">" + names.author() + "</who>\n");
+                    writer.write("<bug_when>" + format.format(new Date(created + c * 60000L)) + "</bug_when>\n");
+                    writer.write("<thetext>" + names.sentence(issues) + "</thetext>\n");
+                    writer.write("</long_desc>\n");
+                }
+                writer.write("</bug>\n");
+            }
+            writer.write("</bugzilla>\n");
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private static SimpleDateFormat dateFormat(final String pattern) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format;
+    }
+
+    private static String pick(final SyntheticNames names, final String[] values) {
+        return values[names.nextInt(values.length)];
+    }
+
+    private static String escape(final String value) {
+        return value.replace("'", "&apos;");
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark.generator;
+
+import java.util.Random;
+
+/**
+ * Deterministic source of the names, identifiers and texts used by the
+ * synthetic generators. The same seed always gives the same sequence.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class SyntheticNames {
+    public static final long DEFAULT_SEED = 20130501L;
+    /** Sun, 31 Mar 2013 00:00:00 GMT */
+    public static final long START_TIME = 1364688000000L;
+
+    private static final String[] WORDS = { "parser", "table", "node", "issue", "commit", "marker", "fix", "bug",
+            "refactor", "cleanup", "exception", "test", "metric", "matcher", "config", "dialog", "null", "patch" };
+    private static final String[] PACKAGES = { "common", "its", "scm", "mr", "mg", "support" };
+    private static final String HEX = "0123456789abcdef";
+
+    private final Random random;
+    private final int authors;
+    private final int classes;
+
+    public SyntheticNames(final long seed, final int authors, final int classes) {
+        this.random = new Random(seed);
+        this.authors = authors;
+        this.classes = classes;
+    }
+
+    public SyntheticNames(final long seed) {
+        this(seed, 50, 1000);
+    }
+
+    public int nextInt(final int bound) {
+        return random.nextInt(bound);
+    }
+
+    public String author() {
+        return "developer" + random.nextInt(authors);
+    }
+
+    public String author(final int index) {
+        return "developer" + (index % authors);
+    }
+
+    public String classPath() {
+        int clazz = random.nextInt(classes);
+        return "src/org/impressivecode/depress/" + PACKAGES[clazz % PACKAGES.length] + "/Class" + clazz + ".java";
+    }
+
+    public String className() {
+        int clazz = random.nextInt(classes);
+        return "org.impressivecode.depress." + PACKAGES[clazz % PACKAGES.length] + ".Class" + clazz;
+    }
+
+    public String hash() {
+        char[] hash = new char[40];
+        for (int i = 0; i < hash.length; i++) {
+            hash[i] = HEX.charAt(random.nextInt(HEX.length()));
+        }
+        return new String(hash);
+    }
+
+    /**
+     * @return a few words, with an issue reference like "#123" every second
+     *         time
+     */
+    public String sentence(final int issues) {
+        StringBuilder sentence = new StringBuilder();
+        int words = 3 + random.nextInt(8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (issues > 0 && random.nextBoolean()) {
+            sentence.append(" #").append(random.nextInt(issues));
+        }
+        return sentence.toString();
+    }
+
+    /**
+     * @return time of the given step, steps are about an hour apart
+     */
+    public long time(final int step) {
+        return START_TIME + step * 3600000L + random.nextInt(3600000);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark.generator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Writes an "svn log --xml -v" output as read by the offline SVN adapter.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class SyntheticSvnLog {
+    private static final String[] ACTIONS = { "M", "M", "M", "A", "D", "R" };
+
+    private final int revisions;
+    private final int pathsPerRevision;
+    private final long seed;
+
+    public SyntheticSvnLog(final int revisions, final int pathsPerRevision, final long seed) {
+        this.revisions = revisions;
+        this.pathsPerRevision = pathsPerRevision;
+        this.seed = seed;
+    }
+
+    public File write(final File file) throws IOException {
+        SyntheticNames names = new SyntheticNames(seed);
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'000Z'");
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        Writer writer = new BufferedWriter(Files.newWriter(file, Charsets.UTF_8));
+        try {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<log>\n");
+            for (int i = 0; i < revisions; i++) {
+                writer.write("<logentry\n   revision=\"" + (i + 1) + "\">\n");
+                writer.write("<author>" + names.author() + "</author>\n");
+                writer.write("<date>" + format.format(new Date(names.time(i))) + "</date>\n");
+                writer.write("<paths>\n");
+                int paths = 1 + names.nextInt(pathsPerRevision * 2);
+                for (int p = 0; p < paths; p++) {
+                    writer.write("<path\n   kind=\"file\"\n   action=\"" + ACTIONS[names.nextInt(ACTIONS.length)]
+                            + "\">/trunk/" + names.classPath() + "</path>\n");
+                }
+                writer.write("</paths>\n");
+                writer.write("<msg>" + names.sentence(revisions) + "</msg>\n");
+                writer.write("</logentry>\n");
+            }
+            writer.write("</log>\n");
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+}
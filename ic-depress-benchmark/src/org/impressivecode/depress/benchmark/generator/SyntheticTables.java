@@ -0,0 +1,178 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.benchmark.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.impressivecode.depress.its.ITSDataType;
+import org.impressivecode.depress.its.ITSPriority;
+import org.impressivecode.depress.its.ITSResolution;
+import org.impressivecode.depress.its.ITSStatus;
+import org.impressivecode.depress.its.ITSType;
+import org.impressivecode.depress.mg.po.ChangeData;
+import org.impressivecode.depress.mg.po.TeamMemberData;
+import org.impressivecode.depress.scm.SCMAdapterTableFactory;
+import org.impressivecode.depress.scm.SCMDataType;
+import org.impressivecode.depress.scm.SCMOperation;
+import org.impressivecode.depress.support.commonmarker.MarkerDataType;
+import org.knime.core.data.DataRow;
+
+/**
+ * Builds the in-memory inputs of the KNIME nodes: issues, SCM table rows,
+ * people organization data and issue markers.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class SyntheticTables {
+    private static final ITSStatus[] STATUSES = { ITSStatus.OPEN, ITSStatus.IN_PROGRESS, ITSStatus.RESOLVED,
+            ITSStatus.CLOSED };
+    private static final ITSResolution[] RESOLUTIONS = { ITSResolution.FIXED, ITSResolution.INVALID,
+            ITSResolution.DUPLICATE, ITSResolution.UNRESOLVED };
+    private static final SCMOperation[] OPERATIONS = { SCMOperation.MODIFIED, SCMOperation.MODIFIED,
+            SCMOperation.ADDED, SCMOperation.DELETED };
+    private static final String[] ORGANIZATIONS = { "Org1;Dept1;Team1", "Org1;Dept1;Team2", "Org1;Dept2;Team3",
+            "Org2;Dept3;Team4", "Org2;Dept4;Team5" };
+
+    private final long seed;
+
+    public SyntheticTables(final long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return issues "0".."size-1", each resolved about an hour after the
+     *         commit of the same step, see {@link #scmRows(int, int)}
+     */
+    public List<ITSDataType> issues(final int size) {
+        SyntheticNames names = new SyntheticNames(seed);
+        List<ITSDataType> issues = new ArrayList<ITSDataType>(size);
+        for (int i = 0; i < size; i++) {
+            ITSDataType issue = new ITSDataType();
+            issue.setIssueId(String.valueOf(i));
+            long created = names.time(i);
+            issue.setCreated(new Date(created));
+            issue.setUpdated(new Date(created + 3600000L));
+            issue.setResolved(new Date(created + 3600000L));
+            issue.setStatus(STATUSES[names.nextInt(STATUSES.length)]);
+            issue.setResolution(RESOLUTIONS[names.nextInt(RESOLUTIONS.length)]);
+            issue.setType(ITSType.values()[names.nextInt(ITSType.values().length)]);
+            issue.setPriority(ITSPriority.values()[names.nextInt(ITSPriority.values().length)]);
+            issue.setSummary(names.sentence(0));
+            issue.setDescription(names.sentence(size));
+            issue.setReporter(names.author());
+            issue.setAssignees(Collections.singleton(names.author()));
+            issue.setCommentAuthors(Collections.singleton(names.author()));
+            issue.setComments(Collections.singletonList(names.sentence(size)));
+            issue.setVersion(Collections.singletonList("1." + names.nextInt(5)));
+            issue.setFixVersion(Collections.singletonList("1." + (5 + names.nextInt(5))));
+            issues.add(issue);
+        }
+        return issues;
+    }
+
+    /**
+     * @return rows of the table described by
+     *         {@link SCMAdapterTableFactory#createDataColumnSpec()}
+     */
+    public List<DataRow> scmRows(final int commits, final int filesPerCommit) {
+        SyntheticNames names = new SyntheticNames(seed);
+        List<DataRow> rows = new ArrayList<DataRow>(commits * filesPerCommit);
+        for (int i = 0; i < commits; i++) {
+            String hash = names.hash();
+            String author = names.author();
+            String message = names.sentence(commits);
+            Date date = new Date(names.time(i));
+            for (int f = 0; f < filesPerCommit; f++) {
+                SCMDataType scm = new SCMDataType();
+                String path = names.classPath();
+                scm.setPath(path);
+                scm.setResourceName(path.substring(4, path.length() - 5).replace('/', '.'));
+                scm.setExtension("java");
+                scm.setAuthor(author);
+                scm.setMessage(message);
+                scm.setCommitDate(date);
+                scm.setCommitID(hash);
+                scm.setOperation(OPERATIONS[names.nextInt(OPERATIONS.length)]);
+                rows.add(SCMAdapterTableFactory.createTableRow(String.valueOf(rows.size()), scm));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return change history of the classes, every engineer is described by
+     *         {@link #teamMembers(int)}
+     */
+    public Map<String, ChangeData> changes(final int classes, final int changesPerClass, final int engineers) {
+        SyntheticNames names = new SyntheticNames(seed, engineers, classes);
+        Map<String, ChangeData> changes = new LinkedHashMap<String, ChangeData>();
+        for (int i = 0; i < classes; i++) {
+            ChangeData change = new ChangeData();
+            change.setClassName("org.impressivecode.depress.Class" + i);
+            int size = 1 + names.nextInt(changesPerClass * 2);
+            List<String> involved = new ArrayList<String>(size);
+            for (int c = 0; c < size; c++) {
+                involved.add(names.author());
+            }
+            change.setInvolvedEngineers(involved);
+            changes.put(change.getClassName(), change);
+        }
+        return changes;
+    }
+
+    public Map<String, TeamMemberData> teamMembers(final int engineers) {
+        SyntheticNames names = new SyntheticNames(seed, engineers, 1);
+        Map<String, TeamMemberData> members = new LinkedHashMap<String, TeamMemberData>();
+        for (int i = 0; i < engineers; i++) {
+            TeamMemberData member = new TeamMemberData();
+            member.setName(names.author(i));
+            member.setExEngineer(names.nextInt(10) == 0);
+            member.setExLevel(1 + names.nextInt(5));
+            member.setOrganizationPath(ORGANIZATIONS[names.nextInt(ORGANIZATIONS.length)]);
+            members.put(member.getName(), member);
+        }
+        return members;
+    }
+
+    /**
+     * @return markers of the classes pointing to issues "0".."issues-1"
+     */
+    public List<MarkerDataType> markers(final int classes, final int issues, final int markersPerClass) {
+        SyntheticNames names = new SyntheticNames(seed);
+        List<MarkerDataType> markers = new ArrayList<MarkerDataType>(classes);
+        for (int i = 0; i < classes; i++) {
+            MarkerDataType marker = new MarkerDataType();
+            marker.setResourceName("org.impressivecode.depress.Class" + i);
+            Set<String> ids = new HashSet<String>();
+            for (int m = 0; m < markersPerClass; m++) {
+                ids.add(String.valueOf(names.nextInt(issues)));
+            }
+            marker.setMarkers(ids);
+            markers.add(marker);
+        }
+        return markers;
+    }
+}
@@ -89,6 +89,7 @@ public class BugzillaOnlineClientAdapter {
     private BugzillaOnlineXmlRpcClient bugzillaClient;
     private BugzillaOnlineParser parser;
     private ExecutionMonitor monitor;
+    private ExecutorService requestsExecutorService;
 
     private double progressStep;
     private String bugzillaVersion;
@@ -238,9 +239,14 @@ public class BugzillaOnlineClientAdapter {
     private List<Future<List<ITSDataType>>> executeTasks(List<Callable<List<ITSDataType>>> tasks)
             throws InterruptedException {
         ExecutorService executorService = newFixedThreadPool(THREAD_COUNT);
-        List<Future<List<ITSDataType>>> partialResults = executorService.invokeAll(tasks);
-        executorService.shutdown();
-        return partialResults;
+        // history and comments of each task are requested in parallel with its bugs
+        requestsExecutorService = newFixedThreadPool(2 * THREAD_COUNT);
+        try {
+            return executorService.invokeAll(tasks);
+        } finally {
+            executorService.shutdown();
+            requestsExecutorService.shutdown();
+        }
     }
 
     private List<ITSDataType> combinePartialResults(List<Future<List<ITSDataType>>> partialResults)
@@ -355,16 +361,34 @@ public class BugzillaOnlineClientAdapter {
         @Override
         public List<ITSDataType> call() throws Exception {
             checkIfIsCanceledAndMarkProgress();
-            Object[] bugs = getBugs(prepareGetBugsParameters(bugsIds));
-
-            checkIfIsCanceledAndMarkProgress();
-            Object[] histories = getBugsHistory(prepareBugsIdsParameters(bugsIds));
-
-            checkIfIsCanceledAndMarkProgress();
-            Map<String, Object> comments = getBugsComments(prepareBugsIdsParameters(bugsIds));
-
-            checkIfIsCanceledAndMarkProgress();
-            return parser.parseEntries(bugs, histories, comments);
+            Future<Object[]> histories = requestsExecutorService.submit(new Callable<Object[]>() {
+                @Override
+                public Object[] call() throws Exception {
+                    return getBugsHistory(prepareBugsIdsParameters(bugsIds));
+                }
+            });
+            Future<Map<String, Object>> comments = requestsExecutorService.submit(new Callable<Map<String, Object>>() {
+                @Override
+                public Map<String, Object> call() throws Exception {
+                    return getBugsComments(prepareBugsIdsParameters(bugsIds));
+                }
+            });
+
+            try {
+                Object[] bugs = getBugs(prepareGetBugsParameters(bugsIds));
+
+                checkIfIsCanceledAndMarkProgress();
+                Object[] bugsHistories = histories.get();
+
+                checkIfIsCanceledAndMarkProgress();
+                Map<String, Object> bugsComments = comments.get();
+
+                checkIfIsCanceledAndMarkProgress();
+                return parser.parseEntries(bugs, bugsHistories, bugsComments);
+            } finally {
+                histories.cancel(true);
+                comments.cancel(true);
+            }
         }
 
     }
@@ -21,6 +21,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
 import static com.google.common.collect.Sets.newHashSet;
 
 import java.util.ArrayList;
@@ -71,10 +72,11 @@ public class BugzillaOnlineParser {
     public List<ITSDataType> parseEntries(final Object[] bugs, final Object[] histories,
             final Map<String, Object> comments) {
         List<ITSDataType> entries = newArrayListWithCapacity(bugs.length);
+        Map<String, Map<String, Object>> historiesById = indexHistories(histories);
 
         for (Object bug : bugs) {
             ITSDataType entry = parse(bug);
-            fillHistoryData(entry, findBugHistory(histories, entry.getIssueId()));
+            fillHistoryData(entry, findBugHistory(historiesById, entry.getIssueId()));
             fillCommentsData(entry, getBugsComments(comments, entry.getIssueId()));
             fillDescription(entry);
             entries.add(entry);
@@ -176,14 +178,24 @@ public class BugzillaOnlineParser {
     }
 
     @SuppressWarnings("unchecked")
-    private Map<String, Object> findBugHistory(Object[] histories, String id) {
+    Map<String, Map<String, Object>> indexHistories(Object[] histories) {
+        Map<String, Map<String, Object>> historiesById = newHashMapWithExpectedSize(histories.length);
         for (Object history : histories) {
             Map<String, Object> historyDetails = (Map<String, Object>) history;
-            if (id.equals(historyDetails.get(ID).toString())) {
-                return historyDetails;
+            String id = historyDetails.get(ID).toString();
+            if (!historiesById.containsKey(id)) {
+                historiesById.put(id, historyDetails);
             }
         }
-        return newHashMap();
+        return historiesById;
+    }
+
+    private Map<String, Object> findBugHistory(Map<String, Map<String, Object>> historiesById, String id) {
+        Map<String, Object> historyDetails = historiesById.get(id);
+        if (historyDetails == null) {
+            return newHashMap();
+        }
+        return historyDetails;
     }
 
     @SuppressWarnings("unchecked")
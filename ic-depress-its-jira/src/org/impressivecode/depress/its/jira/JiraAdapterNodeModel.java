@@ -19,10 +19,8 @@ package org.impressivecode.depress.its.jira;
 
 import java.io.IOException;
 import java.text.ParseException;
-import java.util.List;
-
-import javax.xml.parsers.ParserConfigurationException;
 
+import org.impressivecode.depress.common.OutputSink;
 import org.impressivecode.depress.its.ITSAdapterTableFactory;
 import org.impressivecode.depress.its.ITSDataType;
 import org.impressivecode.depress.its.ITSAdapterTransformer;
@@ -51,24 +49,20 @@ public class JiraAdapterNodeModel extends ITSOfflineNodeModel {
             throws Exception {
         LOGGER.info("Preparing to read jira entries.");
         String filePath = fileSettings.getStringValue();
-        List<ITSDataType> entries = parseEntries(filePath);
-        LOGGER.info("Transforming to jira entries.");
-        BufferedDataTable out = transform(entries, exec);
+        ITSAdapterTransformer transformer = new ITSAdapterTransformer(ITSAdapterTableFactory.createDataColumnSpec());
+        OutputSink<ITSDataType> sink = transformer.open(exec);
+        LOGGER.info("Transforming jira entries as they are read.");
+        parseEntries(filePath, sink);
+        BufferedDataTable out = sink.close();
         LOGGER.info("Jira table created.");
         return new BufferedDataTable[] { out };
     }
 
-    private BufferedDataTable transform(final List<ITSDataType> entries, final ExecutionContext exec)
-            throws CanceledExecutionException {
-        ITSAdapterTransformer transformer = new ITSAdapterTransformer(ITSAdapterTableFactory.createDataColumnSpec());
-        return transformer.transform(entries, exec);
-    }
-
-    private List<ITSDataType> parseEntries(final String filePath) throws ParserConfigurationException, SAXException,
-            IOException, ParseException {
-        return new JiraEntriesParser(mappingManager.getPriorityModel().getIncluded(), mappingManager.getTypeModel()
+    private void parseEntries(final String filePath, final OutputSink<ITSDataType> sink) throws SAXException,
+            IOException, ParseException, CanceledExecutionException {
+        new JiraEntriesParser(mappingManager.getPriorityModel().getIncluded(), mappingManager.getTypeModel()
                 .getIncluded(), mappingManager.getResolutionModel().getIncluded(), mappingManager.getStatusModel()
-                .getIncluded()).parseEntries(filePath);
+                .getIncluded()).parseEntries(filePath, sink);
     }
 
     // FIXME: refactorize this function
@@ -19,8 +19,10 @@ package org.impressivecode.depress.its.jira;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Collections;
@@ -28,41 +30,47 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
+import org.impressivecode.depress.common.EntryListener;
 import org.impressivecode.depress.its.ITSDataType;
 import org.impressivecode.depress.its.ITSPriority;
 import org.impressivecode.depress.its.ITSResolution;
 import org.impressivecode.depress.its.ITSStatus;
 import org.impressivecode.depress.its.ITSType;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.knime.core.node.CanceledExecutionException;
 import org.xml.sax.SAXException;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
+ * Streams the Jira XML export with StAX. Each issue is built as soon as its
+ * <code>item</code> element closes, so only the issue currently being read is
+ * kept in memory.
+ * 
  * @author Marek Majchrzak, ImpressiveCode
  * @author Maciej Borkowski, Capgemini Poland
  */
 public class JiraEntriesParser {
     private static final String JIRA_DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss Z";
+    private static final String ITEM = "item";
+    private static final Set<String> SINGLE_VALUES = ImmutableSet.of("key", "summary", "description", "link",
+            "priority", "status", "type", "resolution", "created", "updated", "resolved");
+    private static final Set<String> MULTIPLE_VALUES = ImmutableSet.of("comment", "version", "fixVersion");
+
     private final HashMap<String, String[]> prioritySettings;
     private final HashMap<String, String[]> typeSettings;
     private final HashMap<String, String[]> resolutionSettings;
@@ -79,99 +87,124 @@ public class JiraEntriesParser {
 
     public List<ITSDataType> parseEntries(final String path) throws ParserConfigurationException, SAXException,
             IOException, ParseException {
-        Preconditions.checkArgument(!isNullOrEmpty(path), "Path has to be set.");
-        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-        Document doc = dBuilder.parse(path);
-        NodeList nList = getItemNodes(doc);
-        int size = nList.getLength();
-        List<ITSDataType> entries = Lists.newLinkedList();
-        for (int i = 0; i < size; i++) {
-            Node item = nList.item(i);
-            ITSDataType entry = parse((Element) item);
-            entries.add(entry);
+        final List<ITSDataType> entries = Lists.newArrayList();
+        try {
+            parseEntries(path, new EntryListener<ITSDataType>() {
+                @Override
+                public void entryParsed(final ITSDataType entry) {
+                    entries.add(entry);
+                }
+            });
+        } catch (CanceledExecutionException e) {
+            // collecting the entries is never canceled
+            throw Throwables.propagate(e);
         }
         return entries;
     }
 
-    private NodeList getItemNodes(final Document doc) {
-        return doc.getElementsByTagName("item");
-    }
-
-    private ITSDataType parse(final Element elem) throws ParseException {
-        ITSDataType data = new ITSDataType();
-        data.setIssueId(getKey(elem));
-        data.setComments(getComments(elem));
-        data.setCreated(getCreated(elem));
-        data.setDescription(getDescription(elem));
-        data.setFixVersion(getFixVersion(elem));
-        data.setLink(getLink(elem));
-        data.setPriority(getPriority(elem));
-        data.setResolved(getResolved(elem));
-        data.setStatus(getStatus(elem));
-        data.setSummary(getSummary(elem));
-        data.setType(getType(elem));
-        data.setUpdated(getUpdated(elem));
-        data.setVersion(getVersion(elem));
-        data.setResolution(getResolution(elem));
-        data.setReporter(getReporter(elem));
-        data.setAssignees(getAssinees(elem));
-        data.setCommentAuthors(getCommentAuthors(elem));
-        data.setTimeEstimate(getTimeEstimate(elem));
-        data.setTimeSpent(getTimeSpent(elem));
-        return data;
+    public void parseEntries(final String path, final EntryListener<ITSDataType> listener) throws SAXException,
+            IOException, ParseException, CanceledExecutionException {
+        Preconditions.checkArgument(!isNullOrEmpty(path), "Path has to be set.");
+        Preconditions.checkNotNull(listener, "Listener has to be set.");
+        InputStream stream = new BufferedInputStream(new FileInputStream(path));
+        try {
+            parseEntries(stream, listener);
+        } catch (XMLStreamException e) {
+            throw new SAXException(e);
+        } finally {
+            stream.close();
+        }
     }
 
-    private Integer getTimeSpent(final Element elem) {
-        NodeList nodeList = elem.getElementsByTagName("timespent");
-        if (null == nodeList.item(0)) {
-            return null;
+    private void parseEntries(final InputStream stream, final EntryListener<ITSDataType> listener)
+            throws XMLStreamException, ParseException, CanceledExecutionException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        XMLStreamReader reader = factory.createXMLStreamReader(stream);
+        try {
+            ItemValues item = null;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (item != null) {
+                        item.startElement(reader);
+                    } else if (ITEM.equals(reader.getLocalName())) {
+                        item = new ItemValues();
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (item != null) {
+                        item.text(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (item != null) {
+                        if (item.isOpen()) {
+                            item.endElement();
+                        } else {
+                            listener.entryParsed(parse(item));
+                            item = null;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+        } finally {
+            reader.close();
         }
-        String stringTime = nodeList.item(0).getAttributes().getNamedItem("seconds").getTextContent();
-        Integer time = Integer.valueOf(stringTime) / 60;
-        return time;
     }
 
-    private Integer getTimeEstimate(final Element elem) {
-        NodeList nodeList = elem.getElementsByTagName("timeoriginalestimate");
-        if (null == nodeList.item(0)) {
-            return null;
-        }
-        String stringTime = nodeList.item(0).getAttributes().getNamedItem("seconds").getTextContent();
-        int time = Integer.valueOf(stringTime) / 60;
-        return time;
+    private ITSDataType parse(final ItemValues item) throws ParseException {
+        ITSDataType data = new ITSDataType();
+        data.setIssueId(item.value("key"));
+        data.setComments(item.values("comment"));
+        data.setCreated(extractDateValue(item, "created"));
+        data.setDescription(item.value("description"));
+        data.setFixVersion(item.values("fixVersion"));
+        data.setLink(item.value("link"));
+        data.setPriority(getPriority(item));
+        data.setResolved(extractDateValue(item, "resolved"));
+        data.setStatus(getStatus(item));
+        data.setSummary(item.value("summary"));
+        data.setType(getType(item));
+        data.setUpdated(extractDateValue(item, "updated"));
+        data.setVersion(item.values("version"));
+        data.setResolution(getResolution(item));
+        data.setReporter(getReporter(item));
+        data.setAssignees(getAssinees(item));
+        data.setCommentAuthors(item.commentAuthors.build());
+        data.setTimeEstimate(toMinutes(item.timeEstimate));
+        data.setTimeSpent(toMinutes(item.timeSpent));
+        return data;
     }
 
-    private Set<String> getCommentAuthors(final Element elem) {
-        NodeList nodeList = elem.getElementsByTagName("comment");
-        Builder<String> authors = ImmutableSet.builder();
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node item = nodeList.item(i);
-            authors.add(item.getAttributes().getNamedItem("author").getTextContent());
+    private Integer toMinutes(final String seconds) {
+        if (seconds == null) {
+            return null;
         }
-        return authors.build();
+        return Integer.valueOf(seconds) / 60;
     }
 
-    private Set<String> getAssinees(final Element elem) {
-        NodeList nodeList = elem.getElementsByTagName("assignee");
-        Preconditions.checkArgument(nodeList.getLength() == 1, "Assignee has to be set");
-        String username = nodeList.item(0).getAttributes().getNamedItem("username").getTextContent();
-        if ("-1".equals(username)) {
+    private Set<String> getAssinees(final ItemValues item) {
+        Preconditions.checkArgument(item.assignees == 1, "Assignee has to be set");
+        if ("-1".equals(item.assignee)) {
             return Collections.emptySet();
         } else {
-            return ImmutableSet.of(username);
+            return ImmutableSet.of(item.assignee);
         }
     }
 
-    private String getReporter(final Element elem) {
-        NodeList nodeList = elem.getElementsByTagName("reporter");
-        Preconditions.checkArgument(nodeList.getLength() == 1, "Reporter has to be set");
-        String username = nodeList.item(0).getAttributes().getNamedItem("username").getTextContent();
-        return username;
+    private String getReporter(final ItemValues item) {
+        Preconditions.checkArgument(item.reporters == 1, "Reporter has to be set");
+        return item.reporter;
     }
 
-    private ITSResolution getResolution(final Element elem) {
-        String resolution = extractValue(elem, "resolution").trim();
+    private ITSResolution getResolution(final ItemValues item) {
+        String resolution = item.value("resolution");
         if (resolution == null) {
             return ITSResolution.UNKNOWN;
         }
@@ -184,16 +217,8 @@ public class JiraEntriesParser {
         return ITSResolution.UNKNOWN;
     }
 
-    private List<String> getVersion(final Element elem) {
-        return extractValues(elem, "version");
-    }
-
-    private Date getUpdated(final Element elem) throws ParseException {
-        return extractDateValue(elem, "updated");
-    }
-
-    private ITSType getType(final Element elem) {
-        String type = extractValue(elem, "type").trim();
+    private ITSType getType(final ItemValues item) {
+        String type = item.value("type");
         if (type == null) {
             return ITSType.UNKNOWN;
         }
@@ -206,12 +231,8 @@ public class JiraEntriesParser {
         return ITSType.UNKNOWN;
     }
 
-    private String getSummary(final Element elem) {
-        return extractValue(elem, "summary");
-    }
-
-    private ITSStatus getStatus(final Element elem) {
-        String status = extractValue(elem, "status").trim();
+    private ITSStatus getStatus(final ItemValues item) {
+        String status = item.value("status");
         if (status == null) {
             return ITSStatus.UNKNOWN;
         }
@@ -224,12 +245,8 @@ public class JiraEntriesParser {
         return ITSStatus.UNKNOWN;
     }
 
-    private Date getResolved(final Element elem) throws ParseException {
-        return extractDateValue(elem, "resolved");
-    }
-
-    private ITSPriority getPriority(final Element elem) {
-        String priority = extractValue(elem, "priority").trim();
+    private ITSPriority getPriority(final ItemValues item) {
+        String priority = item.value("priority");
         if (priority == null) {
             return ITSPriority.UNKNOWN;
         }
@@ -242,74 +259,150 @@ public class JiraEntriesParser {
         return ITSPriority.UNKNOWN;
     }
 
-    private String getLink(final Element elem) {
-        return extractValue(elem, "link");
+    private Date parseDate(final String nodeValue) throws ParseException {
+        // Mon, 16 Feb 2004 00:29:19 +0000
+        // FIXME majchmar: fix time parsing, timezone
+        SimpleDateFormat sdf = new SimpleDateFormat(JIRA_DATE_FORMAT, Locale.US);
+        sdf.setTimeZone(TimeZone.getTimeZone("GMT+000"));
+        sdf.setLenient(true);
+        Date date = sdf.parse(nodeValue);
+        return date;
     }
 
-    private List<String> getFixVersion(final Element elem) {
-        return extractValues(elem, "fixVersion");
+    private Date extractDateValue(final ItemValues item, final String tagName) throws ParseException {
+        String value = item.value(tagName);
+        return value == null ? null : parseDate(value);
     }
 
-    private String getDescription(final Element elem) {
-        return extractValue(elem, "description");
-    }
+    /**
+     * Values of a single <code>item</code> collected while it is read. Text
+     * keeps the markup escaping the DOM based parser produced by serializing
+     * the element and stripping its tags.
+     */
+    private static class ItemValues {
+        private final Map<String, String> single = Maps.newHashMap();
+        private final Map<String, List<String>> multiple = Maps.newHashMap();
+        private final List<String> openNames = Lists.newArrayList();
+        private final List<StringBuilder> openValues = Lists.newArrayList();
+        private final Builder<String> commentAuthors = ImmutableSet.builder();
+        private String timeSpent;
+        private String timeEstimate;
+        private String assignee;
+        private int assignees;
+        private String reporter;
+        private int reporters;
+
+        private void startElement(final XMLStreamReader reader) {
+            String name = reader.getLocalName();
+            openNames.add(name);
+            openValues.add(isCollected(name) ? new StringBuilder() : null);
+
+            if ("timespent".equals(name) && timeSpent == null) {
+                timeSpent = attribute(reader, "seconds");
+            } else if ("timeoriginalestimate".equals(name) && timeEstimate == null) {
+                timeEstimate = attribute(reader, "seconds");
+            } else if ("comment".equals(name)) {
+                commentAuthors.add(attribute(reader, "author"));
+            } else if ("assignee".equals(name)) {
+                assignee = attribute(reader, "username");
+                assignees++;
+            } else if ("reporter".equals(name)) {
+                reporter = attribute(reader, "username");
+                reporters++;
+            }
+        }
 
-    private Date getCreated(final Element elem) throws ParseException {
-        return extractDateValue(elem, "created");
-    }
+        private boolean isCollected(final String name) {
+            if (SINGLE_VALUES.contains(name) && !single.containsKey(name)) {
+                // the first element in document order wins, as in the DOM
+                single.put(name, null);
+                return true;
+            }
+            return MULTIPLE_VALUES.contains(name);
+        }
 
-    private List<String> getComments(final Element elem) {
-        return extractValues(elem, "comment");
-    }
+        private void text(final String text) {
+            String escaped = null;
+            for (StringBuilder value : openValues) {
+                if (value != null) {
+                    if (escaped == null) {
+                        escaped = escape(text);
+                    }
+                    value.append(escaped);
+                }
+            }
+        }
 
-    private List<String> extractValues(final Element elem, final String tagName) {
-        NodeList nodeList = elem.getElementsByTagName(tagName);
-        int size = nodeList.getLength();
-        List<String> values = Lists.newLinkedList();
-        for (int i = 0; i < size; i++) {
-            String value = nodeToString(nodeList.item(i)).replaceAll("\\<.*?>","");
-            values.add(value);
+        private boolean isOpen() {
+            return !openNames.isEmpty();
         }
-        return values;
-    }
 
-    private static String nodeToString(Node node) {
-        StringWriter sw = new StringWriter();
-        try {
-          Transformer t = TransformerFactory.newInstance().newTransformer();
-          t.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-          t.setOutputProperty(OutputKeys.INDENT, "yes");
-          t.transform(new DOMSource(node), new StreamResult(sw));
-        } catch (TransformerException te) {
-          System.out.println("nodeToString Transformer Exception");
+        private void endElement() {
+            int last = openNames.size() - 1;
+            String name = openNames.remove(last);
+            StringBuilder value = openValues.remove(last);
+            if (value == null) {
+                return;
+            }
+            if (MULTIPLE_VALUES.contains(name)) {
+                List<String> values = multiple.get(name);
+                if (values == null) {
+                    values = Lists.newLinkedList();
+                    multiple.put(name, values);
+                }
+                values.add(value.toString());
+            }
+            if (SINGLE_VALUES.contains(name)) {
+                single.put(name, value.toString().trim());
+            }
         }
-        return sw.toString();
-      }
-    
-    private String getKey(final Element elem) {
-        return extractValue(elem, "key");
-    }
 
-    private String extractValue(final Element elem, final String tagName) {
-        NodeList nodeList = elem.getElementsByTagName(tagName);
-        if (nodeList.getLength() == 0) {
-            return null;
+        private String value(final String name) {
+            return single.get(name);
         }
-        String value = nodeToString(nodeList.item(0)).replaceAll("\\<.*?>","");
-        return value == null ? null : value.trim();
-    }
-    private Date parseDate(final String nodeValue) throws ParseException {
-        // Mon, 16 Feb 2004 00:29:19 +0000
-        // FIXME majchmar: fix time parsing, timezone
-        SimpleDateFormat sdf = new SimpleDateFormat(JIRA_DATE_FORMAT, Locale.US);
-        sdf.setTimeZone(TimeZone.getTimeZone("GMT+000"));
-        sdf.setLenient(true);
-        Date date = sdf.parse(nodeValue);
-        return date;
-    }
 
-    private Date extractDateValue(final Element elem, final String tagName) throws ParseException {
-        String value = extractValue(elem, tagName);
-        return value == null ? null : parseDate(value);
+        private List<String> values(final String name) {
+            List<String> values = multiple.get(name);
+            return values == null ? Lists.<String> newLinkedList() : values;
+        }
+
+        private static String attribute(final XMLStreamReader reader, final String name) {
+            String value = reader.getAttributeValue(null, name);
+            Preconditions.checkNotNull(value, "Attribute " + name + " has to be set");
+            return value;
+        }
+
+        private static String escape(final String text) {
+            StringBuilder escaped = null;
+            for (int i = 0; i < text.length(); i++) {
+                String replacement = replacement(text.charAt(i));
+                if (replacement != null && escaped == null) {
+                    escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+                }
+                if (escaped != null) {
+                    if (replacement != null) {
+                        escaped.append(replacement);
+                    } else {
+                        escaped.append(text.charAt(i));
+                    }
+                }
+            }
+            return escaped == null ? text : escaped.toString();
+        }
+
+        private static String replacement(final char c) {
+            switch (c) {
+            case '&':
+                return "&amp;";
+            case '<':
+                return "&lt;";
+            case '>':
+                return "&gt;";
+            case '\r':
+                return "&#13;";
+            default:
+                return null;
+            }
+        }
     }
 }
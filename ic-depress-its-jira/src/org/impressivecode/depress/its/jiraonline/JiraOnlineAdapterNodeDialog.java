@@ -49,8 +49,10 @@ import org.knime.core.node.port.PortObjectSpec;
 public class JiraOnlineAdapterNodeDialog extends ITSOnlineNodeDialog {
     private static final String JQL = "JQL:";
     private static final String DOWNLOAD_HISTORY = "Download issue history (this will make the processing A LOT longer)";
+    private static final String INCREMENTAL = "Download only issues updated since the last execution";
 
     private DialogComponentBoolean history;
+    private DialogComponentBoolean incremental;
     private DialogComponentMultiLineString jql;
 
     @Override
@@ -58,9 +60,11 @@ public class JiraOnlineAdapterNodeDialog extends ITSOnlineNodeDialog {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
         history = new DialogComponentBoolean(JiraOnlineAdapterNodeModel.createSettingsHistory(), DOWNLOAD_HISTORY);
+        incremental = new DialogComponentBoolean(JiraOnlineAdapterNodeModel.createSettingsIncremental(), INCREMENTAL);
         jql = new DialogComponentMultiLineString(JiraOnlineAdapterNodeModel.createSettingsJQL(), JQL, false, 50, 10);
 
         panel.add(history.getComponentPanel());
+        panel.add(incremental.getComponentPanel());
         panel.add(jql.getComponentPanel());
         return panel;
     }
@@ -127,12 +131,14 @@ public class JiraOnlineAdapterNodeDialog extends ITSOnlineNodeDialog {
     protected void loadSpecificSettingsFrom(NodeSettingsRO settings, PortObjectSpec[] specs)
             throws NotConfigurableException {
         history.loadSettingsFrom(settings, specs);
+        incremental.loadSettingsFrom(settings, specs);
         jql.loadSettingsFrom(settings, specs);
     }
 
     @Override
     protected void saveSpecificSettingsTo(NodeSettingsWO settings) throws InvalidSettingsException {
         history.saveSettingsTo(settings);
+        incremental.saveSettingsTo(settings);
         jql.saveSettingsTo(settings);
     }
 
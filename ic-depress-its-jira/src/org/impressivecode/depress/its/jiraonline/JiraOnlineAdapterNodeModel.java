@@ -20,9 +20,15 @@ package org.impressivecode.depress.its.jiraonline;
 import static com.google.common.collect.Lists.newArrayList;
 import static org.impressivecode.depress.its.ITSAdapterTableFactory.createDataColumnSpec;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -65,9 +71,12 @@ public class JiraOnlineAdapterNodeModel extends ITSOnlineNodeModel {
 
     private static final String JIRA_JQL = "jql";
     private static final String JIRA_HISTORY = "history";
+    private static final String JIRA_INCREMENTAL = "incremental";
+    private static final String SNAPSHOT_FILE = "snapshot.json";
 
     private final SettingsModelString jqlSettings = createSettingsJQL();
     private final SettingsModelBoolean historySettings = createSettingsHistory();
+    private final SettingsModelBoolean incrementalSettings = createSettingsIncremental();
 
     private JiraOnlineAdapterUriBuilder builder;
     private JiraOnlineAdapterRsClient client;
@@ -79,6 +88,12 @@ public class JiraOnlineAdapterNodeModel extends ITSOnlineNodeModel {
 
     private ExecutorService executorService;
 
+    /**
+     * Survives reset, so the next execution only downloads the issues updated
+     * since this one.
+     */
+    private JiraOnlineSnapshot snapshot;
+
     private int issueTaskStepsSum;
     private int historyTaskStepsSum;
     private int issueTaskStepsCompleted;
@@ -102,6 +117,12 @@ public class JiraOnlineAdapterNodeModel extends ITSOnlineNodeModel {
 
         builder = prepareBuilder();
         builder.setProjectName(getProductName());
+        String query = createQuery();
+        boolean incremental = isIncrementalUpdate(query);
+        if (incremental) {
+            builder.setUpdatedSince(snapshot.getUpdatedSince());
+            LOGGER.info("Downloading issues updated since " + builder.getUpdatedSince() + ".");
+        }
 
         client = new JiraOnlineAdapterRsClient();
         executorService = Executors.newFixedThreadPool(getThreadCount());
@@ -116,6 +137,16 @@ public class JiraOnlineAdapterNodeModel extends ITSOnlineNodeModel {
 
         executorService.shutdown();
 
+        if (incremental) {
+            snapshot.merge(issues, issuesHistory, shouldDownloadHistory());
+            issues = snapshot.getIssues();
+            issuesHistory = snapshot.getHistory();
+        } else if (incrementalSettings.getBooleanValue()) {
+            snapshot = new JiraOnlineSnapshot(query, issues, issuesHistory);
+        } else {
+            snapshot = null;
+        }
+
         BufferedDataTable out = transform(issues, exec);
         BufferedDataTable outHistory = transformHistory(issuesHistory, exec);
 
@@ -124,6 +155,31 @@ public class JiraOnlineAdapterNodeModel extends ITSOnlineNodeModel {
         return new BufferedDataTable[] { out, outHistory };
     }
 
+    private boolean isIncrementalUpdate(final String query) {
+        return incrementalSettings.getBooleanValue() && snapshot != null && query.equals(snapshot.getQuery())
+                && snapshot.getUpdatedSince() != null;
+    }
+
+    /**
+     * Identifies what the snapshot was downloaded for. Issues are mapped while
+     * they are parsed, so the mappings are part of it as well.
+     */
+    private String createQuery() {
+        StringBuilder query = new StringBuilder(builder.build().toString());
+        query.append(' ').append(JIRA_HISTORY).append('=').append(shouldDownloadHistory());
+        appendMapping(query, mappingManager.getPriorityModel().getIncluded());
+        appendMapping(query, mappingManager.getTypeModel().getIncluded());
+        appendMapping(query, mappingManager.getResolutionModel().getIncluded());
+        appendMapping(query, mappingManager.getStatusModel().getIncluded());
+        return query.toString();
+    }
+
+    private static void appendMapping(final StringBuilder query, final HashMap<String, String[]> mapping) {
+        for (Map.Entry<String, String[]> entry : new TreeMap<>(mapping).entrySet()) {
+            query.append(' ').append(entry.getKey()).append('=').append(Arrays.toString(entry.getValue()));
+        }
+    }
+
     private int getThreadCount() {
         return THREAD_COUNT;
     }
@@ -271,18 +327,40 @@ public class JiraOnlineAdapterNodeModel extends ITSOnlineNodeModel {
     protected void saveSpecificSettingsTo(final NodeSettingsWO settings) {
         jqlSettings.saveSettingsTo(settings);
         historySettings.saveSettingsTo(settings);
+        incrementalSettings.saveSettingsTo(settings);
     }
 
     @Override
     protected void loadSpecificSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
         jqlSettings.loadSettingsFrom(settings);
         historySettings.loadSettingsFrom(settings);
+        if (settings.containsKey(JIRA_INCREMENTAL)) {
+            incrementalSettings.loadSettingsFrom(settings);
+        }
     }
 
     @Override
     protected void validateSpecificSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
         jqlSettings.validateSettings(settings);
         historySettings.validateSettings(settings);
+        if (settings.containsKey(JIRA_INCREMENTAL)) {
+            incrementalSettings.validateSettings(settings);
+        }
+    }
+
+    @Override
+    protected void loadInternals(final File nodeInternDir, final ExecutionMonitor exec) throws IOException,
+            CanceledExecutionException {
+        File file = new File(nodeInternDir, SNAPSHOT_FILE);
+        snapshot = file.exists() ? JiraOnlineSnapshot.load(file) : null;
+    }
+
+    @Override
+    protected void saveInternals(final File nodeInternDir, final ExecutionMonitor exec) throws IOException,
+            CanceledExecutionException {
+        if (snapshot != null) {
+            snapshot.save(new File(nodeInternDir, SNAPSHOT_FILE));
+        }
     }
 
     static SettingsModelString createSettingsJQL() {
@@ -293,6 +371,10 @@ public class JiraOnlineAdapterNodeModel extends ITSOnlineNodeModel {
         return new SettingsModelBoolean(JIRA_HISTORY, false);
     }
 
+    static SettingsModelBoolean createSettingsIncremental() {
+        return new SettingsModelBoolean(JIRA_INCREMENTAL, false);
+    }
+
     private class DownloadAndParseIssuesTask implements Callable<List<ITSDataType>> {
         private URI uri;
         private ITSMappingManager mappingManager;
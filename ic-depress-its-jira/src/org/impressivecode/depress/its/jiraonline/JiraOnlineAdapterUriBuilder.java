@@ -18,6 +18,8 @@
 package org.impressivecode.depress.its.jiraonline;
 
 import java.net.URI;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
 import javax.ws.rs.core.UriBuilder;
 /**
@@ -54,6 +56,7 @@ public class JiraOnlineAdapterUriBuilder {
     private int startingIndex = 0;
     private String issueKey;
     private String projectName;
+    private Date updatedSince;
 
     private String hostname;
     private String jql;
@@ -72,6 +75,16 @@ public class JiraOnlineAdapterUriBuilder {
         return this;
     }
 
+    /**
+     * Restricts the issue search to issues updated on or after the given day.
+     * Jira compares the date in the user's time zone, so callers should leave
+     * a margin.
+     */
+    public JiraOnlineAdapterUriBuilder setUpdatedSince(Date updatedSince) {
+        this.updatedSince = updatedSince;
+        return this;
+    }
+
     public JiraOnlineAdapterUriBuilder setIsTest(boolean isTest) {
         this.isTest = isTest;
         return this;
@@ -120,6 +133,11 @@ public class JiraOnlineAdapterUriBuilder {
             jqlBuilder.append(CONJUNCTION);
         }
 
+        if (updatedSince != null) {
+            jqlBuilder.append("updated >= \"" + new SimpleDateFormat(JIRA_DATE_FORMAT).format(updatedSince) + "\"");
+            jqlBuilder.append(CONJUNCTION);
+        }
+
         String uriJQL = null;
         if (jqlBuilder.toString().endsWith(CONJUNCTION)) {
             uriJQL = jqlBuilder.substring(0, jqlBuilder.length() - 5);
@@ -234,6 +252,10 @@ public class JiraOnlineAdapterUriBuilder {
         return startingIndex + JiraOnlineAdapterUriBuilder.ISSUES_PER_BATCH;
     }
 
+    public Date getUpdatedSince() {
+        return updatedSince;
+    }
+
     public void setIssueKey(String issueKey) {
         this.issueKey = issueKey;
     }
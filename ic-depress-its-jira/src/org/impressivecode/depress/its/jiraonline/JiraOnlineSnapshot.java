@@ -0,0 +1,148 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.its.jiraonline;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.impressivecode.depress.its.ITSDataType;
+import org.impressivecode.depress.its.jiraonline.model.JiraOnlineIssueChangeRowItem;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Issues and issue history downloaded by the last execution of the Jira online
+ * node. Issues fetched by a later, incremental execution replace their
+ * previous version and history; issues deleted in Jira are kept.
+ *
+ * @author ImpressiveCode contributors
+ */
+public class JiraOnlineSnapshot {
+    private static final long UPDATED_MARGIN = 24 * 60 * 60 * 1000L;
+
+    private String query;
+    private List<ITSDataType> issues = new ArrayList<>();
+    private List<JiraOnlineIssueChangeRowItem> history = new ArrayList<>();
+
+    public JiraOnlineSnapshot() {
+    }
+
+    public JiraOnlineSnapshot(final String query, final List<ITSDataType> issues,
+            final List<JiraOnlineIssueChangeRowItem> history) {
+        this.query = query;
+        this.issues = issues;
+        this.history = history;
+    }
+
+    public static JiraOnlineSnapshot load(final File file) throws IOException {
+        return new ObjectMapper().readValue(file, JiraOnlineSnapshot.class);
+    }
+
+    public void save(final File file) throws IOException {
+        new ObjectMapper().writeValue(file, this);
+    }
+
+    /**
+     * Replaces issues with the same key and all of their history rows, new
+     * issues are appended. The history of the fetched issues is replaced only
+     * if it was downloaded.
+     */
+    public void merge(final List<ITSDataType> fetchedIssues,
+            final List<JiraOnlineIssueChangeRowItem> fetchedHistory, final boolean historyFetched) {
+        Map<String, ITSDataType> merged = new LinkedHashMap<>();
+        for (ITSDataType issue : issues) {
+            merged.put(issue.getIssueId(), issue);
+        }
+        for (ITSDataType issue : fetchedIssues) {
+            merged.put(issue.getIssueId(), issue);
+        }
+        issues = new ArrayList<>(merged.values());
+
+        if (historyFetched) {
+            Set<String> fetchedKeys = new HashSet<>();
+            for (ITSDataType issue : fetchedIssues) {
+                fetchedKeys.add(issue.getIssueId());
+            }
+            List<JiraOnlineIssueChangeRowItem> mergedHistory = new ArrayList<>(history.size() + fetchedHistory.size());
+            for (JiraOnlineIssueChangeRowItem row : history) {
+                if (!fetchedKeys.contains(row.getKey())) {
+                    mergedHistory.add(row);
+                }
+            }
+            mergedHistory.addAll(fetchedHistory);
+            history = mergedHistory;
+        }
+    }
+
+    /**
+     * @return the latest update time of the stored issues or null if none of
+     *         them has one
+     */
+    @JsonIgnore
+    public Date getHighWaterMark() {
+        Date mark = null;
+        for (ITSDataType issue : issues) {
+            if (issue.getUpdated() != null && (mark == null || issue.getUpdated().after(mark))) {
+                mark = issue.getUpdated();
+            }
+        }
+        return mark;
+    }
+
+    /**
+     * @return the day to download updates from, a day before the high-water
+     *         mark to cover the time zone of the Jira user
+     */
+    @JsonIgnore
+    public Date getUpdatedSince() {
+        Date mark = getHighWaterMark();
+        return mark == null ? null : new Date(mark.getTime() - UPDATED_MARGIN);
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(final String query) {
+        this.query = query;
+    }
+
+    public List<ITSDataType> getIssues() {
+        return issues;
+    }
+
+    public void setIssues(final List<ITSDataType> issues) {
+        this.issues = issues;
+    }
+
+    public List<JiraOnlineIssueChangeRowItem> getHistory() {
+        return history;
+    }
+
+    public void setHistory(final List<JiraOnlineIssueChangeRowItem> history) {
+        this.history = history;
+    }
+}
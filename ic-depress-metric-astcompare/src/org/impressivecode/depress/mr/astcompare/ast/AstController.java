@@ -57,10 +57,22 @@ public class AstController {
 
     public void collectDataAndSaveInDb(IPackageFragment[] packages, String selectedProjectName, long revisionDateMin,
             long revisionDateMax) throws CanceledExecutionException, CoreException, IOException, SQLException {
-        double progressIndex = 1.0d;
+        // scratch files reused for every revision of every unit
         previous = File.createTempFile("astFileA", ".java");
         actual = File.createTempFile("astFileB", ".java");
+        previous.deleteOnExit();
+        actual.deleteOnExit();
+        try {
+            collectData(packages, selectedProjectName, revisionDateMin, revisionDateMax);
+        } finally {
+            previous.delete();
+            actual.delete();
+        }
+    }
 
+    private void collectData(IPackageFragment[] packages, String selectedProjectName, long revisionDateMin,
+            long revisionDateMax) throws CanceledExecutionException, CoreException, IOException, SQLException {
+        double progressIndex = 1.0d;
         for (IPackageFragment mypackage : packages) {
             checkIfCancelledAndSetProgress((progressIndex++ / packages.length) * 0.8d);
 
@@ -89,23 +101,25 @@ public class AstController {
 
                                 compareAstAndSaveToDb(selectedProjectName, revisionDateMin, revisionDateMax, revision);
 
-                                swapActualAndPreviousFile(actual, previous);
+                                swapActualAndPreviousFile();
                             }
 
                         }
-                        previous.delete();
-                        actual.delete();
                     }
                 }
             }
         }
     }
 
-    private void swapActualAndPreviousFile(File actual, File previous) {
+    /**
+     * The actual revision becomes the previous one of the next pair, so every
+     * revision is written once and the files are overwritten instead of
+     * created for each pair.
+     */
+    private void swapActualAndPreviousFile() {
         File tmp = previous;
         previous = actual;
         actual = tmp;
-        actual.delete();
     }
 
     private void compareAstAndSaveToDb(String selectedProjectName, long revisionDateMin, long revisionDateMax,
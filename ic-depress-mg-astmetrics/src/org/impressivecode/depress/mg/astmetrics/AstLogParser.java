@@ -18,28 +18,35 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package org.impressivecode.depress.mg.astmetrics;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.NoHeadException;
 import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryBuilder;
@@ -49,23 +56,39 @@ import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.treewalk.filter.PathFilter;
 import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.impressivecode.depress.scm.SourceFingerprint;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.InvalidSettingsException;
 
+import com.google.common.base.Throwables;
+
 /**
  * @author Mateusz Kutyba, Wroclaw University of Technology
  */
 public class AstLogParser {
+    private static final long CANCEL_POLL_MILLIS = 200;
+
     private String repoPath;
     private String packageName;
     private DbHandler db;
+    private MetricsAggregator aggregator = new MetricsAggregator();
     private Git git;
     private Repository repo;
     private AstLogParserData data = new AstLogParserData();
     private final ExecutionContext exec;
     private Map<String, Integer> methodsLoc;
     private Map<String, MetricEntry> metrics;
+    /**
+     * Reused for every revision pair, so its scratch files are created once,
+     * each pair is still distilled by a distiller of its own.
+     */
+    private final AstComparator comparator = new AstComparator();
+    private int identicalPairs = 0;
+    private int formattingPairs = 0;
+    private int failedPairs = 0;
+    private LocCounter locCounter = new LocCounter();
+    private int threads = Runtime.getRuntime().availableProcessors();
 
     public Map<String, Integer> getMethodsLoc() {
         return methodsLoc;
@@ -89,16 +112,59 @@ public class AstLogParser {
         initializeGit(repoPath);
 
         this.db = db;
-        if (exec != null) {
-            this.db.setExec(exec);
-        }
         if (this.db != null) {
+            if (exec != null) {
+                this.db.setExec(exec);
+            }
+            this.db.setSource(repo.getDirectory().getCanonicalPath(), this.packageName);
             this.db.connect();
         }
+        aggregator.setExec(exec);
 
         this.exec = exec;
     }
 
+    /**
+     * @return number of revision pairs not distilled as both revisions are
+     *         the same
+     */
+    public int getIdenticalPairs() {
+        return identicalPairs;
+    }
+
+    /**
+     * @return number of revision pairs not distilled as their revisions
+     *         differ only in white space
+     */
+    public int getFormattingPairs() {
+        return formattingPairs;
+    }
+
+    /**
+     * @return number of revision pairs whose changes could not be distilled,
+     *         they have no changes
+     */
+    public int getFailedPairs() {
+        return failedPairs;
+    }
+
+    /**
+     * Sets the counter of lines of code, shared to reuse its counts of
+     * sources not changed since previous executions.
+     */
+    public void setLocCounter(LocCounter locCounter) {
+        this.locCounter = checkNotNull(locCounter);
+    }
+
+    /**
+     * Sets the number of threads counting lines of code while changes are
+     * distilled.
+     */
+    public void setThreads(int threads) {
+        checkArgument(threads > 0, "Number of threads has to be positive.");
+        this.threads = threads;
+    }
+
     public DbHandler getDb() {
         return db;
     }
@@ -107,6 +173,10 @@ public class AstLogParser {
         this.db = db;
     }
 
+    public MetricsAggregator getAggregator() {
+        return aggregator;
+    }
+
     public AstLogParserData getData() {
         return data;
     }
@@ -132,8 +202,14 @@ public class AstLogParser {
         data.commitListAll = getCommitList();
         data.commitListBetweenRevisions = getCommitListInRange(topCommit, bottomCommit);
         parseChanges();
-        db.calculateMetrics();
-        metrics = db.getMetrics();
+        if (db != null) {
+            db.setRevisions(data.commitListBetweenRevisions);
+            db.calculateMetrics();
+            metrics = db.getMetrics();
+        } else {
+            aggregator.calculateMetrics();
+            metrics = aggregator.getMetrics();
+        }
 
         mergeLocWithMetrics();
 
@@ -246,12 +322,46 @@ public class AstLogParser {
         List<String> fileList = getFilesInRevision(data.commitListBetweenRevisions.get(0), ".java");
         methodsLoc = new HashMap<String, Integer>();
 
-        for (String filePath : fileList) {
-            parseChangesForFile(filePath);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Map<String, Integer>>> locs = new ArrayList<Future<Map<String, Integer>>>();
+        try {
+            for (String filePath : fileList) {
+                locs.add(pool.submit(locTask(filePath, data.commitListBetweenRevisions.get(0))));
+                parseChangesForFile(filePath);
+            }
+            for (Future<Map<String, Integer>> loc : locs) {
+                methodsLoc.putAll(await(loc));
+            }
+        } finally {
+            pool.shutdownNow();
+            comparator.release();
+        }
+    }
 
-            File file = getFileFromRevision(filePath, data.commitListBetweenRevisions.get(0));
-            methodsLoc.putAll(LocCounter.countLocForFile(file));
-            file.delete();
+    private Callable<Map<String, Integer>> locTask(final String filePath, final String commitHash) {
+        return new Callable<Map<String, Integer>>() {
+            @Override
+            public Map<String, Integer> call() throws Exception {
+                ObjectId blob = getBlobFromRevision(filePath, commitHash);
+                return locCounter.countLoc(blob, repo.open(blob, Constants.OBJ_BLOB).getCachedBytes());
+            }
+        };
+    }
+
+    private Map<String, Integer> await(Future<Map<String, Integer>> future) throws CanceledExecutionException,
+            IOException {
+        while (true) {
+            try {
+                return future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                checkIfCancelledAndSetProgress(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException("Interrupted while counting lines of code.");
+            } catch (ExecutionException e) {
+                Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+                throw Throwables.propagate(e.getCause());
+            }
         }
     }
 
@@ -292,9 +402,17 @@ public class AstLogParser {
                 continue;
             }
             String previous = data.commitListAll.get(nextIndex);
+            if (db != null && db.isDistilled(filePath, previous, commit)) {
+                continue;
+            }
+            int failed = failedPairs;
             List<SingleChangeInfo> changeList = getFileChangesBetweenRevisions(filePath, previous, commit);
             RevisionDetails revisionDetails = getRevisionDetails(commit);
-            insertChangesToDb(changeList, revisionDetails.author, revisionDetails.revisionId);
+            insertChangesToDb(filePath, changeList, revisionDetails.author, revisionDetails.revisionId);
+            // failed pairs are distilled again by the next execution
+            if (db != null && failedPairs == failed) {
+                db.setDistilled(filePath, previous, commit);
+            }
             checkIfCancelledAndSetProgress(0.2d * counter++ / fileCommitList.size());
         }
     }
@@ -320,26 +438,45 @@ public class AstLogParser {
     public List<SingleChangeInfo> getFileChangesBetweenRevisions(String filePath, String commitHashPrevious,
             String commitHashActual) throws NoHeadException, CanceledExecutionException, SQLException,
             MissingObjectException, IOException {
-        List<SingleChangeInfo> changeList = new ArrayList<SingleChangeInfo>();
-        AstComparator comparator = new AstComparator();
-        File filePrevious = getFileFromRevision(filePath, commitHashPrevious);
-        if (filePrevious == null) {
-            return changeList;
+        byte[] previous = getContentFromRevision(filePath, commitHashPrevious);
+        if (previous == null) {
+            return new ArrayList<SingleChangeInfo>();
         }
-        File fileActual = getFileFromRevision(filePath, commitHashActual);
-        if (fileActual == null) {
-            return changeList;
+        byte[] actual = getContentFromRevision(filePath, commitHashActual);
+        if (actual == null) {
+            return new ArrayList<SingleChangeInfo>();
+        }
+        if (Arrays.equals(previous, actual)) {
+            identicalPairs++;
+            return new ArrayList<SingleChangeInfo>();
+        }
+        // comments are kept, as changes of comments are counted too
+        if (SourceFingerprint.of(previous, true).equals(SourceFingerprint.of(actual, true))) {
+            formattingPairs++;
+            return new ArrayList<SingleChangeInfo>();
+        }
+        List<SingleChangeInfo> changeList = comparator.compareAstOfRevisions(previous, actual);
+        if (comparator.hasFailed()) {
+            failedPairs++;
         }
-        changeList = comparator.compareAstOfFiles(filePrevious, fileActual);
-
-        filePrevious.delete();
-        fileActual.delete();
-
         return changeList;
     }
 
-    protected File getFileFromRevision(String filePath, String commitHash) throws MissingObjectException, IOException,
-            NoHeadException {
+    /**
+     * @return content of the file in the revision, read straight from the
+     *         object database, null if the revision has no such file
+     */
+    protected byte[] getContentFromRevision(String filePath, String commitHash) throws MissingObjectException,
+            IOException {
+        ObjectId objectId = getBlobFromRevision(filePath, commitHash);
+        if (objectId == null) {
+            return null;
+        }
+        return repo.open(objectId, Constants.OBJ_BLOB).getCachedBytes();
+    }
+
+    private ObjectId getBlobFromRevision(String filePath, String commitHash) throws MissingObjectException,
+            IOException {
         ObjectId commitId = repo.resolve(commitHash);
         RevWalk revWalk = new RevWalk(repo);
         RevCommit revCommit = revWalk.parseCommit(commitId);
@@ -354,18 +491,7 @@ public class AstLogParser {
             return null;
         }
 
-        ObjectId objectId = treeWalk.getObjectId(0);
-        ObjectLoader loader = repo.open(objectId);
-
-        File file = File.createTempFile("AstLogParser", ".java");
-        OutputStream out = new FileOutputStream(file);
-        loader.copyTo(out);
-        out.flush();
-        out.close();
-
-        file.deleteOnExit();
-
-        return file;
+        return treeWalk.getObjectId(0);
     }
 
     public RevisionDetails getRevisionDetails(String commitHash) throws NoHeadException, IOException {
@@ -395,11 +521,20 @@ public class AstLogParser {
 
     public void insertChangesToDb(List<SingleChangeInfo> changeList, String author, String revisionId)
             throws SQLException {
+        insertChangesToDb(null, changeList, author, revisionId);
+    }
+
+    public void insertChangesToDb(String filePath, List<SingleChangeInfo> changeList, String author,
+            String revisionId) throws SQLException {
         for (SingleChangeInfo singleChangeInfo : changeList) {
             if (singleChangeInfo.getMethodName().startsWith(packageName)) {
                 singleChangeInfo.setAuthor(author);
                 singleChangeInfo.setRevisionId(revisionId);
-                db.insertChangeData(singleChangeInfo);
+                if (db != null) {
+                    db.insertChangeData(filePath, singleChangeInfo);
+                } else {
+                    aggregator.insertChangeData(singleChangeInfo);
+                }
             }
         }
     }
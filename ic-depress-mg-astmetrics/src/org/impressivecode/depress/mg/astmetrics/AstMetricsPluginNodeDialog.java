@@ -20,8 +20,10 @@ package org.impressivecode.depress.mg.astmetrics;
 import javax.swing.JFileChooser;
 
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
 import org.knime.core.node.defaultnodesettings.DialogComponentFileChooser;
 import org.knime.core.node.defaultnodesettings.DialogComponentString;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
 /**
@@ -37,6 +39,10 @@ public class AstMetricsPluginNodeDialog extends DefaultNodeSettingsPane {
             AstMetricsPluginNodeModel.DEFAULT_VALUE);
     private final SettingsModelString topCommit = new SettingsModelString(AstMetricsPluginNodeModel.TOP_COMMIT,
             AstMetricsPluginNodeModel.DEFAULT_VALUE);
+    private final SettingsModelBoolean sqlEngine = new SettingsModelBoolean(AstMetricsPluginNodeModel.SQL_ENGINE,
+            AstMetricsPluginNodeModel.DEFAULT_SQL_ENGINE);
+    private final SettingsModelString sqlDatabase = new SettingsModelString(AstMetricsPluginNodeModel.SQL_DATABASE,
+            AstMetricsPluginNodeModel.DEFAULT_VALUE);
 
     protected AstMetricsPluginNodeDialog() {
         super();
@@ -54,5 +60,12 @@ public class AstMetricsPluginNodeDialog extends DefaultNodeSettingsPane {
         createNewGroup("Revision range (commit hash or tag)");
         addDialogComponent(new DialogComponentString(bottomCommit, "From commit:", false, 35));
         addDialogComponent(new DialogComponentString(topCommit, "To commit:", false, 35));
+
+        createNewGroup("Metrics engine");
+        addDialogComponent(new DialogComponentBoolean(sqlEngine, "Calculate metrics with SQLite (slower)"));
+        DialogComponentFileChooser database = new DialogComponentFileChooser(sqlDatabase,
+                AstMetricsPluginNodeModel.SQL_DATABASE, JFileChooser.SAVE_DIALOG, false);
+        database.setBorderTitle("SQLite database to keep (empty for a temporary one):");
+        addDialogComponent(database);
     }
 }
@@ -34,6 +34,7 @@ import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
 import com.google.common.base.Preconditions;
@@ -49,13 +50,23 @@ public class AstMetricsPluginNodeModel extends NodeModel {
     static final String GIT_REPOSITORY_ADDRESS = "dirname";
     static final String GIT_PACKAGENAME = "package";
     static final String DEFAULT_GIT_PACKAGENAME = "org.";
+    static final String SQL_ENGINE = "sql_engine";
+    static final String SQL_DATABASE = "sql_database";
     static final String DEFAULT_VALUE = "";
+    static final boolean DEFAULT_SQL_ENGINE = false;
 
     private final SettingsModelString gitRepositoryAddress = new SettingsModelString(GIT_REPOSITORY_ADDRESS,
             DEFAULT_VALUE);
     private final SettingsModelString gitPackageName = new SettingsModelString(GIT_PACKAGENAME, DEFAULT_GIT_PACKAGENAME);
     private final SettingsModelString bottomCommit = new SettingsModelString(BOTTOM_COMMIT, DEFAULT_VALUE);
     private final SettingsModelString topCommit = new SettingsModelString(TOP_COMMIT, DEFAULT_VALUE);
+    private final SettingsModelBoolean sqlEngine = new SettingsModelBoolean(SQL_ENGINE, DEFAULT_SQL_ENGINE);
+    private final SettingsModelString sqlDatabase = new SettingsModelString(SQL_DATABASE, DEFAULT_VALUE);
+    /**
+     * Kept between executions, so sources not changed since are not parsed
+     * again.
+     */
+    private final LocCounter locCounter = new LocCounter();
 
     protected AstMetricsPluginNodeModel() {
         super(0, 1);
@@ -67,10 +78,22 @@ public class AstMetricsPluginNodeModel extends NodeModel {
         String gitPath = getGitPath(gitRepositoryAddress.getStringValue());
 
         logger.info("Reading from repository " + gitPath);
-        AstLogParser parser = new AstLogParser(gitPath, gitPackageName.getStringValue(), new DbHandler(), exec);
-
-        Map<String, MetricEntry> metrics = parser.getMetrics(topCommit.getStringValue(), bottomCommit.getStringValue());
-        logger.info("Reading metrics finished.");
+        DbHandler db = createDbHandler();
+        Map<String, MetricEntry> metrics;
+        AstLogParser parser;
+        try {
+            parser = new AstLogParser(gitPath, gitPackageName.getStringValue(), db, exec);
+            parser.setLocCounter(locCounter);
+            metrics = parser.getMetrics(topCommit.getStringValue(), bottomCommit.getStringValue());
+        } finally {
+            if (db != null) {
+                db.close();
+                db.destroyDbFile();
+            }
+        }
+        logger.info("Reading metrics finished, not distilled: " + parser.getIdenticalPairs()
+                + " identical revision pairs, " + parser.getFormattingPairs() + " formatting only revision pairs, "
+                + parser.getFailedPairs() + " failed revision pairs.");
 
         AstMetricsTransformer astMetricsTransformer = new AstMetricsTransformer(exec, createDataColumnSpec());
         List<MetricEntry> metricList = astMetricsTransformer.getMetricsEntriesFromMap(metrics);
@@ -80,6 +103,17 @@ public class AstMetricsPluginNodeModel extends NodeModel {
         return out;
     }
 
+    private DbHandler createDbHandler() throws IOException {
+        if (!sqlEngine.getBooleanValue()) {
+            return null;
+        }
+        if (sqlDatabase.getStringValue().isEmpty()) {
+            return new DbHandler();
+        }
+        logger.info("Storing changes in database " + sqlDatabase.getStringValue());
+        return new DbHandler(new File(sqlDatabase.getStringValue()));
+    }
+
     @Override
     protected void reset() {
     }
@@ -96,6 +130,8 @@ public class AstMetricsPluginNodeModel extends NodeModel {
         topCommit.saveSettingsTo(settings);
         gitRepositoryAddress.saveSettingsTo(settings);
         gitPackageName.saveSettingsTo(settings);
+        sqlEngine.saveSettingsTo(settings);
+        sqlDatabase.saveSettingsTo(settings);
     }
 
     @Override
@@ -104,6 +140,13 @@ public class AstMetricsPluginNodeModel extends NodeModel {
         topCommit.loadSettingsFrom(settings);
         gitRepositoryAddress.loadSettingsFrom(settings);
         gitPackageName.loadSettingsFrom(settings);
+        // settings saved before the in-memory engine was introduced
+        if (settings.containsKey(SQL_ENGINE)) {
+            sqlEngine.loadSettingsFrom(settings);
+        }
+        if (settings.containsKey(SQL_DATABASE)) {
+            sqlDatabase.loadSettingsFrom(settings);
+        }
     }
 
     @Override
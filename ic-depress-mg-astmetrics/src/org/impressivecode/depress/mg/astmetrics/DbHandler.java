@@ -17,6 +17,8 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package org.impressivecode.depress.mg.astmetrics;
 
+import static com.google.common.base.Preconditions.checkState;
+
 import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
@@ -25,6 +27,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,12 +35,39 @@ import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 
 /**
+ * SQLite store of the distilled changes. Changes are inserted in batches
+ * inside transactions and indexed before the metrics are calculated. The
+ * database is a temporary file, or a file kept between executions, which is
+ * then appended to: revision pairs already stored are not distilled again and
+ * the metrics are calculated only from the revisions set by
+ * {@link #setRevisions(Collection)}. A kept database holds the changes of one
+ * repository and package prefix, set by {@link #setSource(String, String)}.
+ *
  * @author Mateusz Kutyba, Wroclaw University of Technology
  */
 public class DbHandler {
+    /**
+     * Number of rows after which the transaction is committed, at the end of
+     * the next revision pair so pairs are never stored partially.
+     */
+    private static final int BATCH_SIZE = 1000;
+    /**
+     * Version of the tables, a kept database of another version is emptied.
+     */
+    private static final int SCHEMA_VERSION = 2;
+
     public File dbFile;
+    private final boolean persistent;
     private Connection connection;
     private Statement statement;
+    private PreparedStatement insertChange;
+    private PreparedStatement insertDistilled;
+    private PreparedStatement selectDistilled;
+    private PreparedStatement deleteChanges;
+    private PreparedStatement deleteDistilled;
+    private int pendingRows = 0;
+    private String repository;
+    private String packageName;
     private Map<String, MetricEntry> metrics;
     private ExecutionContext exec;
     private Long progressCounter = 0l;
@@ -51,19 +81,124 @@ public class DbHandler {
 
     public DbHandler() throws IOException {
         metrics = new HashMap<String, MetricEntry>();
+        persistent = false;
         createDbFile();
     }
 
+    /**
+     * Keeps the database in the file, so it can be queried or appended to by
+     * next executions.
+     */
+    public DbHandler(final File dbFile) {
+        metrics = new HashMap<String, MetricEntry>();
+        persistent = true;
+        this.dbFile = dbFile;
+    }
+
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    /**
+     * Sets the repository and package prefix of the stored changes, before
+     * {@link #connect()}. Only changes of methods with the prefix are stored,
+     * so a kept database may not be appended to with other ones.
+     */
+    public void setSource(String repository, String packageName) {
+        this.repository = repository;
+        this.packageName = packageName;
+    }
+
     public void connect() throws SQLException, IOException, Exception {
         Class.forName("org.sqlite.JDBC");
         connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
         this.statement = connection.createStatement();
         createDB();
+        checkSource();
+        connection.setAutoCommit(false);
+        insertChange = connection.prepareStatement("INSERT INTO Changes VALUES(?,?,?,?,?,?);");
+        insertDistilled = connection.prepareStatement("INSERT OR REPLACE INTO Distilled VALUES(?,?,?);");
+        selectDistilled = connection
+                .prepareStatement("SELECT PreviousRevisionId FROM Distilled WHERE FilePath = ? AND RevisionId = ?;");
+        deleteChanges = connection.prepareStatement("DELETE FROM Changes WHERE FilePath = ? AND RevisionId = ?;");
+        deleteDistilled = connection.prepareStatement("DELETE FROM Distilled WHERE FilePath = ? AND RevisionId = ?;");
     }
 
     public void insertChangeData(SingleChangeInfo data) throws SQLException {
+        insertChangeData(null, data);
+    }
+
+    /**
+     * @param filePath
+     *            file the change was distilled from, so changes of a pair
+     *            distilled again replace the stored ones
+     */
+    public void insertChangeData(String filePath, SingleChangeInfo data) throws SQLException {
         insertChangeData(data.getMethodName(), data.getAuthor(), data.getRevisionId(), data.getChangeEntity(),
-                data.getChangeType());
+                data.getChangeType(), filePath);
+    }
+
+    /**
+     * @return true if changes of the file between the revisions are already
+     *         stored, by this or a previous execution. Changes of the file in
+     *         the revision stored against another previous revision, as the
+     *         history changed since, are removed.
+     */
+    public boolean isDistilled(String filePath, String previousRevisionId, String revisionId) throws SQLException {
+        selectDistilled.setString(1, filePath);
+        selectDistilled.setString(2, revisionId);
+        String storedPrevious;
+        ResultSet result = selectDistilled.executeQuery();
+        try {
+            if (!result.next()) {
+                return false;
+            }
+            storedPrevious = result.getString(1);
+        } finally {
+            result.close();
+        }
+        if (storedPrevious.equals(previousRevisionId)) {
+            return true;
+        }
+        deleteChanges.setString(1, filePath);
+        deleteChanges.setString(2, revisionId);
+        deleteChanges.executeUpdate();
+        deleteDistilled.setString(1, filePath);
+        deleteDistilled.setString(2, revisionId);
+        deleteDistilled.executeUpdate();
+        return false;
+    }
+
+    /**
+     * Marks changes of the file between the revisions as stored, once all of
+     * them were inserted.
+     */
+    public void setDistilled(String filePath, String previousRevisionId, String revisionId) throws SQLException {
+        insertDistilled.setString(1, filePath);
+        insertDistilled.setString(2, revisionId);
+        insertDistilled.setString(3, previousRevisionId);
+        insertDistilled.addBatch();
+        if (++pendingRows >= BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Limits the metrics to changes of the revisions, the database may hold
+     * changes of other revisions stored by previous executions.
+     */
+    public void setRevisions(Collection<String> revisionIds) throws SQLException {
+        statement.executeUpdate("DELETE FROM Revisions;");
+        PreparedStatement insert = connection.prepareStatement("INSERT OR IGNORE INTO Revisions VALUES(?);");
+        try {
+            for (String revisionId : revisionIds) {
+                insert.setString(1, revisionId);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        } finally {
+            insert.close();
+        }
     }
 
     public boolean hasDataInDb() throws SQLException {
@@ -92,7 +227,15 @@ public class DbHandler {
         return query;
     }
 
+    /**
+     * Calculates metrics of the stored changes. The connection stays open, so
+     * more changes can be inserted and metrics calculated again, until
+     * {@link #close()}.
+     */
     public void calculateMetrics() throws SQLException, CanceledExecutionException {
+        flush();
+        createIndexes();
+        connection.commit();
         clearMetricsMap();
 
         saveMetricResult(" SELECT MethodName, CAST(count(MethodName) AS NUMERIC) " + " FROM metrics "
@@ -304,7 +447,25 @@ public class DbHandler {
                 queryCountChangesOfType("ChangeType = 'STATEMENT_DELETE' AND ChangeEntity LIKE 'THROW_STATEMENT%' "),
                 MetricEntry.THROWS_DELETED);
 
-        connection.close();
+        progressCounter = 0l;
+    }
+
+    /**
+     * Commits pending changes and closes the connection, also after a failed
+     * {@link #connect()}.
+     */
+    public void close() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        try {
+            if (insertChange != null) {
+                flush();
+            }
+        } finally {
+            connection.close();
+            connection = null;
+        }
     }
 
     private void createDbFile() throws IOException {
@@ -315,28 +476,101 @@ public class DbHandler {
     }
 
     public void destroyDbFile() {
-        if (dbFile != null) {
+        if (dbFile != null && !persistent) {
             dbFile.delete();
         }
     }
 
+    /**
+     * Changes are kept in the Changes table, the metrics queries read the
+     * temporary Metrics view of the changes of the current revisions.
+     */
     private void createDB() throws SQLException {
-        statement.executeUpdate("DROP TABLE IF EXISTS Metrics;");
+        if (!persistent || getSchemaVersion() != SCHEMA_VERSION) {
+            statement.executeUpdate("DROP TABLE IF EXISTS Changes;");
+            statement.executeUpdate("DROP TABLE IF EXISTS Distilled;");
+            statement.executeUpdate("DROP TABLE IF EXISTS Source;");
+            statement.executeUpdate("PRAGMA user_version = " + SCHEMA_VERSION + ";");
+        }
+        statement
+                .executeUpdate("CREATE TABLE IF NOT EXISTS Changes(MethodName TEXT, Author TEXT, RevisionId TEXT, ChangeEntity TEXT, ChangeType TEXT, FilePath TEXT);");
         statement
-                .executeUpdate("CREATE TABLE Metrics(MethodName TEXT, Author TEXT, RevisionId TEXT, ChangeEntity TEXT, ChangeType TEXT);");
+                .executeUpdate("CREATE TABLE IF NOT EXISTS Distilled(FilePath TEXT, RevisionId TEXT, PreviousRevisionId TEXT, PRIMARY KEY (FilePath, RevisionId));");
+        statement.executeUpdate("CREATE TABLE IF NOT EXISTS Source(Repository TEXT, PackageName TEXT);");
+        statement.executeUpdate("CREATE TEMP TABLE IF NOT EXISTS Revisions(RevisionId TEXT PRIMARY KEY);");
+        statement
+                .executeUpdate("CREATE TEMP VIEW IF NOT EXISTS Metrics AS SELECT * FROM Changes WHERE NOT EXISTS (SELECT 1 FROM Revisions) OR RevisionId IN (SELECT RevisionId FROM Revisions);");
+    }
 
+    private int getSchemaVersion() throws SQLException {
+        ResultSet result = statement.executeQuery("PRAGMA user_version;");
+        try {
+            return result.next() ? result.getInt(1) : 0;
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Stores the repository and package prefix in a new database, or checks
+     * they are the ones of the changes already stored.
+     */
+    private void checkSource() throws SQLException {
+        if (repository == null) {
+            return;
+        }
+        ResultSet result = statement.executeQuery("SELECT Repository, PackageName FROM Source;");
+        try {
+            if (result.next()) {
+                String storedRepository = result.getString(1);
+                String storedPackageName = result.getString(2);
+                checkState(repository.equals(storedRepository) && packageName.equals(storedPackageName),
+                        "Database %s holds changes of repository %s with package prefix %s, not of %s with %s",
+                        dbFile, storedRepository, storedPackageName, repository, packageName);
+                return;
+            }
+        } finally {
+            result.close();
+        }
+        PreparedStatement insert = connection.prepareStatement("INSERT INTO Source VALUES(?,?);");
+        try {
+            insert.setString(1, repository);
+            insert.setString(2, packageName);
+            insert.executeUpdate();
+        } finally {
+            insert.close();
+        }
+    }
+
+    /**
+     * Indexes on the grouping and filtering columns of the metrics queries,
+     * created after the changes are inserted so inserts do not maintain them.
+     */
+    private void createIndexes() throws SQLException {
+        statement.executeUpdate("CREATE INDEX IF NOT EXISTS ChangesMethod ON Changes(MethodName, RevisionId);");
+        statement.executeUpdate("CREATE INDEX IF NOT EXISTS ChangesRevision ON Changes(RevisionId);");
+        statement.executeUpdate("CREATE INDEX IF NOT EXISTS ChangesType ON Changes(ChangeType, MethodName, RevisionId);");
+        statement.executeUpdate("CREATE INDEX IF NOT EXISTS ChangesFile ON Changes(FilePath, RevisionId);");
+        statement.executeUpdate("ANALYZE;");
     }
 
     private void insertChangeData(String methodName, String author, String revisionId, String changeEntity,
-            String changeType) throws SQLException {
-        PreparedStatement statement = this.connection.prepareStatement("INSERT INTO Metrics VALUES(?,?,?,?,?);");
-        statement.setString(1, methodName);
-        statement.setString(2, author);
-        statement.setString(3, revisionId);
-        statement.setString(4, changeEntity);
-        statement.setString(5, changeType);
-
-        statement.executeUpdate();
+            String changeType, String filePath) throws SQLException {
+        insertChange.setString(1, methodName);
+        insertChange.setString(2, author);
+        insertChange.setString(3, revisionId);
+        insertChange.setString(4, changeEntity);
+        insertChange.setString(5, changeType);
+        insertChange.setString(6, filePath);
+        insertChange.addBatch();
+        pendingRows++;
+    }
+
+    private void flush() throws SQLException {
+        insertChange.executeBatch();
+        insertDistilled.executeBatch();
+        connection.commit();
+        pendingRows = 0;
     }
 
     private void clearMetricsMap() {
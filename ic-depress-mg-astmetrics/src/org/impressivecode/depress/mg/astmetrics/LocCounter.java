@@ -17,14 +17,13 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package org.impressivecode.depress.mg.astmetrics;
 
-import java.io.File;
-import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Stack;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -35,27 +34,65 @@ import org.eclipse.jdt.core.dom.PackageDeclaration;
 import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.eclipse.jgit.lib.ObjectId;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
+ * Counts lines of code of the methods of Java sources. Sources are only
+ * parsed, the number of lines does not depend on bindings, so they are not
+ * resolved. Counts of a source are cached by its blob id, the counter may be
+ * shared by threads and executions.
+ *
  * @author Mateusz Kutyba, Wroclaw University of Technology
  */
 public class LocCounter {
-    private static Map<String, Integer> methods;
+    private static final long DEFAULT_CACHE_SIZE = 10000;
+
+    private final Cache<ObjectId, Map<String, Integer>> cache;
 
-    public static Map<String, Integer> countLocForFile(File file) throws IOException {
-        methods = new HashMap<String, Integer>();
+    public LocCounter() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize
+     *            number of sources whose counts are kept
+     */
+    public LocCounter(long cacheSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
 
+    /**
+     * @return lines of code by method signature, not modifiable
+     */
+    public Map<String, Integer> countLoc(ObjectId blob, byte[] source) {
+        Map<String, Integer> methods = cache.getIfPresent(blob);
+        if (methods == null) {
+            methods = Collections.unmodifiableMap(countLoc(source));
+            cache.put(blob, methods);
+        }
+        return methods;
+    }
+
+    /**
+     * @return lines of code by method signature
+     */
+    public static Map<String, Integer> countLoc(byte[] source) {
         ASTParser parser = ASTParser.newParser(AST.JLS4);
-        String[] classpathEntries = new String[] { "." };
-        String[] sourcepathEntries = new String[] { file.getParent() };
-        parser.setEnvironment(classpathEntries, sourcepathEntries, null, false);
-        parser.setResolveBindings(true);
+        parser.setResolveBindings(false);
         parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setSource(new String(source, Charset.defaultCharset()).toCharArray());
 
-        String fileContents = FileUtils.readFileToString(file);
-        parser.setSource(fileContents.toCharArray());
+        return countLoc((CompilationUnit) parser.createAST(null));
+    }
 
-        final CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+    /**
+     * @return lines of code by method signature of the parsed source
+     */
+    static Map<String, Integer> countLoc(CompilationUnit cu) {
+        final Map<String, Integer> methods = new HashMap<String, Integer>();
 
         cu.accept(new ASTVisitor() {
             private Stack<char[]> fQualifiers = new Stack<char[]>();
@@ -0,0 +1,308 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.mg.astmetrics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+
+/**
+ * In-memory counterpart of {@link DbHandler}. Computes every {@link MetricEntry}
+ * value in a single scan over the collected changes instead of one SQL query
+ * per metric. Results are the same as the ones returned by
+ * {@link DbHandler#calculateMetrics()}, including which values are left unset.
+ *
+ * @author ImpressiveCode contributors
+ */
+public class MetricsAggregator {
+    private static final Set<String> METHOD_HISTORY_TYPES = new HashSet<String>(Arrays.asList("RETURN_TYPE_CHANGE",
+            "RETURN_TYPE_DELETE", "RETURN_TYPE_INSERT", "METHOD_RENAMING", "PARAMETER_DELETE", "PARAMETER_INSERT",
+            "PARAMETER_ORDERING_CHANGE", "PARAMETER_RENAMING", "DECREASING_ACCESSIBILITY_CHANGE",
+            "INCREASING_ACCESSIBILITY_CHANGE", "PARAMETER_TYPE_CHANGE", "STATEMENT_INSERT", "STATEMENT_UPDATE",
+            "STATEMENT_DELETE", "STATEMENT_PARENT_CHANGE", "CONDITION_EXPRESSION_CHANGE", "ALTERNATIVE_PART_INSERT",
+            "ALTERNATIVE_PART_DELETE", "STATEMENT_ORDERING_CHANGE"));
+    private static final Set<String> DECL_TYPES = new HashSet<String>(Arrays.asList("RETURN_TYPE_CHANGE",
+            "RETURN_TYPE_DELETE", "RETURN_TYPE_INSERT", "METHOD_RENAMING", "PARAMETER_DELETE", "PARAMETER_INSERT",
+            "PARAMETER_ORDERING_CHANGE", "PARAMETER_RENAMING", "PARAMETER_TYPE_CHANGE",
+            "DECREASING_ACCESSIBILITY_CHANGE", "INCREASING_ACCESSIBILITY_CHANGE"));
+    private static final String[] OBJECT_CREATIONS = { "NEW ", "CLASS.FORNAME", ".CLONE()", ".NEWINSTANCE()",
+            ".READOBJECT()" };
+
+    private static final int ADDED = 0;
+    private static final int UPDATED = 1;
+    private static final int DELETED = 2;
+    private static final int NONE = -1;
+
+    private Map<String, MethodChanges> changes;
+    private Map<String, MetricEntry> metrics;
+    private ExecutionContext exec;
+    private double progressFrom = 0.2d;
+    private double progressTo = 0.2d;
+
+    public MetricsAggregator() {
+        changes = new HashMap<String, MethodChanges>();
+        metrics = new HashMap<String, MetricEntry>();
+    }
+
+    public void setExec(ExecutionContext exec) {
+        this.exec = exec;
+    }
+
+    public void insertChangeData(SingleChangeInfo data) {
+        MethodChanges method = changes.get(data.getMethodName());
+        if (method == null) {
+            method = new MethodChanges();
+            changes.put(data.getMethodName(), method);
+        }
+        method.add(data);
+    }
+
+    public int countData() {
+        int count = 0;
+        for (MethodChanges method : changes.values()) {
+            count += method.allHistories;
+        }
+        return count;
+    }
+
+    public Map<String, MetricEntry> getMetrics() {
+        return metrics;
+    }
+
+    public void calculateMetrics() throws CanceledExecutionException {
+        metrics = new HashMap<String, MetricEntry>();
+        long counter = 0;
+        for (Entry<String, MethodChanges> entry : changes.entrySet()) {
+            metrics.put(entry.getKey(), entry.getValue().toMetricEntry(entry.getKey()));
+            checkIfCancelledAndSetProgress(progressFrom + progressTo * ++counter / changes.size());
+        }
+    }
+
+    private static int operation(String changeType, String added, String updated, String deleted) {
+        if (added.equals(changeType)) {
+            return ADDED;
+        }
+        if (updated.equals(changeType)) {
+            return UPDATED;
+        }
+        if (deleted.equals(changeType)) {
+            return DELETED;
+        }
+        return NONE;
+    }
+
+    /**
+     * Mirrors SQLite <code>LIKE 'prefix%'</code>: ASCII case-insensitive and
+     * '_' matches any single character.
+     */
+    private static boolean likePrefix(String upperEntity, String prefix) {
+        if (upperEntity.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            char p = prefix.charAt(i);
+            if (p != '_' && p != upperEntity.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toAsciiUpperCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'a' && chars[i] <= 'z') {
+                chars[i] = (char) (chars[i] - ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    private static boolean createsObject(String upperEntity) {
+        for (String creation : OBJECT_CREATIONS) {
+            if (upperEntity.contains(creation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkIfCancelledAndSetProgress(Double progress) throws CanceledExecutionException {
+        if (exec != null) {
+            exec.checkCanceled();
+
+            // no progress change
+            if (progress != null) {
+                exec.setProgress(progress);
+            }
+        }
+    }
+
+    private static class MethodChanges {
+        private final int[] counts = new int[MetricEntry.LOC];
+        private final Set<String> authors = new HashSet<String>();
+        private final Map<String, int[]> statementsPerRevision = new HashMap<String, int[]>();
+        private int allHistories;
+
+        private void add(SingleChangeInfo data) {
+            String changeType = data.getChangeType();
+            String entity = data.getChangeEntity() == null ? null : toAsciiUpperCase(data.getChangeEntity());
+
+            allHistories++;
+            if (data.getAuthor() != null) {
+                authors.add(data.getAuthor());
+            }
+            if (changeType == null) {
+                return;
+            }
+            if (METHOD_HISTORY_TYPES.contains(changeType)) {
+                counts[MetricEntry.METHOD_HISTORIES]++;
+            }
+            if (DECL_TYPES.contains(changeType)) {
+                counts[MetricEntry.DECL]++;
+            }
+            if ("STATEMENT_PARENT_CHANGE".equals(changeType)) {
+                counts[MetricEntry.STATEMENT_PARENT_CHANGE]++;
+            }
+            if ("CONDITION_EXPRESSION_CHANGE".equals(changeType)) {
+                counts[MetricEntry.COND]++;
+            }
+            if ("ALTERNATIVE_PART_INSERT".equals(changeType)) {
+                counts[MetricEntry.ELSE_ADDED]++;
+            }
+            if ("ALTERNATIVE_PART_DELETE".equals(changeType)) {
+                counts[MetricEntry.ELSE_DELETED]++;
+            }
+
+            int statement = operation(changeType, "STATEMENT_INSERT", "STATEMENT_UPDATE", "STATEMENT_DELETE");
+            if (statement != NONE) {
+                countStatement(data.getRevisionId(), statement);
+                if (entity != null) {
+                    countStatementEntity(entity, statement);
+                }
+            }
+
+            int alternative = operation(changeType, "ALTERNATIVE_PART_INSERT", "ALTERNATIVE_PART_UPDATE",
+                    "ALTERNATIVE_PART_DELETE");
+            int operation = statement != NONE ? statement : alternative;
+            if (operation != NONE && entity != null) {
+                if (entity.contains("NULL")) {
+                    counts[MetricEntry.NULLS_ADDED + operation]++;
+                }
+                if (createsObject(entity)) {
+                    counts[MetricEntry.OBJECTS_ADDED + operation]++;
+                }
+            }
+        }
+
+        private void countStatement(String revisionId, int statement) {
+            counts[MetricEntry.STMT_ADDED + 3 * statement]++;
+            int[] revision = statementsPerRevision.get(revisionId);
+            if (revision == null) {
+                revision = new int[3];
+                statementsPerRevision.put(revisionId, revision);
+            }
+            revision[statement]++;
+        }
+
+        private void countStatementEntity(String entity, int statement) {
+            if (likePrefix(entity, "FOR_STATEMENT") || likePrefix(entity, "WHILE_STATEMENT")) {
+                counts[MetricEntry.LOOPS_ADDED + statement]++;
+            }
+            if (likePrefix(entity, "VARIABLE_DECLARATION_STATEMENT")) {
+                counts[MetricEntry.VARIABLES_ADDED + statement]++;
+            }
+            if (likePrefix(entity, "ASSIGNMENT")) {
+                counts[MetricEntry.ASSIGMENTS_ADDED + statement]++;
+            }
+            if (likePrefix(entity, "RETURN_STATEMENT")) {
+                counts[MetricEntry.RETURNS_ADDED + statement]++;
+            }
+            if (likePrefix(entity, "SWITCH_CASE")) {
+                counts[MetricEntry.CASES_ADDED + statement]++;
+            }
+            if (likePrefix(entity, "BREAK_STATEMENT")) {
+                counts[MetricEntry.BREAKS_ADDED + statement]++;
+            }
+            if (likePrefix(entity, "CATCH_CLAUSE")) {
+                counts[MetricEntry.CATCHES_ADDED + statement]++;
+            }
+            if (likePrefix(entity, "THROW_STATEMENT")) {
+                counts[MetricEntry.THROWS_ADDED + statement]++;
+            }
+        }
+
+        private MetricEntry toMetricEntry(String methodName) {
+            MetricEntry entry = new MetricEntry(methodName);
+            entry.setValue(MetricEntry.ALL_METHOD_HISTORIES, (double) allHistories);
+            entry.setValue(MetricEntry.AUTHORS, (double) authors.size());
+            for (int metric = MetricEntry.METHOD_HISTORIES; metric < counts.length; metric++) {
+                if (counts[metric] > 0) {
+                    entry.setValue(metric, (double) counts[metric]);
+                }
+            }
+            setStatementPerRevisionValues(entry, ADDED, MetricEntry.MAX_STMT_ADDED, MetricEntry.AVG_STMT_ADDED);
+            setStatementPerRevisionValues(entry, UPDATED, MetricEntry.MAX_STMT_UPDATED, MetricEntry.AVG_STMT_UPDATED);
+            setStatementPerRevisionValues(entry, DELETED, MetricEntry.MAX_STMT_DELETED, MetricEntry.AVG_STMT_DELETED);
+            setChurnValues(entry);
+            return entry;
+        }
+
+        private void setStatementPerRevisionValues(MetricEntry entry, int statement, int maxMetric, int avgMetric) {
+            int revisions = 0;
+            long sum = 0;
+            int max = Integer.MIN_VALUE;
+            for (int[] revision : statementsPerRevision.values()) {
+                if (revision[statement] > 0) {
+                    revisions++;
+                    sum += revision[statement];
+                    max = Math.max(max, revision[statement]);
+                }
+            }
+            if (revisions > 0) {
+                entry.setValue(maxMetric, (double) max);
+                entry.setValue(avgMetric, (double) sum / revisions);
+            }
+        }
+
+        private void setChurnValues(MetricEntry entry) {
+            int revisions = 0;
+            long sum = 0;
+            int max = Integer.MIN_VALUE;
+            for (int[] revision : statementsPerRevision.values()) {
+                if (revision[ADDED] > 0 || revision[DELETED] > 0) {
+                    int churn = revision[ADDED] - revision[DELETED];
+                    revisions++;
+                    sum += churn;
+                    max = Math.max(max, churn);
+                }
+            }
+            if (revisions > 0) {
+                entry.setValue(MetricEntry.CHURN, (double) sum);
+                entry.setValue(MetricEntry.MAX_CHURN, (double) max);
+                entry.setValue(MetricEntry.AVG_CHURN, (double) sum / revisions);
+            }
+        }
+    }
+}
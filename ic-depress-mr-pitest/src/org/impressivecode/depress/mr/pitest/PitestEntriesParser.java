@@ -20,18 +20,20 @@ package org.impressivecode.depress.mr.pitest;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.DecimalFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import com.google.common.base.Preconditions;
@@ -46,66 +48,79 @@ import com.google.common.collect.Lists;
 
 public class PitestEntriesParser {
 
+    private static final String MUTATION = "mutation";
+    private static final String MUTATED_CLASS = "mutatedClass";
+    private static final String DETECTED = "detected";
+
     public List<PitestEntry> parseEntries(final String path) throws ParserConfigurationException, SAXException,
     IOException {
         Preconditions.checkArgument(!isNullOrEmpty(path), "Path has to be set.");
-        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-        Document doc = dBuilder.parse(path);
-        NodeList nList = getSourceFileNodes(doc);
-        DecimalFormat df = new DecimalFormat("#.##");
-        int size = nList.getLength();
-        List<PitestEntry> pitestEntries = Lists.newLinkedList();
-        for (int i = 0; i < size; i++) {
-            Node item = nList.item(i);
-            PitestEntry entry = parse(item);
-            pitestEntries.add(entry);
+        InputStream stream = new FileInputStream(path);
+        try {
+            return aggregate(stream);
+        } catch (XMLStreamException e) {
+            throw new SAXException(e);
+        } finally {
+            stream.close();
         }
-        
-        for(int i = 0; i< pitestEntries.size(); i++) {
-        	int mutations = 1;
-        	int passed_mutations = 0;
-        	PitestEntry elem = pitestEntries.get(i);
-        	if(elem.getDetection() == true)
-        		passed_mutations++;
-        	for(int j = i+1; j< pitestEntries.size(); j++) {
-            	PitestEntry elem1 = pitestEntries.get(j);
-            	if(elem.getMutatedClass().equals(elem1.getMutatedClass())) {
-            		if(elem1.getDetection() == true) {
-        				passed_mutations++;
-        			}
-        			mutations ++;
-        			pitestEntries.remove(elem1);
-        			j--;
-	
-            	}
-            	
+    }
+
+    /**
+     * Reads mutations one by one and groups them by mutated class. The first
+     * mutation of every class represents the class in the result.
+     */
+    private List<PitestEntry> aggregate(final InputStream stream) throws XMLStreamException {
+        Map<String, MutatedClass> classes = new LinkedHashMap<String, MutatedClass>();
+        XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+        try {
+            PitestEntry entry = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && MUTATION.equals(reader.getLocalName())) {
+                    entry = new PitestEntry();
+                    entry.setDetection(Boolean.valueOf(reader.getAttributeValue(null, DETECTED)));
+                } else if (event == XMLStreamConstants.START_ELEMENT && entry != null
+                        && MUTATED_CLASS.equals(reader.getLocalName())) {
+                    entry.setMutatedClass(reader.getElementText());
+                    count(classes, entry);
+                    entry = null;
+                }
             }
+        } finally {
+            reader.close();
+        }
 
-        	if(mutations != 0)
-        		elem.setMutationScoreIndicator(Double.valueOf((df.format((double)passed_mutations/(double)mutations)).replaceAll(",",".")));
-        	else
-        		elem.setMutationScoreIndicator(0.00);
- 
-       }
-       
+        DecimalFormat df = new DecimalFormat("#.##");
+        List<PitestEntry> pitestEntries = Lists.newArrayListWithCapacity(classes.size());
+        for (MutatedClass mutatedClass : classes.values()) {
+            PitestEntry elem = mutatedClass.first;
+            elem.setMutationScoreIndicator(Double.valueOf((df.format((double) mutatedClass.passedMutations
+                    / (double) mutatedClass.mutations)).replaceAll(",", ".")));
+            pitestEntries.add(elem);
+        }
         return pitestEntries;
-    } 
-
-    private NodeList getSourceFileNodes(final Document doc) {
-        return doc.getElementsByTagName("mutation");
     }
 
-    private PitestEntry parse(final Node item) {
-
-        PitestEntry pitest = new PitestEntry();
-
-        Element eItem = (Element) item;
+    private void count(final Map<String, MutatedClass> classes, final PitestEntry entry) {
+        MutatedClass mutatedClass = classes.get(entry.getMutatedClass());
+        if (mutatedClass == null) {
+            mutatedClass = new MutatedClass(entry);
+            classes.put(entry.getMutatedClass(), mutatedClass);
+        }
+        mutatedClass.mutations++;
+        if (entry.getDetection()) {
+            mutatedClass.passedMutations++;
+        }
+    }
 
-        pitest.setDetection(Boolean.valueOf(eItem.getAttribute("detected")));
-    	pitest.setMutatedClass(eItem.getElementsByTagName("mutatedClass").item(0).getTextContent());
+    private static class MutatedClass {
+        private final PitestEntry first;
+        private int mutations;
+        private int passedMutations;
 
-        return pitest;
+        private MutatedClass(final PitestEntry first) {
+            this.first = first;
+        }
     }
 
 }
@@ -34,4 +34,20 @@ public class GitAdapterTableFactory {
     public static DataTableSpec[] createTableSpec() {
         return new DataTableSpec[] { SCMAdapterTableFactory.createDataColumnSpec() };
     }
+
+    public static DataTableSpec[] createTableSpec(final boolean churn) {
+        return churn ? new DataTableSpec[] { SCMAdapterTableFactory.createChurnDataColumnSpec() } : createTableSpec();
+    }
+
+    /**
+     * @param repository
+     *            whether the rows carry the repository they were read from
+     */
+    public static DataTableSpec[] createTableSpec(final boolean churn, final boolean repository) {
+        DataTableSpec[] specs = createTableSpec(churn);
+        if (repository) {
+            specs[0] = SCMAdapterTableFactory.createRepositoryDataColumnSpec(specs[0]);
+        }
+        return specs;
+    }
 }
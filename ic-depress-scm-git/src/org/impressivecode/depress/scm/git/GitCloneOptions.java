@@ -0,0 +1,61 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git;
+
+import com.google.common.base.Strings;
+
+/**
+ * Options of cloning a remote repository for the online Git adapter. A bare
+ * clone writes no working tree, the adapter reads the objects directly.
+ *
+ * @author ImpressiveCode contributors
+ */
+public class GitCloneOptions {
+    private boolean bare;
+    private String branch;
+
+    /**
+     * @param branch
+     *            the only branch to clone, all branches are cloned if empty
+     */
+    public static GitCloneOptions options(final boolean bare, final String branch) {
+        GitCloneOptions options = new GitCloneOptions();
+        options.bare = bare;
+        options.branch = Strings.emptyToNull(branch);
+        return options;
+    }
+
+    /**
+     * @return options of a full clone of every branch with a checkout
+     */
+    public static GitCloneOptions options() {
+        return options(false, null);
+    }
+
+    public boolean isBare() {
+        return bare;
+    }
+
+    public boolean hasBranch() {
+        return branch != null;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+}
@@ -33,6 +33,8 @@ public class GitCommitFile {
     private String javaClass;
     private SCMOperation operation;
     private String extension;
+    private Integer linesAdded;
+    private Integer linesDeleted;
 
     public String getPath() {
         return path;
@@ -89,4 +91,20 @@ public class GitCommitFile {
 		this.extension = extension;
 	}
 
+    public Integer getLinesAdded() {
+        return linesAdded;
+    }
+
+    public void setLinesAdded(final Integer linesAdded) {
+        this.linesAdded = linesAdded;
+    }
+
+    public Integer getLinesDeleted() {
+        return linesDeleted;
+    }
+
+    public void setLinesDeleted(final Integer linesDeleted) {
+        this.linesDeleted = linesDeleted;
+    }
+
 }
@@ -0,0 +1,69 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git;
+
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.impressivecode.depress.scm.SCMExtensionsFilter;
+
+/**
+ * Skips files whose extension is not imported while walking the trees, so
+ * their content is never read for diffs and rename detection. Extensions
+ * are patterns matched case insensitively, which a PathSuffixFilter cannot
+ * express, so the compiled {@link SCMExtensionsFilter} is applied to the
+ * path directly.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+class GitExtensionsTreeFilter extends TreeFilter {
+    private final SCMExtensionsFilter extensions;
+
+    private GitExtensionsTreeFilter(final SCMExtensionsFilter extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * @return filter for the walk, {@link TreeFilter#ALL} if any extension
+     *         is imported
+     */
+    static TreeFilter create(final SCMExtensionsFilter extensions) {
+        return extensions.isAnyExtension() ? TreeFilter.ALL : new GitExtensionsTreeFilter(extensions);
+    }
+
+    @Override
+    public boolean include(final TreeWalk walker) {
+        return walker.isSubtree() || extensions.fits(walker.getPathString().replace('/', '.'));
+    }
+
+    @Override
+    public boolean shouldBeRecursive() {
+        return true;
+    }
+
+    @Override
+    public TreeFilter clone() {
+        // stateless, the compiled extensions are immutable
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "EXTENSIONS";
+    }
+}
@@ -20,6 +20,7 @@ package org.impressivecode.depress.scm.git;
 import javax.swing.JFileChooser;
 
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
 import org.knime.core.node.defaultnodesettings.DialogComponentFileChooser;
 import org.knime.core.node.defaultnodesettings.DialogComponentString;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
@@ -40,5 +41,7 @@ public class GitOfflineAdapterNodeDialog extends DefaultNodeSettingsPane {
         addDialogComponent(new DialogComponentString(GitOfflineAdapterNodeModel.extensions, "Extension pattern: (* = any extension, any string, ? = any character, split many extensions by comma)", false, 30)); 
         createNewTab(ADVANCED_TAB_NAME);
         addDialogComponent(new DialogComponentString(GitOfflineAdapterNodeModel.gitPackageName, "Package: ", false, 30));  
+        addDialogComponent(new DialogComponentBoolean(GitOfflineAdapterNodeModel.createSettingsChurn(),
+                "Count added and deleted lines"));
     }
 }
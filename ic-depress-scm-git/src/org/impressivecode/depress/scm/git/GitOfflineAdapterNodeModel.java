@@ -17,15 +17,14 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package org.impressivecode.depress.scm.git;
 
-import static org.impressivecode.depress.scm.SCMAdapterTableFactory.createDataColumnSpec;
 import static org.impressivecode.depress.scm.SCMParserOptions.options;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
 
-import org.impressivecode.depress.common.OutputTransformer;
+import org.impressivecode.depress.common.EntryListener;
+import org.impressivecode.depress.common.OutputSink;
 import org.impressivecode.depress.scm.SCMAdapterTransformer;
 import org.impressivecode.depress.scm.SCMDataType;
 import org.impressivecode.depress.scm.SCMExtensionsParser;
@@ -40,12 +39,12 @@ import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelOptionalString;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.collect.Lists;
 
 /**
  * @author Tomasz Kuzemko
@@ -60,10 +59,12 @@ public class GitOfflineAdapterNodeModel extends NodeModel {
     static final String GIT_FILENAME = "filename";
     static final String EXTENSION_STR = "extension";
     static final String GIT_PACKAGENAME = "package";
+    static final String GIT_CHURN = "churn";
     
     static final String GIT_FILENAME_DEFAULT = "";
     static final String GIT_PACKAGENAME_DEFAULT = "";
     static final String EXTENSION_DEFAULT = ".java";
+    static final boolean GIT_CHURN_DEFAULT = false;
     
     static final Boolean GIT_PACKAGENAME_ACTIVE_STATE = false;
 
@@ -77,6 +78,8 @@ public class GitOfflineAdapterNodeModel extends NodeModel {
     
     public static final SettingsModelString extensions = new SettingsModelString(
     		GitOfflineAdapterNodeModel.EXTENSION_STR, GitOfflineAdapterNodeModel.EXTENSION_DEFAULT);
+
+    private final SettingsModelBoolean gitChurn = createSettingsChurn();
     
     protected GitOfflineAdapterNodeModel() {
         super(0, 1);
@@ -92,10 +95,16 @@ public class GitOfflineAdapterNodeModel extends NodeModel {
             String packageNameToFilter = Strings.emptyToNull(gitPackageName.getStringValue());
             SCMParserOptions parserOptions = options(packageNameToFilter, userExtensions);
             GitOfflineLogParser parser = new GitOfflineLogParser(parserOptions);
-            List<GitCommit> commits = parser.parseEntries(this.gitFileName.getStringValue());
-            logger.info("Reading git logs finished");
-            BufferedDataTable out = transform(commits, exec);
-            logger.info("Transforming git logs finished.");
+            DataTableSpec spec = GitAdapterTableFactory.createTableSpec(gitChurn.getBooleanValue())[0];
+            final OutputSink<SCMDataType> sink = new SCMAdapterTransformer(spec).open(exec);
+            parser.parseEntries(this.gitFileName.getStringValue(), new EntryListener<GitCommit>() {
+                @Override
+                public void entryParsed(final GitCommit commit) throws CanceledExecutionException {
+                    transform(commit, sink);
+                }
+            });
+            BufferedDataTable out = sink.close();
+            logger.info("Reading git logs finished.");
             return new BufferedDataTable[] { out };
         } catch (Exception ex) {
         	logger.error("Unable to parse git entries", ex);
@@ -111,25 +120,32 @@ public class GitOfflineAdapterNodeModel extends NodeModel {
     @Override
     protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
         Preconditions.checkArgument(inSpecs.length == 0);
-        return GitAdapterTableFactory.createTableSpec();
+        return GitAdapterTableFactory.createTableSpec(gitChurn.getBooleanValue());
     }
 
     @Override
     protected void saveSettingsTo(final NodeSettingsWO settings) {
         gitFileName.saveSettingsTo(settings);
         gitPackageName.saveSettingsTo(settings);
+        gitChurn.saveSettingsTo(settings);
     }
 
     @Override
     protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
         gitFileName.loadSettingsFrom(settings);
         gitPackageName.loadSettingsFrom(settings);
+        if (settings.containsKey(GIT_CHURN)) {
+            gitChurn.loadSettingsFrom(settings);
+        }
     }
 
     @Override
     protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
         gitFileName.validateSettings(settings);
         gitPackageName.validateSettings(settings);
+        if (settings.containsKey(GIT_CHURN)) {
+            gitChurn.validateSettings(settings);
+        }
     }
 
     @Override
@@ -144,17 +160,19 @@ public class GitOfflineAdapterNodeModel extends NodeModel {
         // NOOP
     }
 
-    private BufferedDataTable transform(final List<GitCommit> commits, final ExecutionContext exec)
+    /**
+     * Line counts are read from the --numstat part of the log, logs without
+     * it leave both columns missing.
+     */
+    static SettingsModelBoolean createSettingsChurn() {
+        return new SettingsModelBoolean(GIT_CHURN, GIT_CHURN_DEFAULT);
+    }
+
+    private void transform(final GitCommit commit, final OutputSink<SCMDataType> sink)
             throws CanceledExecutionException {
-        List<SCMDataType> data = Lists.newLinkedList();
-        for (GitCommit commit : commits) {
-            for (GitCommitFile file : commit.getFiles()) {
-                progress(exec);
-                data.add(scm(commit, file));
-            }
+        for (GitCommitFile file : commit.getFiles()) {
+            sink.entryParsed(scm(commit, file));
         }
-        OutputTransformer<SCMDataType> transformer = new SCMAdapterTransformer(createDataColumnSpec());
-        return transformer.transform(data, exec);
     }
 
     private SCMDataType scm(final GitCommit commit, final GitCommitFile file) {
@@ -167,10 +185,8 @@ public class GitOfflineAdapterNodeModel extends NodeModel {
         scm.setPath(file.getPath());
         scm.setResourceName(file.getJavaClass());
         scm.setExtension(file.getExtension());
+        scm.setLinesAdded(file.getLinesAdded());
+        scm.setLinesDeleted(file.getLinesDeleted());
         return scm;
     }
-
-    private void progress(final ExecutionContext exec) throws CanceledExecutionException {
-        exec.checkCanceled();
-    }
 }
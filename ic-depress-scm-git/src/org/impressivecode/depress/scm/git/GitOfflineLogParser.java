@@ -21,23 +21,43 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FilenameUtils;
-import org.impressivecode.depress.scm.SCMExtensionsParser;
+import org.impressivecode.depress.common.EntryListener;
+import org.impressivecode.depress.scm.SCMExtensionsFilter;
 import org.impressivecode.depress.scm.SCMParserOptions;
+import org.knime.core.node.CanceledExecutionException;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableList;
-import com.google.common.io.Files;
-import com.google.common.io.LineProcessor;
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
 
 /**
  * <code>GitLogParser</code> converts git's log output into appropriate
@@ -47,6 +67,11 @@ import com.google.common.io.LineProcessor;
  * 
  * git log --pretty=format:"%H%n%ct%n%an%n%B%n%H" --raw --no-merges --abbrev=40
  * 
+ * or its NUL delimited variant, which also carries the numbers of added and
+ * deleted lines and any path, recognized by its leading record separator:
+ * 
+ * git log -z --pretty=format:"%x1e%H%x00%ct%x00%an%x00%B%x00" --raw --numstat --no-merges --abbrev=40
+ * 
  * 
  * @author Tomasz Kuzemko
  * @author Sławomir Kapłoński
@@ -54,18 +79,407 @@ import com.google.common.io.LineProcessor;
  * @author Maciej Borkowski, Capgemini Poland
  */
 public class GitOfflineLogParser {
+    /**
+     * Logs are split into chunks of about this size, smaller logs are parsed
+     * on the calling thread.
+     */
+    private static final long CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int PENDING_PER_THREAD = 2;
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int HASH_LENGTH = 40;
+    private static final int MAX_TIME_DIGITS = 19;
+    /**
+     * Starts every commit of the NUL delimited log.
+     */
+    static final byte RECORD_SEPARATOR = 0x1e;
+    /**
+     * Longest start of a record: the separator, the hash and the commit time,
+     * the last two terminated by NUL.
+     */
+    private static final int RECORD_START_LENGTH = 1 + HASH_LENGTH + 1 + MAX_TIME_DIGITS + 1;
+
     final SCMParserOptions parserOptions;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long chunkSize = CHUNK_SIZE;
 
     public GitOfflineLogParser(final SCMParserOptions parserOptions) {
         this.parserOptions = checkNotNull(parserOptions, "Options has to be set");
     }
 
+    /**
+     * Sets the number of threads parsing chunks of the log. Commits are still
+     * passed to listeners in the order of the log.
+     */
+    public void setThreads(final int threads) {
+        checkArgument(threads > 0, "Number of threads has to be positive.");
+        this.threads = threads;
+    }
+
+    public void setChunkSize(final long chunkSize) {
+        checkArgument(chunkSize > 0, "Chunk size has to be positive.");
+        this.chunkSize = chunkSize;
+    }
+
     public List<GitCommit> parseEntries(final String path) throws IOException, ParseException {
+        final List<GitCommit> commits = new ArrayList<GitCommit>();
+        try {
+            parseEntries(path, new EntryListener<GitCommit>() {
+                @Override
+                public void entryParsed(final GitCommit commit) {
+                    commits.add(commit);
+                }
+            });
+        } catch (CanceledExecutionException e) {
+            // collecting the commits is never canceled
+            throw Throwables.propagate(e);
+        }
+        return commits;
+    }
+
+    /**
+     * Passes every commit to the listener as soon as its last line is read.
+     * Logs larger than two chunks are split at commit boundaries and the
+     * chunks are parsed in parallel.
+     */
+    public void parseEntries(final String path, final EntryListener<GitCommit> listener) throws IOException,
+            CanceledExecutionException {
         checkArgument(!isNullOrEmpty(path), "Path has to be set.");
-        return Files.readLines(new File(path), Charsets.UTF_8, new GitLineProcessor(parserOptions));
+        checkNotNull(listener, "Listener has to be set.");
+
+        File file = new File(path);
+        if (isRecordLog(file)) {
+            parseRecords(file, listener);
+            return;
+        }
+        List<Long> boundaries = threads > 1 ? findChunkBoundaries(file, false) : Collections.<Long> emptyList();
+        if (boundaries.size() > 2) {
+            parseChunks(file, boundaries, listener);
+        } else {
+            GitLineProcessor processor = new GitLineProcessor(parserOptions, listener, 0);
+            readLines(file, 0, Long.MAX_VALUE, processor);
+            processor.finish();
+        }
+    }
+
+    private void parseChunks(final File file, final List<Long> boundaries, final EntryListener<GitCommit> listener)
+            throws IOException, CanceledExecutionException {
+        int chunks = boundaries.size() - 1;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<ParsedChunk>> pending = new ArrayDeque<Future<ParsedChunk>>();
+        int submitted = 0;
+        GitLineProcessor carry = null;
+        try {
+            for (int merged = 0; merged < chunks; merged++) {
+                while (submitted < chunks && pending.size() < threads * PENDING_PER_THREAD) {
+                    pending.add(pool.submit(parseTask(file, boundaries.get(submitted), boundaries.get(submitted + 1))));
+                    submitted++;
+                }
+                ParsedChunk chunk = await(pending.poll());
+                if (carry == null) {
+                    if (chunk.failure != null) {
+                        throw chunk.failure;
+                    }
+                    for (GitCommit commit : chunk.commits) {
+                        listener.entryParsed(commit);
+                    }
+                    carry = chunk.processor;
+                    carry.setListener(listener);
+                } else {
+                    // the previous chunk ended inside a commit, so this one did
+                    // not start at a commit and is read again as its continuation
+                    readLines(file, boundaries.get(merged), boundaries.get(merged + 1), carry);
+                }
+                if (carry.isAtCommitBoundary()) {
+                    carry.finish();
+                    carry = null;
+                }
+            }
+            if (carry != null) {
+                carry.finish();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Callable<ParsedChunk> parseTask(final File file, final long start, final long end) {
+        return new Callable<ParsedChunk>() {
+            @Override
+            public ParsedChunk call() throws IOException, CanceledExecutionException {
+                final List<GitCommit> commits = new ArrayList<GitCommit>();
+                GitLineProcessor processor = new GitLineProcessor(parserOptions, new EntryListener<GitCommit>() {
+                    @Override
+                    public void entryParsed(final GitCommit commit) {
+                        commits.add(commit);
+                    }
+                }, start);
+                try {
+                    readLines(file, start, end, processor);
+                } catch (IllegalArgumentException e) {
+                    // the chunk may not start at a commit, which is known
+                    // only once the previous chunks are merged
+                    return new ParsedChunk(commits, processor, e);
+                }
+                return new ParsedChunk(commits, processor, null);
+            }
+        };
+    }
+
+    private static <T> T await(final Future<T> chunk) throws IOException, CanceledExecutionException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Interrupted while parsing git log.");
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            Throwables.propagateIfInstanceOf(e.getCause(), CanceledExecutionException.class);
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private static void readLines(final File file, final long start, final long end,
+            final GitLineProcessor processor) throws IOException, CanceledExecutionException {
+        InputStream in = new FileInputStream(file);
+        try {
+            ByteStreams.skipFully(in, start);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(ByteStreams.limit(in, end - start),
+                    Charsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                processor.processLine(line);
+            }
+        } finally {
+            Closeables.closeQuietly(in);
+        }
+    }
+
+    private static boolean isRecordLog(final File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return in.read() == RECORD_SEPARATOR;
+        } finally {
+            Closeables.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Records are split at their separators, so every chunk is parsed on its
+     * own and no chunk has to be read twice.
+     */
+    private void parseRecords(final File file, final EntryListener<GitCommit> listener) throws IOException,
+            CanceledExecutionException {
+        List<Long> boundaries = threads > 1 ? findChunkBoundaries(file, true) : Collections.<Long> emptyList();
+        if (boundaries.size() <= 2) {
+            readRecords(file, 0, Long.MAX_VALUE, new GitRecordProcessor(parserOptions, listener, 0));
+            return;
+        }
+        int chunks = boundaries.size() - 1;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<List<GitCommit>>> pending = new ArrayDeque<Future<List<GitCommit>>>();
+        int submitted = 0;
+        try {
+            for (int merged = 0; merged < chunks; merged++) {
+                while (submitted < chunks && pending.size() < threads * PENDING_PER_THREAD) {
+                    pending.add(pool.submit(recordTask(file, boundaries.get(submitted), boundaries.get(submitted + 1))));
+                    submitted++;
+                }
+                for (GitCommit commit : await(pending.poll())) {
+                    listener.entryParsed(commit);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Callable<List<GitCommit>> recordTask(final File file, final long start, final long end) {
+        return new Callable<List<GitCommit>>() {
+            @Override
+            public List<GitCommit> call() throws IOException, CanceledExecutionException {
+                final List<GitCommit> commits = new ArrayList<GitCommit>();
+                readRecords(file, start, end, new GitRecordProcessor(parserOptions, new EntryListener<GitCommit>() {
+                    @Override
+                    public void entryParsed(final GitCommit commit) {
+                        commits.add(commit);
+                    }
+                }, start));
+                return commits;
+            }
+        };
+    }
+
+    private static void readRecords(final File file, final long start, final long end,
+            final GitRecordProcessor processor) throws IOException, CanceledExecutionException {
+        InputStream in = new FileInputStream(file);
+        try {
+            ByteStreams.skipFully(in, start);
+            InputStream limited = ByteStreams.limit(in, end - start);
+            byte[] block = new byte[BLOCK_SIZE + RECORD_START_LENGTH];
+            ByteArrayOutputStream record = new ByteArrayOutputStream(BLOCK_SIZE);
+            int length = 0;
+            int read;
+            do {
+                read = limited.read(block, length, block.length - length);
+                length += Math.max(0, read);
+                // a start near the end of the block is checked once the bytes after it are read
+                int checked = read == -1 ? length : Math.max(0, length - RECORD_START_LENGTH);
+                int from = 0;
+                for (int i = 0; i < checked; i++) {
+                    if (isRecordStart(block, i, length)) {
+                        record.write(block, from, i - from);
+                        processor.processRecord(record);
+                        from = i + 1;
+                    }
+                }
+                record.write(block, from, checked - from);
+                System.arraycopy(block, checked, block, 0, length - checked);
+                length -= checked;
+            } while (read != -1);
+            processor.processRecord(record);
+        } finally {
+            Closeables.closeQuietly(in);
+        }
+    }
+
+    /**
+     * @param records
+     *            true if the chunks start at record separators, otherwise at
+     *            commit starts of the line log
+     * @return offsets of the chunks, starting with 0 and ending with the
+     *         file length, or an empty list if the log is too small to be
+     *         split
+     */
+    private List<Long> findChunkBoundaries(final File file, final boolean records) throws IOException {
+        long length = file.length();
+        if (length < 2 * chunkSize) {
+            return Collections.emptyList();
+        }
+        List<Long> boundaries = new ArrayList<Long>();
+        boundaries.add(0L);
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            long boundary = 0;
+            while (boundary >= 0) {
+                boundary = records ? findRecordStart(input, boundary + chunkSize) : findCommitStart(input, boundary
+                        + chunkSize);
+                if (boundary > 0) {
+                    boundaries.add(boundary);
+                }
+            }
+        } finally {
+            input.close();
+        }
+        boundaries.add(length);
+        return boundaries;
+    }
+
+    /**
+     * Looks for a hash line preceded by an empty line and followed by the
+     * commit time, the start of a commit as written by the expected git log
+     * format. A message may contain such lines as well, which is detected
+     * while merging the chunks.
+     *
+     * @return offset of the first commit start at or after the given one, or
+     *         -1 if there is none
+     */
+    private static long findCommitStart(final RandomAccessFile input, final long from) throws IOException {
+        byte[] block = new byte[BLOCK_SIZE + 2 * HASH_LENGTH];
+        // two bytes back, so that the empty line before the offset is seen
+        long position = Math.max(0, from - 2);
+        while (position < input.length()) {
+            input.seek(position);
+            int read = Math.max(0, input.read(block));
+            for (int i = 2; i < Math.min(read, BLOCK_SIZE + 2); i++) {
+                if (block[i - 1] == '\n' && block[i - 2] == '\n' && isCommitStart(block, i, read)) {
+                    return position + i;
+                }
+            }
+            position += BLOCK_SIZE;
+        }
+        return -1;
+    }
+
+    /**
+     * @return offset of the first record start at or after the given one, or
+     *         -1 if there is none
+     */
+    private static long findRecordStart(final RandomAccessFile input, final long from) throws IOException {
+        byte[] block = new byte[BLOCK_SIZE + RECORD_START_LENGTH];
+        long position = from;
+        while (position < input.length()) {
+            input.seek(position);
+            int read = Math.max(0, input.read(block));
+            for (int i = 0; i < Math.min(read, BLOCK_SIZE); i++) {
+                if (isRecordStart(block, i, read)) {
+                    return position + i;
+                }
+            }
+            position += BLOCK_SIZE;
+        }
+        return -1;
+    }
+
+    /**
+     * Messages and paths may contain the record separator, but never NUL, so
+     * only the start of a record has the separator followed by a hash and the
+     * commit time, both terminated by NUL.
+     */
+    private static boolean isRecordStart(final byte[] block, final int start, final int read) {
+        if (block[start] != RECORD_SEPARATOR) {
+            return false;
+        }
+        int i = start + 1;
+        for (; i < start + 1 + HASH_LENGTH; i++) {
+            if (i >= read || !isHex(block[i])) {
+                return false;
+            }
+        }
+        if (i >= read || block[i++] != 0) {
+            return false;
+        }
+        int digits = 0;
+        for (; i < read && block[i] >= '0' && block[i] <= '9'; i++) {
+            digits++;
+        }
+        return digits > 0 && digits <= MAX_TIME_DIGITS && i < read && block[i] == 0;
     }
 
-    static class GitLineProcessor implements LineProcessor<List<GitCommit>> {
+    private static boolean isCommitStart(final byte[] block, final int start, final int read) {
+        int i = start;
+        for (; i < start + HASH_LENGTH; i++) {
+            if (i >= read || !isHex(block[i])) {
+                return false;
+            }
+        }
+        if (i >= read || block[i++] != '\n') {
+            return false;
+        }
+        int digits = 0;
+        for (; i < read && block[i] >= '0' && block[i] <= '9'; i++) {
+            digits++;
+        }
+        return digits > 0 && i < read && block[i] == '\n';
+    }
+
+    private static boolean isHex(final byte b) {
+        return (b >= '0' && b <= '9') || (b >= 'a' && b <= 'f');
+    }
+
+    private static class ParsedChunk {
+        private final List<GitCommit> commits;
+        private final GitLineProcessor processor;
+        private final IllegalArgumentException failure;
+
+        ParsedChunk(final List<GitCommit> commits, final GitLineProcessor processor,
+                final IllegalArgumentException failure) {
+            this.commits = commits;
+            this.processor = processor;
+            this.failure = failure;
+        }
+    }
+
+    static class GitLineProcessor {
 
         private enum LEXER {
             HASH, DATE, AUTHOR, MSG, FILES
@@ -74,34 +488,58 @@ public class GitOfflineLogParser {
         private final static Pattern PATTERN = Pattern
                 .compile("^:\\d{6} \\d{6} [a-f0-9]{40} [a-f0-9]{40} (A|C|D|M|R|T)\t(.*)$");
 
-        final ImmutableList.Builder<GitCommit> builder = ImmutableList.builder();
-        private SCMParserOptions options;
+        private final GitFileCollector files;
+        private final long offset;
+        private EntryListener<GitCommit> listener;
         private GitCommit commit;
         private LEXER nextStep = LEXER.HASH;
         private long counter = 0;
 
-        public GitLineProcessor(final SCMParserOptions options) {
-            this.options = options;
+        public GitLineProcessor(final SCMParserOptions options, final EntryListener<GitCommit> listener,
+                final long offset) {
+            this.files = new GitFileCollector(options);
+            this.listener = listener;
+            this.offset = offset;
+        }
+
+        public void setListener(final EntryListener<GitCommit> listener) {
+            this.listener = listener;
         }
 
-        @Override
-        public List<GitCommit> getResult() {
-            return builder.build();
+        /**
+         * @return true if the last read line completed a commit, so the next
+         *         line has to be the hash of the following one
+         */
+        public boolean isAtCommitBoundary() {
+            return nextStep == LEXER.HASH;
         }
 
-        @Override
-        public boolean processLine(final String line) throws IOException {
+        /**
+         * Passes the last commit to the listener, no more lines are expected.
+         */
+        public void finish() throws CanceledExecutionException {
+            if (commit != null) {
+                listener.entryParsed(commit);
+                commit = null;
+            }
+        }
+
+        public void processLine(final String line) throws CanceledExecutionException {
             counter++;
             try {
                 processLinIntern(line);
-                return true;
+            } catch (CanceledExecutionException e) {
+                throw e;
             } catch (Exception e) {
                 String message = String.format("Unable to parse line: [%s], line number:[%s]", line, counter);
+                if (offset > 0) {
+                    message += String.format(" of the chunk starting at byte:[%s]", offset);
+                }
                 throw new IllegalArgumentException(message, e);
             }
         }
 
-        private void processLinIntern(final String line) {
+        private void processLinIntern(final String line) throws CanceledExecutionException {
             switch (nextStep) {
             case AUTHOR:
                 author(line);
@@ -121,7 +559,7 @@ public class GitOfflineLogParser {
             }
         }
 
-        private void files(final String line) {
+        private void files(final String line) throws CanceledExecutionException {
             if (Strings.isNullOrEmpty(line)) {
                 this.nextStep = LEXER.HASH;
             } else {
@@ -154,25 +592,164 @@ public class GitOfflineLogParser {
             this.nextStep = LEXER.AUTHOR;
         }
 
-        private void hash(final String line) {
+        private void hash(final String line) throws CanceledExecutionException {
+            finish();
             this.commit = new GitCommit();
             this.commit.setId(line);
-            this.builder.add(commit);
             this.nextStep = LEXER.DATE;
         }
 
         private void parsePath(final Matcher matcher) {
-            String operationCode = matcher.group(1);
-            String origin = matcher.group(2);
+            files.add(commit, matcher.group(1).charAt(0), matcher.group(2), null, null);
+        }
+    }
+
+    /**
+     * Parses the commits of the NUL delimited log. Every record holds one
+     * commit, its fields and paths are terminated by NUL, so neither the
+     * message nor the paths are interpreted.
+     */
+    static class GitRecordProcessor {
+        private static final String FIELD_SEPARATOR = "\0";
+        private static final int DIFF_FIELD = 4;
+        private static final int SHOWN_RECORD_LENGTH = 100;
+
+        private final GitFileCollector files;
+        private final EntryListener<GitCommit> listener;
+        private final long offset;
+        private long counter = 0;
+
+        public GitRecordProcessor(final SCMParserOptions options, final EntryListener<GitCommit> listener,
+                final long offset) {
+            this.files = new GitFileCollector(options);
+            this.listener = listener;
+            this.offset = offset;
+        }
+
+        /**
+         * Parses the record and empties the buffer, an empty buffer is
+         * skipped.
+         */
+        public void processRecord(final ByteArrayOutputStream buffer) throws CanceledExecutionException {
+            if (buffer.size() == 0) {
+                return;
+            }
+            String record = new String(buffer.toByteArray(), Charsets.UTF_8);
+            buffer.reset();
+            processRecord(record);
+        }
+
+        public void processRecord(final String record) throws CanceledExecutionException {
+            counter++;
+            GitCommit commit;
+            try {
+                commit = parseRecord(record);
+            } catch (Exception e) {
+                String message = String.format("Unable to parse record: [%s], record number:[%s]",
+                        record.substring(0, Math.min(record.length(), SHOWN_RECORD_LENGTH)), counter);
+                if (offset > 0) {
+                    message += String.format(" of the chunk starting at byte:[%s]", offset);
+                }
+                throw new IllegalArgumentException(message, e);
+            }
+            listener.entryParsed(commit);
+        }
+
+        private GitCommit parseRecord(final String record) {
+            String[] fields = record.split(FIELD_SEPARATOR, -1);
+            checkArgument(fields.length >= DIFF_FIELD, "Commit has to have an id, date, author and message.");
+            GitCommit commit = new GitCommit();
+            commit.setId(fields[0]);
+            commit.setDate(new Date(Long.parseLong(fields[1]) * 1000));
+            commit.setAuthor(fields[2]);
+            for (String line : fields[3].split("\r\n|\r|\n")) {
+                if (!line.isEmpty()) {
+                    commit.addToMessage(line);
+                }
+            }
+
+            List<Character> operations = new ArrayList<Character>();
+            List<String> paths = new ArrayList<String>();
+            Map<String, Integer> added = new LinkedHashMap<String, Integer>();
+            Map<String, Integer> deleted = new HashMap<String, Integer>();
+            int i = DIFF_FIELD;
+            while (i < fields.length) {
+                // the diff is separated from the message by a new line
+                String field = i == DIFF_FIELD && fields[i].startsWith("\n") ? fields[i].substring(1) : fields[i];
+                if (field.isEmpty()) {
+                    i++;
+                } else if (field.charAt(0) == ':') {
+                    char operation = field.charAt(field.lastIndexOf(' ') + 1);
+                    operations.add(operation);
+                    if (operation == 'R' || operation == 'C') {
+                        // the source path is followed by the destination path
+                        paths.add(fields[i + 2]);
+                        i += 3;
+                    } else {
+                        paths.add(fields[i + 1]);
+                        i += 2;
+                    }
+                } else {
+                    int firstTab = field.indexOf('\t');
+                    int secondTab = field.indexOf('\t', firstTab + 1);
+                    String path = field.substring(secondTab + 1);
+                    if (path.isEmpty()) {
+                        // renames and copies are followed by both paths
+                        path = fields[i + 2];
+                        i += 3;
+                    } else {
+                        i++;
+                    }
+                    added.put(path, lines(field.substring(0, firstTab)));
+                    deleted.put(path, lines(field.substring(firstTab + 1, secondTab)));
+                }
+            }
+
+            for (int file = 0; file < paths.size(); file++) {
+                String path = paths.get(file);
+                files.add(commit, operations.get(file), path, added.remove(path), deleted.get(path));
+            }
+            // counted without --raw, the operation is unknown
+            for (Map.Entry<String, Integer> file : added.entrySet()) {
+                files.add(commit, 'X', file.getKey(), file.getValue(), deleted.get(file.getKey()));
+            }
+            return commit;
+        }
+
+        /**
+         * @return number of lines, null for binary files counted as "-"
+         */
+        private static Integer lines(final String count) {
+            return count.equals("-") ? null : Integer.valueOf(count);
+        }
+    }
+
+    /**
+     * Adds the changed files accepted by the extensions and the package of
+     * the options to the commit, the same way for both log formats.
+     */
+    static class GitFileCollector {
+        private final SCMParserOptions options;
+        private final SCMExtensionsFilter extensions;
+
+        GitFileCollector(final SCMParserOptions options) {
+            this.options = options;
+            this.extensions = SCMExtensionsFilter.create(options.getExtensionsNamesToFilter());
+        }
+
+        void add(final GitCommit commit, final char operationCode, final String origin, final Integer linesAdded,
+                final Integer linesDeleted) {
             String transformed = origin.replaceAll("/", ".");
             
             String parseJavaClass = "";
-            if (SCMExtensionsParser.extensionFits(transformed, options.getExtensionsNamesToFilter())) {
+            if (extensions.fits(transformed)) {
                 GitCommitFile gitFile = new GitCommitFile();
-                gitFile.setRawOperation(operationCode.charAt(0));
+                gitFile.setRawOperation(operationCode);
                 gitFile.setPath(origin);
                 gitFile.setExtension(FilenameUtils.getExtension(transformed));
                 gitFile.setJavaClass(parseJavaClass);
+                gitFile.setLinesAdded(linesAdded);
+                gitFile.setLinesDeleted(linesDeleted);
                 if (transformed.endsWith(".java")) {
                     if (packagePrefixValidate(transformed)) {
                         gitFile.setJavaClass(parseJavaClass(transformed));
@@ -20,7 +20,9 @@ package org.impressivecode.depress.scm.git;
 import javax.swing.JFileChooser;
 
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
 import org.knime.core.node.defaultnodesettings.DialogComponentFileChooser;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
 import org.knime.core.node.defaultnodesettings.DialogComponentString;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
@@ -51,5 +53,13 @@ public class GitOnlineAdapterExtendedNodeDialog extends DefaultNodeSettingsPane
         createNewGroup("Revision range");
         addDialogComponent(new DialogComponentString(bottomCommit, "From commit:", false, 35));
         addDialogComponent(new DialogComponentString(topCommit, "To commit:", false, 35));
+
+        createNewGroup("Distiller cache");
+        addDialogComponent(new DialogComponentBoolean(GitOnlineAdapterExtendedNodeModel.createSettingsCache(),
+                "Reuse changes distilled in earlier executions"));
+        addDialogComponent(new DialogComponentString(GitOnlineAdapterExtendedNodeModel.createSettingsCacheDirectory(),
+                "Cache directory (empty = ~/.depress/distiller-cache):", false, 35));
+        addDialogComponent(new DialogComponentNumber(GitOnlineAdapterExtendedNodeModel.createSettingsCacheSize(),
+                "Cache size (MB):", 64));
     }
 }
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.impressivecode.depress.scm.git.ast.AstLogParser;
+import org.impressivecode.depress.scm.git.ast.DistillerCache;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
@@ -35,10 +36,13 @@ import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 
 /**
  * @author Mateusz Kutyba, Wroclaw University of Technology
@@ -52,12 +56,23 @@ public class GitOnlineAdapterExtendedNodeModel extends NodeModel {
     static final String GIT_PACKAGENAME = "package";
     static final String DEFAULT_GIT_PACKAGENAME = "org.";
     static final String DEFAULT_VALUE = "";
+    static final String CACHE = "cache";
+    static final String CACHE_DIRECTORY = "cache directory";
+    static final String CACHE_SIZE = "cache size";
+    static final boolean DEFAULT_CACHE = false;
+    /**
+     * Megabytes kept in the cache of distilled revision pairs.
+     */
+    static final int DEFAULT_CACHE_SIZE = 512;
 
     private final SettingsModelString gitRepositoryAddress = new SettingsModelString(GIT_REPOSITORY_ADDRESS,
             DEFAULT_VALUE);
     private final SettingsModelString gitPackageName = new SettingsModelString(GIT_PACKAGENAME, DEFAULT_GIT_PACKAGENAME);
     private final SettingsModelString bottomCommit = new SettingsModelString(BOTTOM_COMMIT, DEFAULT_VALUE);
     private final SettingsModelString topCommit = new SettingsModelString(TOP_COMMIT, DEFAULT_VALUE);
+    private final SettingsModelBoolean cache = createSettingsCache();
+    private final SettingsModelString cacheDirectory = createSettingsCacheDirectory();
+    private final SettingsModelIntegerBounded cacheSize = createSettingsCacheSize();
 
     protected GitOnlineAdapterExtendedNodeModel() {
         super(0, 1);
@@ -66,14 +81,22 @@ public class GitOnlineAdapterExtendedNodeModel extends NodeModel {
     @Override
     protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
             throws Exception {
-        String gitPath = getGitPath(gitRepositoryAddress.getStringValue());
+        if (!new File(gitRepositoryAddress.getStringValue()).exists()) {
+            throw new IOException("Specified directory does not exist");
+        }
+        String gitPath = GitOnlineLogParser.getGitPath(gitRepositoryAddress.getStringValue());
 
         logger.info("Reading from repository " + gitPath);
         AstLogParser parser = new AstLogParser(gitPath, gitPackageName.getStringValue(), exec);
+        if (cache.getBooleanValue()) {
+            parser.setCache(openCache());
+        }
 
         Map<String, GitOnlineAdapterExtendedEntry> histories = parser.getHistory(bottomCommit.getStringValue(),
                 topCommit.getStringValue());
-        logger.info("Reading history finished.");
+        logger.info("Reading history finished, not distilled: " + parser.getIdenticalPairs()
+                + " identical revision pairs, " + parser.getFormattingPairs() + " formatting only revision pairs, "
+                + parser.getFailedPairs() + " failed revision pairs.");
 
         GitOnlineAdapterExtendedTransformer astMetricsTransformer = new GitOnlineAdapterExtendedTransformer(exec, createDataColumnSpec());
         List<GitOnlineAdapterExtendedEntry> historyList = astMetricsTransformer.getHistoryEntriesFromMap(histories);
@@ -100,6 +123,9 @@ public class GitOnlineAdapterExtendedNodeModel extends NodeModel {
         topCommit.saveSettingsTo(settings);
         gitRepositoryAddress.saveSettingsTo(settings);
         gitPackageName.saveSettingsTo(settings);
+        cache.saveSettingsTo(settings);
+        cacheDirectory.saveSettingsTo(settings);
+        cacheSize.saveSettingsTo(settings);
     }
 
     @Override
@@ -108,6 +134,14 @@ public class GitOnlineAdapterExtendedNodeModel extends NodeModel {
         topCommit.loadSettingsFrom(settings);
         gitRepositoryAddress.loadSettingsFrom(settings);
         gitPackageName.loadSettingsFrom(settings);
+        if (settings.containsKey(CACHE)) {
+            cache.loadSettingsFrom(settings);
+            cacheDirectory.loadSettingsFrom(settings);
+            cacheSize.loadSettingsFrom(settings);
+        } else {
+            // settings saved before the cache was introduced do not use it
+            cache.setBooleanValue(DEFAULT_CACHE);
+        }
     }
 
     @Override
@@ -116,6 +150,11 @@ public class GitOnlineAdapterExtendedNodeModel extends NodeModel {
         topCommit.validateSettings(settings);
         gitRepositoryAddress.validateSettings(settings);
         gitPackageName.validateSettings(settings);
+        if (settings.containsKey(CACHE)) {
+            cache.validateSettings(settings);
+            cacheDirectory.validateSettings(settings);
+            cacheSize.validateSettings(settings);
+        }
     }
 
     @Override
@@ -128,15 +167,23 @@ public class GitOnlineAdapterExtendedNodeModel extends NodeModel {
             CanceledExecutionException {
     }
 
-    public static String getGitPath(final String repositoryPath) throws IOException {
-        File repoFile = new File(repositoryPath);
-        if (!repoFile.exists()) {
-            throw new IOException("Specified directory does not exist");
-        }
-        if (!repoFile.getName().equals(".git")) {
-            return repoFile.getAbsolutePath() + File.separatorChar + ".git";
-        }
-        return repoFile.getAbsolutePath();
+    private DistillerCache openCache() throws IOException {
+        String directory = cacheDirectory.getStringValue();
+        File cacheFile = Strings.isNullOrEmpty(directory) ? DistillerCache.defaultDirectory() : new File(directory);
+        logger.info("Using distiller cache " + cacheFile);
+        return new DistillerCache(cacheFile, cacheSize.getIntValue() * 1024L * 1024L);
+    }
+
+    static SettingsModelBoolean createSettingsCache() {
+        return new SettingsModelBoolean(CACHE, DEFAULT_CACHE);
+    }
+
+    static SettingsModelString createSettingsCacheDirectory() {
+        return new SettingsModelString(CACHE_DIRECTORY, DEFAULT_VALUE);
+    }
+
+    static SettingsModelIntegerBounded createSettingsCacheSize() {
+        return new SettingsModelIntegerBounded(CACHE_SIZE, DEFAULT_CACHE_SIZE, 1, Integer.MAX_VALUE);
     }
 
 }
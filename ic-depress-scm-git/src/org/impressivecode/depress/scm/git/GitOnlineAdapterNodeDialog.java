@@ -31,11 +31,14 @@ import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.errors.NoWorkTreeException;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
 import org.knime.core.node.defaultnodesettings.DialogComponentButton;
 import org.knime.core.node.defaultnodesettings.DialogComponentFileChooser;
 import org.knime.core.node.defaultnodesettings.DialogComponentLabel;
+import org.knime.core.node.defaultnodesettings.DialogComponentMultiLineString;
 import org.knime.core.node.defaultnodesettings.DialogComponentString;
 import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
 /**
@@ -52,6 +55,10 @@ public class GitOnlineAdapterNodeDialog extends DefaultNodeSettingsPane {
             GitOnlineAdapterNodeModel.GIT_REPOSITORY_DEFAULT);
     private final SettingsModelString remoteRepo = new SettingsModelString(GitOnlineAdapterNodeModel.GIT_REMOTE_REPOSITORY_ADDRESS,
             GitOnlineAdapterNodeModel.GIT_REMOTE_REPOSITORY_DEFAULT);
+    private final SettingsModelBoolean cloneBare = new SettingsModelBoolean(GitOnlineAdapterNodeModel.GIT_CLONE_BARE,
+            GitOnlineAdapterNodeModel.GIT_CLONE_BARE_DEFAULT);
+    private final SettingsModelString cloneBranch = new SettingsModelString(GitOnlineAdapterNodeModel.GIT_CLONE_BRANCH,
+            GitOnlineAdapterNodeModel.GIT_CLONE_BRANCH_DEFAULT);
     private final List<String> branchList = new ArrayList<String>();
     private final String initialProgressInfo = "Cloning progress: not running";
     final DialogComponentLabel progressInfoLabel = new DialogComponentLabel(initialProgressInfo);
@@ -118,6 +125,8 @@ public class GitOnlineAdapterNodeDialog extends DefaultNodeSettingsPane {
         setHorizontalPlacement(true);
         addDialogComponent(remoteRepoAddress);
         addDialogComponent(cloneButton);
+        addDialogComponent(new DialogComponentBoolean(cloneBare, "Bare clone (no working tree)"));
+        addDialogComponent(new DialogComponentString(cloneBranch, "Clone only branch: "));
         setHorizontalPlacement(false);
         addDialogComponent(progressInfoLabel);
         addDialogComponent(comp);
@@ -125,11 +134,19 @@ public class GitOnlineAdapterNodeDialog extends DefaultNodeSettingsPane {
         addDialogComponent(comboBox);
         addDialogComponent(button);
         setHorizontalPlacement(false);
+        addDialogComponent(new DialogComponentMultiLineString(GitOnlineAdapterNodeModel.createSettingsRepositories(),
+                "More repositories (paths or remote addresses, one per line): "));
 
         createNewGroup("Other settings");
 
         addDialogComponent(new DialogComponentString(new SettingsModelString(GitOnlineAdapterNodeModel.GIT_PACKAGENAME,
                 GitOnlineAdapterNodeModel.GIT_PACKAGENAME_DEFAULT), "Package: "));
+        addDialogComponent(new DialogComponentString(GitOnlineAdapterNodeModel.createSettingsExtensions(),
+                "Extension pattern: (* = any extension, split many extensions by comma)", false, 30));
+        addDialogComponent(new DialogComponentBoolean(GitOnlineAdapterNodeModel.createSettingsChurn(),
+                "Count added and deleted lines"));
+        addDialogComponent(new DialogComponentBoolean(GitOnlineAdapterNodeModel.createSettingsIncremental(),
+                "Import only commits added since the last execution"));
     }
 
 
@@ -145,13 +162,17 @@ public class GitOnlineAdapterNodeDialog extends DefaultNodeSettingsPane {
                 } else {
                     if (localRepo.list().length > 0){
                         gitPath = gitPath+File.separatorChar+this.getLocalPathName(gitRemote);
+                        if (cloneBare.getBooleanValue()) {
+                            gitPath = gitPath + ".git";
+                        }
                         localRepo = new File(gitPath);
                         repoPath.setStringValue(gitPath);
                     }
                     //NodeLoggerProgressMonitor monitor = new NodeLoggerProgressMonitor(logger);
                     LabelProgressMonitor monitor = new LabelProgressMonitor(progressInfoLabel, "Cloning progress: ");
                     progressInfoLabel.setText("Clonning progress: starting");
-                    GitOnlineLogParser.cloneRepository(gitRemote, gitPath, monitor);
+                    GitOnlineLogParser.cloneRepository(gitRemote, gitPath,
+                            GitCloneOptions.options(cloneBare.getBooleanValue(), cloneBranch.getStringValue()), monitor);
                     return true;
                 }
             } else {
@@ -166,7 +187,7 @@ public class GitOnlineAdapterNodeDialog extends DefaultNodeSettingsPane {
 
     private void getBranchesList(){
         try {
-            String gitPath = GitOnlineAdapterNodeModel.getGitPath(repoPath.getStringValue());
+            String gitPath = GitOnlineLogParser.getGitPath(repoPath.getStringValue());
             comboBox.replaceListItems(GitOnlineLogParser.getBranches(gitPath), GitOnlineLogParser.getCurrentBranch(gitPath));
             if (!branch.isEnabled()) {
                 branch.setEnabled(true);
@@ -17,16 +17,21 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
 package org.impressivecode.depress.scm.git;
 
-import static org.impressivecode.depress.scm.SCMAdapterTableFactory.createDataColumnSpec;
 import static org.impressivecode.depress.scm.git.GitParserOptions.options;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
-import org.impressivecode.depress.common.OutputTransformer;
+import org.eclipse.jgit.api.errors.NoHeadException;
+import org.impressivecode.depress.common.EntryListener;
+import org.impressivecode.depress.common.OutputSink;
 import org.impressivecode.depress.scm.SCMAdapterTransformer;
 import org.impressivecode.depress.scm.SCMDataType;
+import org.impressivecode.depress.scm.SCMExtensionsParser;
+import org.impressivecode.depress.scm.git.GitOnlineBatchParser.RepositoryLog;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.node.BufferedDataTable;
 import org.knime.core.node.CanceledExecutionException;
@@ -37,10 +42,12 @@ import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
 import org.knime.core.node.defaultnodesettings.SettingsModelOptionalString;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 
 /**
@@ -54,14 +61,26 @@ public class GitOnlineAdapterNodeModel extends NodeModel {
 
     static final String GIT_REPOSITORY_ADDRESS = "filename";
     static final String GIT_REMOTE_REPOSITORY_ADDRESS = "remote address";
+    static final String GIT_CLONE_BARE = "clone bare";
+    static final String GIT_CLONE_BRANCH = "clone branch";
     static final String GIT_PACKAGENAME = "package";
     static final String GIT_BRANCH = "branch";
+    static final String GIT_INCREMENTAL = "incremental";
+    static final String GIT_EXTENSION = "extension";
+    static final String GIT_CHURN = "churn";
+    static final String GIT_REPOSITORIES = "repositories";
     
     static final String GIT_REPOSITORY_DEFAULT = "";
     static final String GIT_REMOTE_REPOSITORY_DEFAULT = "";
+    static final boolean GIT_CLONE_BARE_DEFAULT = false;
+    static final String GIT_CLONE_BRANCH_DEFAULT = "";
     static final String GIT_BRANCH_DEFAULT = "";
     static final String GIT_PACKAGENAME_DEFAULT = "";
     static final Boolean GIT_PACKAGENAME_ACTIVE_STATE = false;
+    static final boolean GIT_INCREMENTAL_DEFAULT = false;
+    static final String GIT_EXTENSION_DEFAULT = "*";
+    static final boolean GIT_CHURN_DEFAULT = false;
+    static final String GIT_REPOSITORIES_DEFAULT = "";
 
     // example value: the models count variable filled from the dialog
     // and used in the models execution method. The default components of the
@@ -72,6 +91,16 @@ public class GitOnlineAdapterNodeModel extends NodeModel {
             GitOnlineAdapterNodeModel.GIT_BRANCH_DEFAULT, true);
     private final SettingsModelOptionalString gitPackageName = new SettingsModelOptionalString(
             GitOnlineAdapterNodeModel.GIT_PACKAGENAME, GitOnlineAdapterNodeModel.GIT_PACKAGENAME_DEFAULT, true);
+    private final SettingsModelBoolean gitIncremental = createSettingsIncremental();
+    private final SettingsModelString gitExtensions = createSettingsExtensions();
+    private final SettingsModelBoolean gitChurn = createSettingsChurn();
+    private final SettingsModelString gitRepositories = createSettingsRepositories();
+
+    /**
+     * Survives reset, so the next execution only imports the commits added
+     * since this one.
+     */
+    private GitOnlineSnapshot snapshot;
 
     protected GitOnlineAdapterNodeModel() {
         super(0, 1);
@@ -81,29 +110,151 @@ public class GitOnlineAdapterNodeModel extends NodeModel {
     protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
             throws Exception {
 
-        String gitPath = getGitPath(this.gitRepositoryAddress.getStringValue());
+        GitParserOptions options = options(gitPackageName.getStringValue(),
+                SCMExtensionsParser.parseExtensions(gitExtensions.getStringValue()), gitBranch.getStringValue());
+        if (isBatch()) {
+            return executeBatch(options, exec);
+        }
+
+        String gitPath = GitOnlineLogParser.getGitPath(this.gitRepositoryAddress.getStringValue());
 
         logger.info("Reading logs from repository " + gitPath);
         GitOnlineLogParser parser = new GitOnlineLogParser();
-        
-        List<GitCommit> commits = parser.parseEntries(gitPath,
-                options(gitPackageName.getStringValue(), gitBranch.getStringValue()));
+        String query = createQuery(gitPath);
+        String tip = GitOnlineLogParser.getTip(gitPath, options);
+
+        BufferedDataTable previous = null;
+        Collection<String> processed = Collections.emptySet();
+        if (isIncrementalUpdate(gitPath, query, tip)) {
+            logger.info("Reading commits added since " + snapshot.getTip());
+            previous = snapshot.readRows(exec);
+            processed = Collections.singleton(snapshot.getTip());
+        }
+
+        parser.setCountLines(gitChurn.getBooleanValue());
+        DataTableSpec spec = GitAdapterTableFactory.createTableSpec(gitChurn.getBooleanValue())[0];
+        final OutputSink<SCMDataType> sink = new SCMAdapterTransformer(spec).open(exec,
+                previous == null ? 0 : previous.getRowCount());
+        parser.parseEntries(gitPath, options, tip, processed, new EntryListener<GitCommit>() {
+            @Override
+            public void entryParsed(final GitCommit commit) throws CanceledExecutionException {
+                transform(commit, null, sink);
+            }
+        });
 
-        BufferedDataTable out = transform(commits, exec);
+        BufferedDataTable out = sink.close();
+        if (previous != null) {
+            out = exec.createConcatenateTable(exec, previous, out);
+        }
+        updateSnapshot(query, tip, out, exec);
         logger.info("Reading git logs finished.");
 
         return new BufferedDataTable[] { out };
     }
 
+    /**
+     * Imports the repository address and every listed repository in one
+     * table, with the repository of every row. Repositories are read
+     * concurrently, always fully, as the snapshot of an incremental import
+     * covers a single repository.
+     */
+    private BufferedDataTable[] executeBatch(final GitParserOptions options, final ExecutionContext exec)
+            throws Exception {
+        final List<String> repositories = getRepositories();
+        logger.info("Reading logs from " + repositories.size() + " repositories");
+        GitOnlineBatchParser parser = new GitOnlineBatchParser();
+        parser.setCountLines(gitChurn.getBooleanValue());
+        DataTableSpec spec = GitAdapterTableFactory.createTableSpec(gitChurn.getBooleanValue(), true)[0];
+        final OutputSink<SCMDataType> sink = new SCMAdapterTransformer(spec).open(exec);
+        parser.parseEntries(repositories, options, exec, new EntryListener<RepositoryLog>() {
+            private int read = 0;
+
+            @Override
+            public void entryParsed(final RepositoryLog log) throws CanceledExecutionException {
+                for (GitCommit commit : log.getCommits()) {
+                    transform(commit, log.getRepository(), sink);
+                }
+                exec.setProgress(++read / (double) repositories.size(), "Read repository " + log.getRepository());
+            }
+        });
+
+        BufferedDataTable out = sink.close();
+        if (snapshot != null) {
+            snapshot.delete();
+            snapshot = null;
+        }
+        logger.info("Reading git logs finished.");
+
+        return new BufferedDataTable[] { out };
+    }
+
+    private boolean isBatch() {
+        return !parseRepositories(gitRepositories.getStringValue()).isEmpty();
+    }
+
+    /**
+     * @return the repository address, if set, followed by the listed
+     *         repositories
+     */
+    private List<String> getRepositories() {
+        List<String> repositories = Lists.newArrayList();
+        if (!gitRepositoryAddress.getStringValue().trim().isEmpty()) {
+            repositories.add(gitRepositoryAddress.getStringValue().trim());
+        }
+        repositories.addAll(parseRepositories(gitRepositories.getStringValue()));
+        return repositories;
+    }
+
+    /**
+     * @return paths or remote addresses, one per line
+     */
+    static List<String> parseRepositories(final String repositories) {
+        return Lists.newArrayList(Splitter.onPattern("\\r?\\n").trimResults().omitEmptyStrings()
+                .split(repositories));
+    }
+
+    private boolean isIncrementalUpdate(final String gitPath, final String query, final String tip)
+            throws IOException, NoHeadException {
+        return gitIncremental.getBooleanValue() && snapshot != null && query.equals(snapshot.getQuery())
+                && GitOnlineLogParser.isAncestor(gitPath, snapshot.getTip(), tip);
+    }
+
+    /**
+     * Identifies what the snapshot was imported from. The package, the
+     * extensions and the churn columns are part of it, as the rows depend on
+     * them.
+     */
+    private String createQuery(final String gitPath) {
+        return gitPath + " " + GIT_BRANCH + "=" + gitBranch.getStringValue() + " " + GIT_PACKAGENAME + "="
+                + gitPackageName.getStringValue() + " " + GIT_EXTENSION + "=" + gitExtensions.getStringValue() + " "
+                + GIT_CHURN + "=" + gitChurn.getBooleanValue();
+    }
+
+    private void updateSnapshot(final String query, final String tip, final BufferedDataTable out,
+            final ExecutionContext exec) throws IOException, CanceledExecutionException {
+        GitOnlineSnapshot previous = snapshot;
+        snapshot = gitIncremental.getBooleanValue() ? GitOnlineSnapshot.create(query, tip, out, exec) : null;
+        if (previous != null) {
+            previous.delete();
+        }
+    }
+
     @Override
     protected void reset() {
         // NOOP
     }
 
+    @Override
+    protected void onDispose() {
+        if (snapshot != null) {
+            snapshot.delete();
+        }
+    }
+
     @Override
     protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
         Preconditions.checkArgument(inSpecs.length == 0);
-        return GitAdapterTableFactory.createTableSpec();
+        return GitAdapterTableFactory.createTableSpec(gitChurn.getBooleanValue(), isBatch());
     }
 
     @Override
@@ -111,6 +262,10 @@ public class GitOnlineAdapterNodeModel extends NodeModel {
         gitRepositoryAddress.saveSettingsTo(settings);
         gitBranch.saveSettingsTo(settings);
         gitPackageName.saveSettingsTo(settings);
+        gitIncremental.saveSettingsTo(settings);
+        gitExtensions.saveSettingsTo(settings);
+        gitChurn.saveSettingsTo(settings);
+        gitRepositories.saveSettingsTo(settings);
     }
 
     @Override
@@ -118,6 +273,18 @@ public class GitOnlineAdapterNodeModel extends NodeModel {
         gitRepositoryAddress.loadSettingsFrom(settings);
         gitBranch.loadSettingsFrom(settings);
         gitPackageName.loadSettingsFrom(settings);
+        if (settings.containsKey(GIT_INCREMENTAL)) {
+            gitIncremental.loadSettingsFrom(settings);
+        }
+        if (settings.containsKey(GIT_EXTENSION)) {
+            gitExtensions.loadSettingsFrom(settings);
+        }
+        if (settings.containsKey(GIT_CHURN)) {
+            gitChurn.loadSettingsFrom(settings);
+        }
+        if (settings.containsKey(GIT_REPOSITORIES)) {
+            gitRepositories.loadSettingsFrom(settings);
+        }
     }
 
     @Override
@@ -125,34 +292,58 @@ public class GitOnlineAdapterNodeModel extends NodeModel {
         gitRepositoryAddress.validateSettings(settings);
         gitBranch.loadSettingsFrom(settings);
         gitPackageName.validateSettings(settings);
+        if (settings.containsKey(GIT_INCREMENTAL)) {
+            gitIncremental.validateSettings(settings);
+        }
+        if (settings.containsKey(GIT_EXTENSION)) {
+            gitExtensions.validateSettings(settings);
+        }
+        if (settings.containsKey(GIT_CHURN)) {
+            gitChurn.validateSettings(settings);
+        }
+        if (settings.containsKey(GIT_REPOSITORIES)) {
+            gitRepositories.validateSettings(settings);
+        }
     }
 
     @Override
     protected void loadInternals(final File internDir, final ExecutionMonitor exec) throws IOException,
     CanceledExecutionException {
-        // NOOP
+        snapshot = GitOnlineSnapshot.load(internDir);
     }
 
     @Override
     protected void saveInternals(final File internDir, final ExecutionMonitor exec) throws IOException,
     CanceledExecutionException {
-        // NOOP
+        if (snapshot != null) {
+            snapshot.save(internDir);
+        }
+    }
+
+    static SettingsModelBoolean createSettingsIncremental() {
+        return new SettingsModelBoolean(GIT_INCREMENTAL, GIT_INCREMENTAL_DEFAULT);
+    }
+
+    static SettingsModelString createSettingsExtensions() {
+        return new SettingsModelString(GIT_EXTENSION, GIT_EXTENSION_DEFAULT);
+    }
+
+    static SettingsModelBoolean createSettingsChurn() {
+        return new SettingsModelBoolean(GIT_CHURN, GIT_CHURN_DEFAULT);
     }
 
-    private BufferedDataTable transform(final List<GitCommit> commits, final ExecutionContext exec)
+    static SettingsModelString createSettingsRepositories() {
+        return new SettingsModelString(GIT_REPOSITORIES, GIT_REPOSITORIES_DEFAULT);
+    }
+
+    private void transform(final GitCommit commit, final String repository, final OutputSink<SCMDataType> sink)
             throws CanceledExecutionException {
-        List<SCMDataType> data = Lists.newLinkedList();
-        for (GitCommit commit : commits) {
-            for (GitCommitFile file : commit.getFiles()) {
-                progress(exec);
-                data.add(scm(commit, file));
-            }
+        for (GitCommitFile file : commit.getFiles()) {
+            sink.entryParsed(scm(commit, file, repository));
         }
-        OutputTransformer<SCMDataType> transformer = new SCMAdapterTransformer(createDataColumnSpec());
-        return transformer.transform(data, exec);
     }
 
-    private SCMDataType scm(final GitCommit commit, final GitCommitFile file) {
+    private SCMDataType scm(final GitCommit commit, final GitCommitFile file, final String repository) {
         SCMDataType scm = new SCMDataType();
         scm.setAuthor(commit.getAuthor());
         scm.setCommitDate(commit.getDate());
@@ -161,19 +352,10 @@ public class GitOnlineAdapterNodeModel extends NodeModel {
         scm.setOperation(file.getOperation());
         scm.setPath(file.getPath());
         scm.setExtension(file.getExtension());
+        scm.setLinesAdded(file.getLinesAdded());
+        scm.setLinesDeleted(file.getLinesDeleted());
         scm.setResourceName(file.getJavaClass());
+        scm.setRepository(repository);
         return scm;
     }
-
-    private void progress(final ExecutionContext exec) throws CanceledExecutionException {
-        exec.checkCanceled();
-    }
-
-    public static String getGitPath(final String repositoryPath) {
-        File repoFile = new File(repositoryPath);
-        if (!repoFile.getName().equals(".git")) {
-            return repoFile.getAbsolutePath() + File.separatorChar + ".git";
-        }
-        return repoFile.getAbsolutePath();
-    }
 }
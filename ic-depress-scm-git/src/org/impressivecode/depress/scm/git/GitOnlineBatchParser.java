@@ -0,0 +1,271 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.TransportException;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.storage.file.WindowCache;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.impressivecode.depress.common.EntryListener;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.Files;
+
+/**
+ * Reads the logs of many repositories on a bounded pool, one repository per
+ * worker. Logs are passed to the listener in the order of the repositories,
+ * at most a few finished logs wait for an older repository. Remote
+ * repositories are cloned bare into a temporary directory, which is deleted
+ * once their log is read. A repository without the selected branch is read
+ * from its HEAD instead.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class GitOnlineBatchParser {
+    private static final NodeLogger logger = NodeLogger.getLogger(GitOnlineBatchParser.class);
+
+    /**
+     * Number of finished logs kept per worker while waiting for an older
+     * repository.
+     */
+    private static final int PENDING_PER_THREAD = 2;
+    private static final int OPEN_FILES_PER_REPOSITORY = 32;
+    private static final long PACKED_GIT_LIMIT_PER_REPOSITORY = 8 * WindowCacheConfig.MB;
+    private static final long CANCEL_POLL_MILLIS = 200;
+    private static final long RELEASE_TIMEOUT_SECONDS = 10;
+    private static final Pattern SCP_ADDRESS = Pattern.compile("[^/\\\\]+@[^/\\\\]+:.*");
+
+    /**
+     * Number of repositories read at a time the window cache was last
+     * configured for.
+     */
+    private static int cachedRepositories = 0;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean countLines = false;
+
+    /**
+     * Sets the number of threads, shared between the repositories read at a
+     * time and the diffing of their commits.
+     */
+    public void setThreads(final int threads) {
+        checkArgument(threads > 0, "Number of threads has to be positive.");
+        this.threads = threads;
+    }
+
+    public void setCountLines(final boolean countLines) {
+        this.countLines = countLines;
+    }
+
+    public void parseEntries(final List<String> repositories, final GitParserOptions gitParserOptions,
+            final ExecutionMonitor exec, final EntryListener<RepositoryLog> listener) throws IOException,
+            GitAPIException, CanceledExecutionException {
+        checkNotNull(repositories, "Repositories have to be set.");
+        checkNotNull(gitParserOptions, "Options have to be set.");
+        checkNotNull(exec, "Execution monitor has to be set.");
+        checkNotNull(listener, "Listener has to be set.");
+        if (repositories.isEmpty()) {
+            return;
+        }
+
+        int workers = Math.min(threads, repositories.size());
+        int repositoryThreads = Math.max(1, threads / workers);
+        shareWindowCache(workers);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        Deque<Future<RepositoryLog>> pending = new ArrayDeque<Future<RepositoryLog>>();
+        try {
+            for (String repository : repositories) {
+                checkArgument(!repository.isEmpty(), "Repository has to be set.");
+                exec.checkCanceled();
+                pending.add(pool.submit(new RepositoryTask(repository, gitParserOptions, repositoryThreads)));
+                if (pending.size() >= workers * PENDING_PER_THREAD) {
+                    listener.entryParsed(await(pending.poll(), exec));
+                }
+            }
+            while (!pending.isEmpty()) {
+                listener.entryParsed(await(pending.poll(), exec));
+            }
+        } finally {
+            for (Future<RepositoryLog> log : pending) {
+                log.cancel(true);
+            }
+            release(pool);
+        }
+    }
+
+    /**
+     * @return true if the repository is a URL or an scp-like address, which
+     *         has to be cloned before its log is read
+     */
+    public static boolean isRemote(final String repository) {
+        return repository.contains("://") || SCP_ADDRESS.matcher(repository).matches();
+    }
+
+    /**
+     * Enlarges JGit's window cache, shared by the object readers of every
+     * open repository, for the number of repositories read at a time. The
+     * cache is configured once for all of them instead of per repository.
+     * Reconfiguring drops the cached windows, so the cache is never shrunk.
+     */
+    static synchronized void shareWindowCache(final int repositories) {
+        if (repositories <= cachedRepositories) {
+            return;
+        }
+        WindowCacheConfig config = new WindowCacheConfig();
+        config.setPackedGitOpenFiles(Math.max(config.getPackedGitOpenFiles(), repositories
+                * OPEN_FILES_PER_REPOSITORY));
+        config.setPackedGitLimit(Math.max(config.getPackedGitLimit(), repositories
+                * PACKED_GIT_LIMIT_PER_REPOSITORY));
+        WindowCache.reconfigure(config);
+        cachedRepositories = repositories;
+    }
+
+    private static RepositoryLog await(final Future<RepositoryLog> log, final ExecutionMonitor exec)
+            throws IOException, GitAPIException, CanceledExecutionException {
+        while (true) {
+            try {
+                return log.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                exec.checkCanceled();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException("Interrupted while reading repositories.");
+            } catch (ExecutionException e) {
+                Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+                Throwables.propagateIfInstanceOf(e.getCause(), GitAPIException.class);
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+    }
+
+    private static void release(final ExecutorService pool) {
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(RELEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class RepositoryTask implements Callable<RepositoryLog> {
+        private final String repository;
+        private final GitParserOptions options;
+        private final int repositoryThreads;
+
+        RepositoryTask(final String repository, final GitParserOptions options, final int repositoryThreads) {
+            this.repository = repository;
+            this.options = options;
+            this.repositoryThreads = repositoryThreads;
+        }
+
+        @Override
+        public RepositoryLog call() throws Exception {
+            File clone = null;
+            try {
+                String gitPath;
+                GitParserOptions repositoryOptions = options;
+                if (isRemote(repository)) {
+                    clone = Files.createTempDir();
+                    try {
+                        GitOnlineLogParser.cloneRepository(repository, clone.getAbsolutePath(),
+                                GitCloneOptions.options(true, options.getBranch()), NullProgressMonitor.INSTANCE);
+                    } catch (TransportException e) {
+                        if (!options.hasBranch()) {
+                            throw e;
+                        }
+                        logger.warn("Branch " + options.getBranch() + " of " + repository + " could not be cloned ("
+                                + e.getMessage() + "), reading its HEAD instead.");
+                        repositoryOptions = withoutBranch();
+                        FileUtils.deleteQuietly(clone);
+                        clone = Files.createTempDir();
+                        GitOnlineLogParser.cloneRepository(repository, clone.getAbsolutePath(),
+                                GitCloneOptions.options(true, null), NullProgressMonitor.INSTANCE);
+                    }
+                    gitPath = clone.getAbsolutePath();
+                } else {
+                    gitPath = GitOnlineLogParser.getGitPath(repository);
+                    if (options.hasBranch()
+                            && !GitOnlineLogParser.getBranches(gitPath).contains(options.getBranch())) {
+                        logger.warn("Branch " + options.getBranch() + " was not found in " + repository
+                                + ", reading its HEAD instead.");
+                        repositoryOptions = withoutBranch();
+                    }
+                }
+                GitOnlineLogParser parser = new GitOnlineLogParser();
+                parser.setThreads(repositoryThreads);
+                parser.setCountLines(countLines);
+                return new RepositoryLog(repository, parser.parseEntries(gitPath, repositoryOptions));
+            } finally {
+                if (clone != null) {
+                    FileUtils.deleteQuietly(clone);
+                }
+            }
+        }
+
+        private GitParserOptions withoutBranch() {
+            return GitParserOptions.options(options.getPackagePrefix(), options.getExtensionsNamesToFilter(), null);
+        }
+    }
+
+    /**
+     * Commits of one repository, in the order of its log.
+     */
+    public static class RepositoryLog {
+        private final String repository;
+        private final List<GitCommit> commits;
+
+        RepositoryLog(final String repository, final List<GitCommit> commits) {
+            this.repository = repository;
+            this.commits = commits;
+        }
+
+        /**
+         * @return the repository as given, a path or a remote address
+         */
+        public String getRepository() {
+            return repository;
+        }
+
+        public List<GitCommit> getCommits() {
+            return commits;
+        }
+    }
+}
@@ -18,40 +18,47 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package org.impressivecode.depress.scm.git;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FilenameUtils;
 import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand;
-import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.InvalidRemoteException;
 import org.eclipse.jgit.api.errors.NoHeadException;
 import org.eclipse.jgit.api.errors.TransportException;
 import org.eclipse.jgit.diff.DiffEntry;
-import org.eclipse.jgit.diff.DiffEntry.ChangeType;
-import org.eclipse.jgit.diff.DiffFormatter;
-import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ProgressMonitor;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryBuilder;
+import org.eclipse.jgit.lib.RepositoryCache;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.treewalk.TreeWalk;
-import org.eclipse.jgit.util.io.DisabledOutputStream;
-import org.impressivecode.depress.scm.SCMExtensionsParser;
+import org.eclipse.jgit.util.FS;
+import org.impressivecode.depress.common.EntryListener;
+import org.impressivecode.depress.scm.SCMExtensionsFilter;
+import org.impressivecode.depress.scm.SCMOperation;
+import org.impressivecode.depress.scm.git.GitTreeDiffer.FileDiff;
+import org.knime.core.node.CanceledExecutionException;
+
+import com.google.common.base.Throwables;
 
 /**
  * 
@@ -61,41 +68,175 @@ import org.impressivecode.depress.scm.SCMExtensionsParser;
  */
 public class GitOnlineLogParser {
 
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean countLines = false;
+
+    /**
+     * Sets the number of threads diffing commits against their parents.
+     * Commits are still passed to listeners in the order of the log.
+     */
+    public void setThreads(final int threads) {
+        checkArgument(threads > 0, "Number of threads has to be positive.");
+        this.threads = threads;
+    }
+
+    /**
+     * Sets whether the added and deleted lines of every changed file are
+     * counted. This reads the content of the changed files, so it is off by
+     * default.
+     */
+    public void setCountLines(final boolean countLines) {
+        this.countLines = countLines;
+    }
 
     public List<GitCommit> parseEntries(final String path, final GitParserOptions gitParserOptions) throws IOException,
     ParseException, NoHeadException, GitAPIException {
+        final List<GitCommit> commitsList = new ArrayList<GitCommit>();
+        try {
+            parseEntries(path, gitParserOptions, new EntryListener<GitCommit>() {
+                @Override
+                public void entryParsed(final GitCommit commit) {
+                    commitsList.add(commit);
+                }
+            });
+        } catch (CanceledExecutionException e) {
+            // collecting the commits is never canceled
+            throw Throwables.propagate(e);
+        }
+        return commitsList;
+    }
+
+    /**
+     * Passes every commit to the listener as soon as it is read from the
+     * repository, nothing is kept after the listener returns.
+     */
+    public void parseEntries(final String path, final GitParserOptions gitParserOptions,
+            final EntryListener<GitCommit> listener) throws IOException, NoHeadException, GitAPIException,
+            CanceledExecutionException {
         checkArgument(!isNullOrEmpty(path), "Path has to be set.");
+        checkNotNull(listener, "Listener has to be set.");
 
-        List<GitCommit> commitsList = processRepo(path, gitParserOptions);
+        processRepo(path, gitParserOptions, null, Collections.<String> emptySet(), listener);
+    }
 
-        return commitsList;
+    /**
+     * Passes the commits reachable from the tip but not from any of the
+     * processed commits to the listener, so that only the commits added
+     * since an earlier import are read.
+     */
+    public void parseEntries(final String path, final GitParserOptions gitParserOptions, final String tip,
+            final Collection<String> processed, final EntryListener<GitCommit> listener) throws IOException,
+            NoHeadException, GitAPIException, CanceledExecutionException {
+        checkArgument(!isNullOrEmpty(path), "Path has to be set.");
+        checkArgument(!isNullOrEmpty(tip), "Tip has to be set.");
+        checkNotNull(processed, "Processed commits have to be set.");
+        checkNotNull(listener, "Listener has to be set.");
+
+        processRepo(path, gitParserOptions, tip, processed, listener);
+    }
+
+    /**
+     * @return id of the commit the import starts from, the head of the
+     *         selected branch or HEAD
+     */
+    public static String getTip(final String path, final GitParserOptions gitParserOptions) throws IOException,
+            GitAPIException {
+        Git git = initializeGit(path);
+        try {
+            return resolveStart(git, gitParserOptions).getName();
+        } finally {
+            git.getRepository().close();
+        }
+    }
+
+    /**
+     * @return true if the commit exists and is reachable from the tip
+     */
+    public static boolean isAncestor(final String path, final String commit, final String tip) throws IOException,
+            NoHeadException {
+        Git git = initializeGit(path);
+        RevWalk walk = new RevWalk(git.getRepository());
+        try {
+            return walk.isMergedInto(walk.parseCommit(ObjectId.fromString(commit)),
+                    walk.parseCommit(ObjectId.fromString(tip)));
+        } catch (MissingObjectException e) {
+            return false;
+        } finally {
+            walk.release();
+            git.getRepository().close();
+        }
     }
 
     public static String getCurrentBranch(final String path) throws IOException, NoHeadException {
         Git git = initializeGit(path);
-        return git.getRepository().getBranch();
+        try {
+            return git.getRepository().getBranch();
+        } finally {
+            git.getRepository().close();
+        }
     }
 
     public static List<String> getBranches(final String path) throws IOException, GitAPIException {
         Git git = initializeGit(path);
+        try {
+            List<Ref> refs = git.branchList().setListMode(ListBranchCommand.ListMode.ALL).call();
+            List<String> branches = new ArrayList<String>();
+            for (Ref r : refs) {
+                branches.add(r.getName().replace("refs/heads/", "").replace("refs/remotes/", ""));
+            }
 
-        List<Ref> refs = git.branchList().setListMode(ListBranchCommand.ListMode.ALL).call();
-        List<String> branches = new ArrayList<String>();
-        for (Ref r : refs) {
-            branches.add(r.getName().replace("refs/heads/", "").replace("refs/remotes/", ""));
+            return branches;
+        } finally {
+            git.getRepository().close();
         }
-
-        return branches;
     }
 
     public static void cloneRepository(final String remoteAddress, final String localPath, final ProgressMonitor monitor) throws InvalidRemoteException, TransportException, GitAPIException{
+        cloneRepository(remoteAddress, localPath, GitCloneOptions.options(), monitor);
+    }
+
+    /**
+     * Clones the remote repository, optionally without a working tree or
+     * with a single branch only. The branch becomes HEAD of the clone.
+     */
+    public static void cloneRepository(final String remoteAddress, final String localPath,
+            final GitCloneOptions cloneOptions, final ProgressMonitor monitor) throws InvalidRemoteException,
+            TransportException, GitAPIException {
+        checkNotNull(cloneOptions, "Clone options have to be set.");
         CloneCommand clone = Git.cloneRepository();
-        clone.setBare(false);
-        clone.setCloneAllBranches(true);
+        clone.setBare(cloneOptions.isBare());
+        if (cloneOptions.hasBranch()) {
+            String branch = Constants.R_HEADS + cloneOptions.getBranch();
+            clone.setCloneAllBranches(false);
+            clone.setBranchesToClone(Collections.singleton(branch));
+            clone.setBranch(branch);
+        } else {
+            clone.setCloneAllBranches(true);
+        }
         clone.setDirectory(new File(localPath));
         clone.setURI(remoteAddress);
         clone.setProgressMonitor(monitor);
-        clone.call();
+        clone.call().getRepository().close();
+    }
+
+    /**
+     * @return true if the directory is a git directory itself, either of a
+     *         bare repository or the .git directory of a working tree
+     */
+    public static boolean isGitDirectory(final File directory) {
+        return RepositoryCache.FileKey.isGitRepository(directory, FS.DETECTED);
+    }
+
+    /**
+     * @return the git directory of the repository, the directory itself for
+     *         a bare repository
+     */
+    public static String getGitPath(final String repositoryPath) {
+        File repoFile = new File(repositoryPath);
+        if (!repoFile.getName().equals(".git") && !isGitDirectory(repoFile)) {
+            return repoFile.getAbsolutePath() + File.separatorChar + ".git";
+        }
+        return repoFile.getAbsolutePath();
     }
 
     private static Git initializeGit(final String path) throws IOException, NoHeadException {
@@ -111,12 +252,50 @@ public class GitOnlineLogParser {
         return git;
     }
 
-    private List<GitCommit> processRepo(final String path, final GitParserOptions gitParserOptions) throws IOException, NoHeadException, GitAPIException{
+    private void processRepo(final String path, final GitParserOptions gitParserOptions, final String tip,
+            final Collection<String> processed, final EntryListener<GitCommit> listener) throws IOException,
+            NoHeadException, GitAPIException, CanceledExecutionException {
         Git git = initializeGit(path);
-        List<GitCommit> analyzedCommits = new ArrayList<GitCommit>();
+        Repository repository = git.getRepository();
+        SCMExtensionsFilter extensions = SCMExtensionsFilter.create(gitParserOptions.getExtensionsNamesToFilter());
+        RevWalk walk = new RevWalk(repository);
+        GitTreeDiffer differ = new GitTreeDiffer(repository, GitExtensionsTreeFilter.create(extensions), countLines,
+                threads);
+        Deque<GitcommitProcessor> pending = new ArrayDeque<GitcommitProcessor>();
+        try {
+            ObjectId start = tip == null ? resolveStart(git, gitParserOptions) : ObjectId.fromString(tip);
+            walk.markStart(walk.parseCommit(start));
+            for (String commit : processed) {
+                walk.markUninteresting(walk.parseCommit(ObjectId.fromString(commit)));
+            }
+            for (RevCommit commit : walk) {
+                GitcommitProcessor proc = new GitcommitProcessor(gitParserOptions, extensions);
+                proc.setRevCommit(commit);
+                proc.setChanges(differ.submit(walk, commit));
+                pending.add(proc);
+                if (pending.size() >= differ.getPendingLimit()) {
+                    emit(pending.poll(), listener);
+                }
+            }
+            while (!pending.isEmpty()) {
+                emit(pending.poll(), listener);
+            }
+        } finally {
+            differ.release();
+            walk.release();
+            repository.close();
+        }
+    }
 
-        LogCommand log = git.log();
+    private void emit(final GitcommitProcessor proc, final EntryListener<GitCommit> listener) throws IOException,
+            CanceledExecutionException {
+        proc.processCommitData();
+        listener.entryParsed(proc.getResult());
+    }
 
+    private static ObjectId resolveStart(final Git git, final GitParserOptions gitParserOptions)
+            throws IOException, GitAPIException {
+        ObjectId start;
         if (gitParserOptions.hasBranch()) {
             List<Ref> branches = git.branchList().setListMode(ListBranchCommand.ListMode.ALL).call();
             Ref branch = null;
@@ -131,45 +310,42 @@ public class GitOnlineLogParser {
             if (branch == null) {
                 throw new IOException("Specified branch was not found in git repository");
             }
-            log.add(branch.getObjectId());
-        }
-
-        Iterable<RevCommit> loglines = log.call();
-        Iterator<RevCommit> logIterator = loglines.iterator();
-        while (logIterator.hasNext()){
-            RevCommit commit = logIterator.next();
-            GitcommitProcessor proc = new GitcommitProcessor(gitParserOptions, git.getRepository());
-            proc.setRevCommit(commit);
-            proc.processCommitData();
-            analyzedCommits.add(proc.getResult());
+            start = branch.getObjectId();
+        } else {
+            start = git.getRepository().resolve(Constants.HEAD);
+            if (start == null) {
+                throw new NoHeadException("No HEAD exists in git repository.");
+            }
         }
-        return analyzedCommits;
+        return start;
     }
 
-
     class GitcommitProcessor {
 
-        private final Pattern PATTERN = Pattern.compile("^(.*) [a-f0-9]{40} (A|C|D|M|R|T)");
-
         private final GitParserOptions options;
+        private final SCMExtensionsFilter extensions;
         private final GitCommit analyzedCommit = new GitCommit();
-        private final Repository repository;
         private RevCommit revCommit;
+        private Future<List<FileDiff>> changes;
 
-        public GitcommitProcessor(final GitParserOptions options, final Repository repository) {
+        public GitcommitProcessor(final GitParserOptions options, final SCMExtensionsFilter extensions) {
             this.options = options;
-            this.repository = repository;
+            this.extensions = extensions;
         }
 
         public void setRevCommit (final RevCommit revcommit){
             this.revCommit = revcommit;
         }
 
+        public void setChanges(final Future<List<FileDiff>> changes) {
+            this.changes = changes;
+        }
+
         public GitCommit getResult() {
             return this.analyzedCommit;
         }
 
-        private void processCommitData() throws IOException {
+        private void processCommitData() throws IOException, CanceledExecutionException {
             hash();
             author();
             date();
@@ -177,12 +353,30 @@ public class GitOnlineLogParser {
             files();
         }
 
-        private void files() throws IOException {
-            List<String> filesList= getFilesInCommit(this.repository, this.revCommit);
-            for (String fileLine : filesList){
-                Matcher matcher = PATTERN.matcher(fileLine);
-                if (matcher.matches()) {
-                    parsePath(matcher);
+        private void files() throws IOException, CanceledExecutionException {
+            for (FileDiff fileDiff : GitTreeDiffer.get(this.changes)) {
+                DiffEntry diff = fileDiff.getEntry();
+                Integer added = fileDiff.getLinesAdded();
+                Integer deleted = fileDiff.getLinesDeleted();
+                switch (diff.getChangeType()) {
+                case DELETE:
+                    addFile(diff.getOldPath(), SCMOperation.DELETED, added, deleted);
+                    break;
+                case RENAME:
+                    // in git log there is two operations for RENAME: DELETE old file and ADD new so we need to add also two files to log:
+                    // the old file gets the deleted lines of the rename and the new one the added lines
+                    addFile(diff.getOldPath(), SCMOperation.DELETED, added == null ? null : 0, deleted);
+                    addFile(diff.getNewPath(), SCMOperation.ADDED, added, deleted == null ? null : 0);
+                    break;
+                case COPY:
+                    addFile(diff.getNewPath(), SCMOperation.COPIED, added, deleted);
+                    break;
+                case ADD:
+                    addFile(diff.getNewPath(), SCMOperation.ADDED, added, deleted);
+                    break;
+                default:
+                    addFile(diff.getNewPath(), SCMOperation.MODIFIED, added, deleted);
+                    break;
                 }
             }
         }
@@ -204,27 +398,27 @@ public class GitOnlineLogParser {
         }
 
         private void hash() {
-            String[] commitId = this.revCommit.getId().toString().split(" ");
-            this.analyzedCommit.setId(commitId[1]);
+            this.analyzedCommit.setId(this.revCommit.getName());
         }
-        
-        private void parsePath(final Matcher matcher) {
-            String operationCode = matcher.group(2);
-            String origin = matcher.group(1);
+
+        private void addFile(final String origin, final SCMOperation operation, final Integer linesAdded,
+                final Integer linesDeleted) {
             String transformed = origin.replaceAll("/", ".");
-            
+
             String parseJavaClass = "";
-            if(SCMExtensionsParser.extensionFits(transformed, Arrays.asList("*"))){
+            if(extensions.fits(transformed)){
             	if(transformed.endsWith(".java")){
     				if(packagePrefixValidate(transformed)){
     					parseJavaClass = parseJavaClass(transformed);
     				}
     			}
 				GitCommitFile gitFile = new GitCommitFile();
-                gitFile.setRawOperation(operationCode.charAt(0));
+                gitFile.setOperation(operation);
                 gitFile.setPath(origin);
                 gitFile.setExtension(FilenameUtils.getExtension(transformed));
                 gitFile.setJavaClass(parseJavaClass);
+                gitFile.setLinesAdded(linesAdded);
+                gitFile.setLinesDeleted(linesDeleted);
                 this.analyzedCommit.getFiles().add(gitFile);
             }
         }
@@ -244,74 +438,4 @@ public class GitOnlineLogParser {
             return javaClass;
         }
     }
-
-    //modified method from https://github.com/gitblit/gitblit/blob/master/src/main/java/com/gitblit/utils/JGitUtils.java#L718
-    private List<String> getFilesInCommit(final Repository repository, final RevCommit commit) throws IOException {
-        RevWalk rw = new RevWalk(repository);
-        List<String> filesList = new ArrayList<String>();
-        String fileLine = "";
-
-        if (commit.getParentCount() > 1) {
-            // Merge commit
-        } else if (commit.getParentCount() == 0) {
-            TreeWalk tw = new TreeWalk(repository);
-            tw.reset();
-            tw.setRecursive(true);
-            tw.addTree(commit.getTree());
-            while (tw.next()) {
-                fileLine = tw.getPathString()+" "+tw.getObjectId(0).getName()+" "+this.setOperationSymbol("ADD");
-            }
-            tw.release();
-        } else {
-            RevCommit parent = rw.parseCommit(commit.getParent(0).getId());
-            DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE);
-            df.setRepository(repository);
-            df.setDiffComparator(RawTextComparator.DEFAULT);
-            df.setDetectRenames(true);
-            List<DiffEntry> diffs = df.scan(parent.getTree(), commit.getTree());
-            for (DiffEntry diff : diffs) {
-                String objectId = diff.getNewId().name();
-                if (diff.getChangeType().equals(ChangeType.DELETE)) {
-                    fileLine = diff.getOldPath()+" "+objectId+" "+this.setOperationSymbol(diff.getChangeType().name());
-                    filesList.add(fileLine);
-                } else if (diff.getChangeType().equals(ChangeType.RENAME)) {
-                    //in git log there is two operations for RENAME: DELETE old file and ADD new so we need to add also two files to log:
-                    fileLine = diff.getOldPath()+" "+objectId+" "+this.setOperationSymbol(ChangeType.DELETE.name());
-                    filesList.add(fileLine);
-                    fileLine = diff.getNewPath()+" "+objectId+" "+this.setOperationSymbol(ChangeType.ADD.name());
-                    filesList.add(fileLine);
-                } else {
-                    fileLine = diff.getNewPath()+" "+objectId+" "+this.setOperationSymbol(diff.getChangeType().name());
-                    filesList.add(fileLine);
-                }
-            }
-        }
-        return filesList;
-    }
-
-    private char setOperationSymbol(final String operationCode) {
-        char op;
-        switch (operationCode) {
-        case "MODIFY":
-            op = 'M';
-            break;
-        case "ADD":
-            op = 'A';
-            break;
-        case "COPY":
-            op = 'C';
-            break;
-        case "DELETE":
-            op = 'D';
-            break;
-        case "RENAME":
-            op = 'R';
-            break;
-        default:
-            op = 'O';
-            break;
-        }
-        return op;
-    }
-
 }
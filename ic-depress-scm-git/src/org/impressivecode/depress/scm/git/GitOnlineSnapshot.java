@@ -0,0 +1,127 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+
+/**
+ * Rows and tip commit of the last execution of the Git online node. The rows
+ * are kept in a zipped table outside of the node's output, as outputs are
+ * cleared when the node is reset for the next execution.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class GitOnlineSnapshot {
+    private static final String PROPERTIES_FILE = "snapshot.properties";
+    private static final String TABLE_FILE = "snapshot.zip";
+    private static final String QUERY = "query";
+    private static final String TIP = "tip";
+
+    private final String query;
+    private final String tip;
+    private final File table;
+
+    private GitOnlineSnapshot(final String query, final String tip, final File table) {
+        this.query = query;
+        this.tip = tip;
+        this.table = table;
+    }
+
+    public static GitOnlineSnapshot create(final String query, final String tip, final BufferedDataTable rows,
+            final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        File table = createTableFile();
+        DataContainer.writeToZip(rows, table, exec);
+        return new GitOnlineSnapshot(query, tip, table);
+    }
+
+    /**
+     * @return the snapshot saved in the directory, or null if there is none
+     */
+    public static GitOnlineSnapshot load(final File directory) throws IOException {
+        File properties = new File(directory, PROPERTIES_FILE);
+        File savedTable = new File(directory, TABLE_FILE);
+        if (!properties.exists() || !savedTable.exists()) {
+            return null;
+        }
+        Properties values = new Properties();
+        InputStream in = Files.newInputStreamSupplier(properties).getInput();
+        try {
+            values.load(in);
+        } finally {
+            Closeables.closeQuietly(in);
+        }
+        File table = createTableFile();
+        Files.copy(savedTable, table);
+        return new GitOnlineSnapshot(values.getProperty(QUERY), values.getProperty(TIP), table);
+    }
+
+    public void save(final File directory) throws IOException {
+        Properties values = new Properties();
+        values.setProperty(QUERY, query);
+        values.setProperty(TIP, tip);
+        OutputStream out = Files.newOutputStreamSupplier(new File(directory, PROPERTIES_FILE)).getOutput();
+        try {
+            values.store(out, null);
+        } finally {
+            out.close();
+        }
+        Files.copy(table, new File(directory, TABLE_FILE));
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public String getTip() {
+        return tip;
+    }
+
+    public BufferedDataTable readRows(final ExecutionContext exec) throws IOException, CanceledExecutionException {
+        ContainerTable rows = DataContainer.readFromZip(table);
+        try {
+            return exec.createBufferedDataTable(rows, exec);
+        } finally {
+            rows.clear();
+        }
+    }
+
+    public void delete() {
+        table.delete();
+    }
+
+    private static File createTableFile() throws IOException {
+        File table = File.createTempFile("depress-git-snapshot", ".zip");
+        table.deleteOnExit();
+        return table;
+    }
+}
@@ -20,6 +20,7 @@ package org.impressivecode.depress.scm.git;
 import java.util.ArrayList;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 
 /**
  * @author Marek Majchrzak, ImpressiveCode
@@ -37,8 +38,11 @@ public class GitParserOptions {
         return options;
     }
     
+    /**
+     * @return options importing files with any extension
+     */
     public static GitParserOptions options(final String packageString, final String branch) {
-        return options(packageString, new ArrayList<String>(), branch);
+        return options(packageString, Lists.newArrayList("*"), branch);
     }
 
     public boolean hasPackagePrefix() {
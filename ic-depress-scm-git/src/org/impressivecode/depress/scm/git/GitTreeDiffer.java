@@ -0,0 +1,214 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
+import org.eclipse.jgit.patch.FileHeader.PatchType;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.knime.core.node.CanceledExecutionException;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * Diffs commits against their first parent on a bounded pool of workers,
+ * limited to the paths accepted by the filter. Optionally the added and
+ * deleted lines of every changed file are counted by the same worker.
+ * Every worker owns its own {@link DiffFormatter}, and so its own object
+ * reader, as neither is thread safe. The commits themselves are parsed by
+ * the caller's {@link RevWalk}, only tree ids are handed to the workers.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+class GitTreeDiffer {
+    /**
+     * Number of commits queued per worker, bounds the diffs held in memory
+     * while waiting for an older commit to finish.
+     */
+    private static final int PENDING_PER_THREAD = 8;
+    private static final long RELEASE_TIMEOUT_SECONDS = 10;
+
+    private final Repository repository;
+    private final TreeFilter pathFilter;
+    private final boolean countLines;
+    private final int threads;
+    private final ExecutorService pool;
+    private final List<DiffFormatter> formatters = Collections.synchronizedList(new ArrayList<DiffFormatter>());
+    private final ThreadLocal<DiffFormatter> formatter = new ThreadLocal<DiffFormatter>() {
+        @Override
+        protected DiffFormatter initialValue() {
+            DiffFormatter diffFormatter = createDiffFormatter(repository, pathFilter.clone());
+            formatters.add(diffFormatter);
+            return diffFormatter;
+        }
+    };
+
+    GitTreeDiffer(final Repository repository, final TreeFilter pathFilter, final boolean countLines,
+            final int threads) {
+        checkArgument(threads > 0, "Number of threads has to be positive.");
+        this.repository = repository;
+        this.pathFilter = pathFilter;
+        this.countLines = countLines;
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * @return number of submitted but not yet collected diffs after which the
+     *         caller should collect the oldest one before submitting more
+     */
+    int getPendingLimit() {
+        return threads * PENDING_PER_THREAD;
+    }
+
+    /**
+     * Schedules the diff of the commit against its parent. Merge commits and
+     * the root commit have no changes.
+     */
+    Future<List<FileDiff>> submit(final RevWalk walk, final RevCommit commit) throws IOException {
+        if (commit.getParentCount() != 1) {
+            return Futures.immediateFuture(Collections.<FileDiff> emptyList());
+        }
+        RevCommit parent = commit.getParent(0);
+        walk.parseHeaders(parent);
+        final ObjectId parentTree = parent.getTree().copy();
+        final ObjectId tree = commit.getTree().copy();
+        return pool.submit(new Callable<List<FileDiff>>() {
+            @Override
+            public List<FileDiff> call() throws IOException {
+                return diff(formatter.get(), parentTree, tree);
+            }
+        });
+    }
+
+    private List<FileDiff> diff(final DiffFormatter diffFormatter, final ObjectId parentTree, final ObjectId tree)
+            throws IOException {
+        List<DiffEntry> entries = diffFormatter.scan(parentTree, tree);
+        List<FileDiff> diffs = new ArrayList<FileDiff>(entries.size());
+        for (DiffEntry entry : entries) {
+            diffs.add(countLines ? countLines(diffFormatter, entry) : new FileDiff(entry, null, null));
+        }
+        return diffs;
+    }
+
+    private static FileDiff countLines(final DiffFormatter diffFormatter, final DiffEntry entry) throws IOException {
+        FileHeader header = diffFormatter.toFileHeader(entry);
+        if (header.getPatchType() != PatchType.UNIFIED) {
+            // binary content has no lines
+            return new FileDiff(entry, null, null);
+        }
+        int added = 0;
+        int deleted = 0;
+        for (Edit edit : header.toEditList()) {
+            added += edit.getLengthB();
+            deleted += edit.getLengthA();
+        }
+        return new FileDiff(entry, added, deleted);
+    }
+
+    static List<FileDiff> get(final Future<List<FileDiff>> changes) throws IOException,
+            CanceledExecutionException {
+        try {
+            return changes.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CanceledExecutionException("Interrupted while reading changes.");
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Stops the workers and releases their object readers.
+     */
+    void release() {
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(RELEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (formatters) {
+            for (DiffFormatter diffFormatter : formatters) {
+                diffFormatter.release();
+            }
+            formatters.clear();
+        }
+    }
+
+    private static DiffFormatter createDiffFormatter(final Repository repository, final TreeFilter pathFilter) {
+        DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
+        diffFormatter.setRepository(repository);
+        diffFormatter.setPathFilter(pathFilter);
+        diffFormatter.setDiffComparator(RawTextComparator.DEFAULT);
+        diffFormatter.setDetectRenames(true);
+        return diffFormatter;
+    }
+
+    /**
+     * Change of a single file, with the numbers of added and deleted lines if
+     * they were counted and the file is not binary.
+     */
+    static class FileDiff {
+        private final DiffEntry entry;
+        private final Integer linesAdded;
+        private final Integer linesDeleted;
+
+        FileDiff(final DiffEntry entry, final Integer linesAdded, final Integer linesDeleted) {
+            this.entry = entry;
+            this.linesAdded = linesAdded;
+            this.linesDeleted = linesDeleted;
+        }
+
+        DiffEntry getEntry() {
+            return entry;
+        }
+
+        Integer getLinesAdded() {
+            return linesAdded;
+        }
+
+        Integer getLinesDeleted() {
+            return linesDeleted;
+        }
+    }
+}
@@ -18,11 +18,14 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package org.impressivecode.depress.scm.git.ast;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.impressivecode.depress.scm.RevisionFiles;
 import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.NodeLogger;
 
 import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
 import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
@@ -34,22 +37,54 @@ import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
  */
 public class AstComparator {
 
-    private FileDistiller distiller;
+    private static final NodeLogger logger = NodeLogger.getLogger(AstComparator.class);
 
-    public AstComparator() {
-        distiller = ChangeDistiller.createFileDistiller(Language.JAVA);
+    private final RevisionFiles files = new RevisionFiles("AstComparator", ".java");
+    private boolean failed = false;
+
+    /**
+     * @return true if the last comparison failed, its changes are then empty
+     *         instead of the real ones
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * Compares two revisions held in memory, written to scratch files as
+     * ChangeDistiller reads only files.
+     */
+    public List<SingleChangeInfo> compareAstOfRevisions(byte[] previous, byte[] actual) throws IOException,
+            CanceledExecutionException, SQLException {
+        files.write(previous, actual);
+        return compareAstOfFiles(files.getPrevious(), files.getActual());
     }
 
+    /**
+     * Deletes the scratch files, the comparator can still be used afterwards.
+     */
+    public void release() {
+        files.release();
+    }
+
+    /**
+     * Every comparison uses its own distiller, as a distiller keeps the
+     * changes of its previous comparison when extracting fails.
+     */
     public List<SingleChangeInfo> compareAstOfFiles(File previous, File actual) throws CanceledExecutionException,
             SQLException {
+        FileDistiller distiller = ChangeDistiller.createFileDistiller(Language.JAVA);
+        List<SingleChangeInfo> changeInfoList = new ArrayList<SingleChangeInfo>();
+        failed = false;
         try {
             distiller.extractClassifiedSourceCodeChanges(previous, actual);
         } catch(Exception e) {
-            e.printStackTrace();
+            logger.warn("Could not distill changes.", e);
+            failed = true;
+            return changeInfoList;
         }
 
         List<SourceCodeChange> changes = distiller.getSourceCodeChanges();
-        List<SingleChangeInfo> changeInfoList = new ArrayList<SingleChangeInfo>();
 
         for (SourceCodeChange scc : changes) {
             SingleChangeInfo info = new SingleChangeInfo();
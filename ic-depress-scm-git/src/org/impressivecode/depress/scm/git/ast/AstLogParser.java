@@ -25,19 +25,35 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.LogCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.NoHeadException;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
 import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectLoader;
 import org.eclipse.jgit.lib.Ref;
@@ -47,17 +63,38 @@ import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
 import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.impressivecode.depress.scm.SourceFingerprint;
 import org.impressivecode.depress.scm.git.GitOnlineAdapterExtendedEntry;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.InvalidSettingsException;
 
+import com.google.common.base.Throwables;
+
 /**
  * @author Mateusz Kutyba, Wroclaw University of Technology
  */
 public class AstLogParser {
+    /**
+     * Number of revision pairs queued per worker, bounds the memory held by
+     * finished but not yet merged distillation results.
+     */
+    private static final int PENDING_PER_THREAD = 4;
+    private static final long CANCEL_POLL_MILLIS = 200;
+    private static final long RELEASE_TIMEOUT_SECONDS = 10;
+
+    private static final Set<String> VALID_CHANGE_TYPES = new HashSet<String>(Arrays.asList("RETURN_TYPE_CHANGE",
+            "RETURN_TYPE_DELETE", "RETURN_TYPE_INSERT", "METHOD_RENAMING", "PARAMETER_DELETE", "PARAMETER_INSERT",
+            "PARAMETER_ORDERING_CHANGE", "PARAMETER_RENAMING", "DECREASING_ACCESSIBILITY_CHANGE",
+            "INCREASING_ACCESSIBILITY_CHANGE", "PARAMETER_TYPE_CHANGE", "STATEMENT_INSERT", "STATEMENT_UPDATE",
+            "STATEMENT_DELETE", "STATEMENT_PARENT_CHANGE", "CONDITION_EXPRESSION_CHANGE", "ALTERNATIVE_PART_INSERT",
+            "ALTERNATIVE_PART_DELETE", "STATEMENT_ORDERING_CHANGE"));
+
     private String repoPath;
     private String packageName;
     private Git git;
@@ -65,6 +102,11 @@ public class AstLogParser {
     private Map<String, GitOnlineAdapterExtendedEntry> histories;
     private AstLogParserData data = new AstLogParserData();
     private final ExecutionContext exec;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private DistillerCache cache;
+    private final AtomicInteger identicalPairs = new AtomicInteger();
+    private final AtomicInteger formattingPairs = new AtomicInteger();
+    private final AtomicInteger failedPairs = new AtomicInteger();
 
     public AstLogParser(String path, String packageName) throws SQLException, IOException, Exception {
         this(path, packageName, null);
@@ -81,6 +123,48 @@ public class AstLogParser {
         this.exec = exec;
     }
 
+    /**
+     * Sets the number of threads used to distill revision pairs. Each thread
+     * owns its own {@link AstComparator}, as ChangeDistiller is not thread
+     * safe.
+     */
+    public void setThreads(int threads) {
+        checkArgument(threads > 0, "Number of threads has to be positive.");
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the cache consulted before a revision pair is distilled, null
+     * distills every pair.
+     */
+    public void setCache(DistillerCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * @return number of revision pairs not distilled as both revisions are
+     *         the same blob
+     */
+    public int getIdenticalPairs() {
+        return identicalPairs.get();
+    }
+
+    /**
+     * @return number of revision pairs not distilled as their revisions
+     *         differ only in white space or comments
+     */
+    public int getFormattingPairs() {
+        return formattingPairs.get();
+    }
+
+    /**
+     * @return number of revision pairs whose changes could not be distilled,
+     *         they have no changes and are not cached
+     */
+    public int getFailedPairs() {
+        return failedPairs.get();
+    }
+
     public Map<String, GitOnlineAdapterExtendedEntry> getHistories() {
         return histories;
     }
@@ -137,19 +221,33 @@ public class AstLogParser {
             topCommit = data.commitListAll.get(0);
         }
 
-        if (!data.commitListAll.contains(topCommit)) {
+        Integer topPosition = getCommitPositions().get(topCommit);
+        if (topPosition == null) {
             throw new InvalidSettingsException("Top commit not found.");
         }
-        if (!data.commitListAll.contains(bottomCommit)) {
+        Integer bottomPosition = getCommitPositions().get(bottomCommit);
+        if (bottomPosition == null) {
             throw new InvalidSettingsException("Bottom commit not found.");
         }
 
-        List<String> commitListLimited = data.commitListAll.subList(data.commitListAll.indexOf(topCommit),
-                data.commitListAll.indexOf(bottomCommit) + 1);
+        List<String> commitListLimited = data.commitListAll.subList(topPosition, bottomPosition + 1);
 
         return commitListLimited;
     }
 
+    protected Map<String, Integer> getCommitPositions() {
+        if (data.commitPositions == null) {
+            data.commitPositions = new HashMap<String, Integer>(data.commitListAll.size() * 2);
+            for (int i = 0; i < data.commitListAll.size(); i++) {
+                // keep the first occurrence, as List.indexOf does
+                if (!data.commitPositions.containsKey(data.commitListAll.get(i))) {
+                    data.commitPositions.put(data.commitListAll.get(i), i);
+                }
+            }
+        }
+        return data.commitPositions;
+    }
+
     protected String getCommitIdForTag(String tag) throws IOException, GitAPIException {
         if (data.tagList == null) {
             data.tagList = getTagList();
@@ -210,26 +308,82 @@ public class AstLogParser {
     public List<SingleChangeInfo> getFileChangesBetweenRevisions(String filePath, String commitHashPrevious,
             String commitHashActual) throws NoHeadException, CanceledExecutionException, SQLException,
             MissingObjectException, IOException {
-        List<SingleChangeInfo> changeList = new ArrayList<SingleChangeInfo>();
         AstComparator comparator = new AstComparator();
-        File filePrevious = getFileFromRevision(filePath, commitHashPrevious);
-        if (filePrevious == null) {
-            return changeList;
-        }
-        File fileActual = getFileFromRevision(filePath, commitHashActual);
-        if (fileActual == null) {
-            return changeList;
+        try {
+            return getFileChangesBetweenRevisions(filePath, commitHashPrevious, commitHashActual, comparator);
+        } finally {
+            comparator.release();
         }
-        changeList = comparator.compareAstOfFiles(filePrevious, fileActual);
+    }
 
-        filePrevious.delete();
-        fileActual.delete();
+    private List<SingleChangeInfo> getFileChangesBetweenRevisions(String filePath, String commitHashPrevious,
+            String commitHashActual, AstComparator comparator) throws NoHeadException, CanceledExecutionException,
+            SQLException, MissingObjectException, IOException {
+        ObjectId blobPrevious = getBlobFromRevision(filePath, commitHashPrevious);
+        if (blobPrevious == null) {
+            return new ArrayList<SingleChangeInfo>();
+        }
+        ObjectId blobActual = getBlobFromRevision(filePath, commitHashActual);
+        if (blobActual == null) {
+            return new ArrayList<SingleChangeInfo>();
+        }
+        if (blobPrevious.equals(blobActual)) {
+            identicalPairs.incrementAndGet();
+            return new ArrayList<SingleChangeInfo>();
+        }
+        if (cache != null) {
+            List<SingleChangeInfo> cached = cache.get(blobPrevious, blobActual);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
+        byte[] previous = getBlobContent(blobPrevious);
+        byte[] actual = getBlobContent(blobActual);
+        List<SingleChangeInfo> changeList;
+        if (SourceFingerprint.of(previous, false).equals(SourceFingerprint.of(actual, false))) {
+            // comments are not among the valid change types, so only the
+            // tokens of the code have to differ
+            formattingPairs.incrementAndGet();
+            changeList = new ArrayList<SingleChangeInfo>();
+        } else {
+            changeList = comparator.compareAstOfRevisions(previous, actual);
+            if (comparator.hasFailed()) {
+                failedPairs.incrementAndGet();
+                return changeList;
+            }
+        }
+        if (cache != null) {
+            cache.put(blobPrevious, blobActual, changeList);
+        }
         return changeList;
     }
 
     protected File getFileFromRevision(String filePath, String commitHash) throws MissingObjectException, IOException,
             NoHeadException {
+        ObjectId objectId = getBlobFromRevision(filePath, commitHash);
+        if (objectId == null) {
+            return null;
+        }
+        ObjectLoader loader = repo.open(objectId);
+
+        File file = File.createTempFile("AstLogParser", ".java");
+        OutputStream out = new FileOutputStream(file);
+        loader.copyTo(out);
+        out.flush();
+        out.close();
+
+        file.deleteOnExit();
+
+        return file;
+    }
+
+    /**
+     * @return id of the file's blob in the revision, null if the revision has
+     *         no such file
+     */
+    protected ObjectId getBlobFromRevision(String filePath, String commitHash) throws MissingObjectException,
+            IOException {
         ObjectId commitId = repo.resolve(commitHash);
         RevWalk revWalk = new RevWalk(repo);
         RevCommit revCommit = revWalk.parseCommit(commitId);
@@ -244,18 +398,14 @@ public class AstLogParser {
             return null;
         }
 
-        ObjectId objectId = treeWalk.getObjectId(0);
-        ObjectLoader loader = repo.open(objectId);
-
-        File file = File.createTempFile("AstLogParser", ".java");
-        OutputStream out = new FileOutputStream(file);
-        loader.copyTo(out);
-        out.flush();
-        out.close();
-
-        file.deleteOnExit();
+        return treeWalk.getObjectId(0);
+    }
 
-        return file;
+    /**
+     * @return content of the blob, read straight from the object database
+     */
+    private byte[] getBlobContent(ObjectId objectId) throws MissingObjectException, IOException {
+        return repo.open(objectId, Constants.OBJ_BLOB).getCachedBytes();
     }
 
     public RevisionDetails getRevisionDetails(String commitHash) throws NoHeadException, IOException {
@@ -289,21 +439,102 @@ public class AstLogParser {
             GitAPIException, InvalidSettingsException, CanceledExecutionException, SQLException {
         data.commitListBetweenRevisions = getCommitListInRange(topCommit, bottomCommit);
         data.commitListBetweenRevisions.remove(bottomCommit);
+        // the range is a view of the full list, so positions have shifted
+        data.commitPositions = null;
 
         histories = new HashMap<String, GitOnlineAdapterExtendedEntry>();
 
         List<String> fileList = getFilesInRevision(
                 data.commitListBetweenRevisions.get(data.commitListBetweenRevisions.size() - 1), ".java");
+        data.fileHistories = getHistoryIndex(fileList);
 
-        Long counter = 0l;
+        List<RevisionPair> pairs = new ArrayList<RevisionPair>();
         for (String filePath : fileList) {
-            List<String> commitList = getHistoryForFileInRangePostRelease(filePath);
-            parseHistoryForFile(filePath, commitList);
-            checkIfCancelledAndSetProgress(0.4d + 0.4d * ++counter / fileList.size());
+            addRevisionPairs(filePath, data.fileHistories.get(filePath), pairs);
         }
+        distill(pairs, 0.4d, 0.4d);
         return histories;
     }
 
+    /**
+     * Builds the history of all given files in range with a single walk over
+     * all refs. A commit is added to the history of a file when the file
+     * differs from every parent of the commit, which is the rule used by
+     * <code>git log --all &lt;path&gt;</code> to decide whether a commit touches
+     * the path.
+     */
+    public Map<String, List<String>> getHistoryIndex(List<String> filePaths) throws IOException,
+            CanceledExecutionException {
+        Map<String, List<String>> index = new HashMap<String, List<String>>();
+        for (String filePath : filePaths) {
+            index.put(filePath, new ArrayList<String>());
+        }
+        if (filePaths.isEmpty()) {
+            return index;
+        }
+
+        Set<String> range = new HashSet<String>(data.commitListBetweenRevisions);
+        TreeFilter pathFilter = PathFilterGroup.createFromStrings(filePaths);
+        TreeFilter changedPathFilter = AndTreeFilter.create(pathFilter, TreeFilter.ANY_DIFF);
+        RevWalk revWalk = new RevWalk(repo);
+        TreeWalk treeWalk = new TreeWalk(repo);
+        treeWalk.setRecursive(true);
+        try {
+            markAllRefsAsStart(revWalk);
+            for (RevCommit commit : revWalk) {
+                if (!range.contains(commit.getName())) {
+                    continue;
+                }
+                checkIfCancelledAndSetProgress(null);
+                treeWalk.setFilter(commit.getParentCount() == 0 ? pathFilter : changedPathFilter);
+                treeWalk.reset();
+                treeWalk.addTree(commit.getTree());
+                for (RevCommit parent : commit.getParents()) {
+                    treeWalk.addTree(revWalk.parseCommit(parent).getTree());
+                }
+                while (treeWalk.next()) {
+                    List<String> history = index.get(treeWalk.getPathString());
+                    if (history != null && differsFromAllParents(treeWalk)) {
+                        history.add(commit.getName());
+                    }
+                }
+            }
+        } finally {
+            treeWalk.release();
+            revWalk.release();
+        }
+
+        return index;
+    }
+
+    private void markAllRefsAsStart(RevWalk revWalk) throws IOException {
+        for (Ref ref : repo.getAllRefs().values()) {
+            if (!ref.isPeeled()) {
+                ref = repo.peel(ref);
+            }
+            ObjectId objectId = ref.getPeeledObjectId();
+            if (objectId == null) {
+                objectId = ref.getObjectId();
+            }
+            try {
+                revWalk.markStart(revWalk.parseCommit(objectId));
+            } catch (MissingObjectException e) {
+                // ignore as traversal starting point, same as LogCommand.all()
+            } catch (IncorrectObjectTypeException e) {
+                // ignore as traversal starting point, same as LogCommand.all()
+            }
+        }
+    }
+
+    private boolean differsFromAllParents(TreeWalk treeWalk) {
+        for (int parent = 1; parent < treeWalk.getTreeCount(); parent++) {
+            if (treeWalk.idEqual(0, parent) && treeWalk.getRawMode(0) == treeWalk.getRawMode(parent)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public List<String> getHistoryForFileInRangePostRelease(String filePath) throws IOException, GitAPIException,
             InvalidSettingsException {
         List<String> commitList = getHistoryForFile(filePath);
@@ -314,54 +545,142 @@ public class AstLogParser {
 
     public void parseHistoryForFile(String filePath, List<String> commitList) throws MissingObjectException,
             CanceledExecutionException, SQLException, IOException, GitAPIException {
+        List<RevisionPair> pairs = new ArrayList<RevisionPair>();
+        addRevisionPairs(filePath, commitList, pairs);
+        distill(pairs, null, null);
+    }
+
+    private void addRevisionPairs(String filePath, List<String> commitList, List<RevisionPair> pairs)
+            throws IOException, GitAPIException {
+        if (data.commitListAll == null) {
+            data.commitListAll = getCommitList();
+        }
         for (String commit : commitList) {
-            if (data.commitListAll == null) {
-                data.commitListAll = getCommitList();
-            }
+            String previous = data.commitListAll.get(getCommitPositions().get(commit) + 1);
+            pairs.add(new RevisionPair(filePath, previous, commit));
+        }
+    }
 
-            String previous = data.commitListAll.get(data.commitListAll.indexOf(commit) + 1);
-            List<SingleChangeInfo> changeList = getFileChangesBetweenRevisions(filePath, previous, commit);
-
-            RevisionDetails revisionDetails = getRevisionDetails(commit);
-
-            for (SingleChangeInfo singleChangeInfo : changeList) {
-                String methodName = singleChangeInfo.getMethodName();
-
-                GitOnlineAdapterExtendedEntry historyEntry = new GitOnlineAdapterExtendedEntry(methodName + revisionDetails.revisionId);
-                historyEntry.setMethodName(methodName);
-                historyEntry.setAuthor(revisionDetails.author);
-                historyEntry.setMessage(revisionDetails.comment);
-                historyEntry.setDate(revisionDetails.timestamp);
-                historyEntry.setCommitId(revisionDetails.revisionId);
-
-                List<String> validChangeTypes = new ArrayList<String>();
-                validChangeTypes.add("RETURN_TYPE_CHANGE");
-                validChangeTypes.add("RETURN_TYPE_DELETE");
-                validChangeTypes.add("RETURN_TYPE_INSERT");
-                validChangeTypes.add("METHOD_RENAMING");
-                validChangeTypes.add("PARAMETER_DELETE");
-                validChangeTypes.add("PARAMETER_INSERT");
-                validChangeTypes.add("PARAMETER_ORDERING_CHANGE");
-                validChangeTypes.add("PARAMETER_RENAMING");
-                validChangeTypes.add("DECREASING_ACCESSIBILITY_CHANGE");
-                validChangeTypes.add("INCREASING_ACCESSIBILITY_CHANGE");
-                validChangeTypes.add("PARAMETER_TYPE_CHANGE");
-                validChangeTypes.add("STATEMENT_INSERT");
-                validChangeTypes.add("STATEMENT_UPDATE");
-                validChangeTypes.add("STATEMENT_DELETE");
-                validChangeTypes.add("STATEMENT_PARENT_CHANGE");
-                validChangeTypes.add("CONDITION_EXPRESSION_CHANGE");
-                validChangeTypes.add("ALTERNATIVE_PART_INSERT");
-                validChangeTypes.add("ALTERNATIVE_PART_DELETE");
-                validChangeTypes.add("STATEMENT_ORDERING_CHANGE");
-
-                if (validChangeTypes.contains(singleChangeInfo.getChangeType())) {
-                    putHistoryEntry(historyEntry);
+    /**
+     * Distills the given revision pairs on a bounded pool of workers. Results
+     * are merged in the order of the pairs, so the history does not depend on
+     * which worker finishes first.
+     */
+    private void distill(List<RevisionPair> pairs, Double progressStart, Double progressRange)
+            throws CanceledExecutionException, SQLException, IOException, GitAPIException {
+        if (pairs.isEmpty()) {
+            return;
+        }
+        final List<AstComparator> created = Collections.synchronizedList(new ArrayList<AstComparator>());
+        final ThreadLocal<AstComparator> comparators = new ThreadLocal<AstComparator>() {
+            @Override
+            protected AstComparator initialValue() {
+                AstComparator comparator = new AstComparator();
+                created.add(comparator);
+                return comparator;
+            }
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, pairs.size()));
+        Deque<Future<List<SingleChangeInfo>>> pending = new ArrayDeque<Future<List<SingleChangeInfo>>>();
+        int submitted = 0;
+        try {
+            for (int merged = 0; merged < pairs.size(); merged++) {
+                while (submitted < pairs.size() && pending.size() < threads * PENDING_PER_THREAD) {
+                    pending.add(pool.submit(distillTask(pairs.get(submitted++), comparators)));
                 }
+                List<SingleChangeInfo> changeList = await(pending.poll());
+                putHistoryEntries(pairs.get(merged).actual, changeList);
+                checkIfCancelledAndSetProgress(progressStart == null ? null : progressStart + progressRange
+                        * (merged + 1) / pairs.size());
+            }
+        } finally {
+            pool.shutdownNow();
+            release(pool, created);
+        }
+    }
+
+    /**
+     * Deletes the scratch files of the comparators once their workers are
+     * done.
+     */
+    private void release(ExecutorService pool, List<AstComparator> comparators) {
+        try {
+            pool.awaitTermination(RELEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (comparators) {
+            for (AstComparator comparator : comparators) {
+                comparator.release();
             }
         }
     }
 
+    private Callable<List<SingleChangeInfo>> distillTask(final RevisionPair pair,
+            final ThreadLocal<AstComparator> comparators) {
+        return new Callable<List<SingleChangeInfo>>() {
+            @Override
+            public List<SingleChangeInfo> call() throws Exception {
+                return getFileChangesBetweenRevisions(pair.filePath, pair.previous, pair.actual, comparators.get());
+            }
+        };
+    }
+
+    private List<SingleChangeInfo> await(Future<List<SingleChangeInfo>> future) throws CanceledExecutionException,
+            SQLException, IOException, GitAPIException {
+        while (true) {
+            try {
+                return future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                checkIfCancelledAndSetProgress(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CanceledExecutionException("Interrupted while distilling changes.");
+            } catch (ExecutionException e) {
+                Throwables.propagateIfInstanceOf(e.getCause(), CanceledExecutionException.class);
+                Throwables.propagateIfInstanceOf(e.getCause(), SQLException.class);
+                Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+                Throwables.propagateIfInstanceOf(e.getCause(), GitAPIException.class);
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+    }
+
+    private void putHistoryEntries(String commit, List<SingleChangeInfo> changeList) throws NoHeadException,
+            IOException {
+        if (changeList.isEmpty()) {
+            return;
+        }
+        RevisionDetails revisionDetails = getRevisionDetails(commit);
+
+        for (SingleChangeInfo singleChangeInfo : changeList) {
+            String methodName = singleChangeInfo.getMethodName();
+
+            GitOnlineAdapterExtendedEntry historyEntry = new GitOnlineAdapterExtendedEntry(methodName + revisionDetails.revisionId);
+            historyEntry.setMethodName(methodName);
+            historyEntry.setAuthor(revisionDetails.author);
+            historyEntry.setMessage(revisionDetails.comment);
+            historyEntry.setDate(revisionDetails.timestamp);
+            historyEntry.setCommitId(revisionDetails.revisionId);
+
+            if (VALID_CHANGE_TYPES.contains(singleChangeInfo.getChangeType())) {
+                putHistoryEntry(historyEntry);
+            }
+        }
+    }
+
+    private static class RevisionPair {
+        private final String filePath;
+        private final String previous;
+        private final String actual;
+
+        private RevisionPair(String filePath, String previous, String actual) {
+            this.filePath = filePath;
+            this.previous = previous;
+            this.actual = actual;
+        }
+    }
+
     protected void putHistoryEntry(GitOnlineAdapterExtendedEntry historyEntry) {
         if (histories == null) {
             histories = new HashMap<String, GitOnlineAdapterExtendedEntry>();
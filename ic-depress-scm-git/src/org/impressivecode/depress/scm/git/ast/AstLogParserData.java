@@ -27,6 +27,8 @@ public class AstLogParserData {
     public Map<String, String> tagList;
     public List<String> commitListAll;
     public List<String> commitListBetweenRevisions;
+    public Map<String, Integer> commitPositions;
+    public Map<String, List<String>> fileHistories;
 
     public AstLogParserData() {
     }
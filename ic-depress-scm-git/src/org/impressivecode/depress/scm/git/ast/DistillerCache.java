@@ -0,0 +1,312 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git.ast;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jgit.lib.ObjectId;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+/**
+ * On-disk cache of the changes distilled from a pair of revisions of a file,
+ * keyed by the blob ids of both revisions. The changes of a pair depend only
+ * on the content of its blobs, so pairs distilled once are never distilled
+ * again, whichever commits or repositories they come from.
+ * <p>
+ * Every pair is a small file in a directory named after the first two
+ * characters of the old blob id, written to a temporary file first and
+ * renamed, so workers can share the cache. The cache is dropped as a whole
+ * when its version differs from {@link #VERSION}, and the least recently
+ * used pairs are evicted once it grows over the size limit.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class DistillerCache {
+    /**
+     * Version of the cached changes, increased whenever the format or the
+     * changes computed by {@link AstComparator} differ.
+     */
+    static final String VERSION = "1";
+    static final String VERSION_FILE = "version";
+    private static final String ENTRY_SUFFIX = ".changes";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final char SEPARATOR = '\t';
+    /**
+     * Part of the size limit kept after eviction, so eviction does not run on
+     * every following put.
+     */
+    private static final double EVICTION_FILL = 0.75;
+    /**
+     * Size counted for every pair besides its content, most pairs have no
+     * changes and would not count at all otherwise.
+     */
+    private static final long ENTRY_OVERHEAD = 256;
+
+    private final File directory;
+    private final long maxBytes;
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Opens the cache in the directory, creating it if needed.
+     *
+     * @param maxBytes
+     *            size of the cached pairs above which the least recently used
+     *            ones are evicted
+     */
+    public DistillerCache(final File directory, final long maxBytes) throws IOException {
+        checkNotNull(directory, "Directory has to be set.");
+        checkArgument(maxBytes > 0, "Cache size has to be positive.");
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        open();
+    }
+
+    /**
+     * @return default location of the cache, in the home directory of the
+     *         user so it outlives workflows and restarts
+     */
+    public static File defaultDirectory() {
+        return new File(new File(System.getProperty("user.home"), ".depress"), "distiller-cache");
+    }
+
+    /**
+     * @return changes of the pair, or null if the pair was not distilled yet
+     */
+    public List<SingleChangeInfo> get(final ObjectId previous, final ObjectId actual) throws IOException {
+        File entry = entry(previous, actual);
+        String content;
+        try {
+            content = Files.toString(entry, Charsets.UTF_8);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        List<SingleChangeInfo> changes = parse(content);
+        if (changes == null) {
+            remove(entry);
+            return null;
+        }
+        entry.setLastModified(System.currentTimeMillis());
+        return changes;
+    }
+
+    public void put(final ObjectId previous, final ObjectId actual, final List<SingleChangeInfo> changes)
+            throws IOException {
+        File entry = entry(previous, actual);
+        File dir = entry.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Unable to create cache directory " + dir);
+        }
+        byte[] content = format(changes).getBytes(Charsets.UTF_8);
+        File temp = File.createTempFile(entry.getName(), TEMP_SUFFIX, dir);
+        try {
+            Files.write(content, temp);
+            if (!entry.exists() && temp.renameTo(entry)) {
+                bytes.addAndGet(content.length + ENTRY_OVERHEAD);
+            }
+        } finally {
+            temp.delete();
+        }
+        if (bytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * @return size of the cached pairs, with a fixed overhead per pair
+     */
+    public long size() {
+        return bytes.get();
+    }
+
+    private void open() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Unable to create cache directory " + directory);
+        }
+        File versionFile = new File(directory, VERSION_FILE);
+        if (!versionFile.exists() || !VERSION.equals(Files.toString(versionFile, Charsets.UTF_8))) {
+            for (File entry : entries()) {
+                entry.delete();
+            }
+            Files.write(VERSION, versionFile, Charsets.UTF_8);
+        }
+        long size = 0;
+        for (File entry : entries()) {
+            size += entry.length() + ENTRY_OVERHEAD;
+        }
+        bytes.set(size);
+    }
+
+    /**
+     * Removes the least recently used pairs until the cache is well below its
+     * limit. Workers reaching the limit together evict once.
+     */
+    private synchronized void evict() {
+        if (bytes.get() <= maxBytes) {
+            return;
+        }
+        List<File> entries = entries();
+        final long[] lastModified = new long[entries.size()];
+        Integer[] order = new Integer[entries.size()];
+        for (int i = 0; i < order.length; i++) {
+            lastModified[i] = entries.get(i).lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer o1, final Integer o2) {
+                long m1 = lastModified[o1];
+                long m2 = lastModified[o2];
+                return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+            }
+        });
+        long target = (long) (maxBytes * EVICTION_FILL);
+        for (int i = 0; i < order.length && bytes.get() > target; i++) {
+            remove(entries.get(order[i]));
+        }
+    }
+
+    private void remove(final File entry) {
+        long length = entry.length();
+        if (entry.delete()) {
+            bytes.addAndGet(-length - ENTRY_OVERHEAD);
+        }
+    }
+
+    private List<File> entries() {
+        File[] dirs = directory.listFiles();
+        if (dirs == null) {
+            return Collections.emptyList();
+        }
+        List<File> entries = new ArrayList<File>();
+        for (File dir : dirs) {
+            File[] files = dir.isDirectory() ? dir.listFiles() : null;
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                if (file.getName().endsWith(ENTRY_SUFFIX)) {
+                    entries.add(file);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private File entry(final ObjectId previous, final ObjectId actual) {
+        checkNotNull(previous, "Previous blob has to be set.");
+        checkNotNull(actual, "Actual blob has to be set.");
+        String name = previous.getName();
+        return new File(new File(directory, name.substring(0, 2)), name.substring(2) + actual.getName()
+                + ENTRY_SUFFIX);
+    }
+
+    /**
+     * One change per line, its method name, entity and type separated by
+     * tabs, with tabs, new lines and backslashes escaped.
+     */
+    static String format(final List<SingleChangeInfo> changes) {
+        StringBuilder content = new StringBuilder();
+        for (SingleChangeInfo change : changes) {
+            escape(change.getMethodName(), content).append(SEPARATOR);
+            escape(change.getChangeEntity(), content).append(SEPARATOR);
+            escape(change.getChangeType(), content).append('\n');
+        }
+        return content.toString();
+    }
+
+    /**
+     * @return the changes, or null if the content is damaged
+     */
+    static List<SingleChangeInfo> parse(final String content) {
+        List<SingleChangeInfo> changes = new ArrayList<SingleChangeInfo>();
+        if (content.isEmpty()) {
+            return changes;
+        }
+        if (!content.endsWith("\n")) {
+            return null;
+        }
+        for (String line : Splitter.on('\n').split(content.substring(0, content.length() - 1))) {
+            List<String> fields = Lists.newArrayList(Splitter.on(SEPARATOR).split(line));
+            if (fields.size() != 3) {
+                return null;
+            }
+            SingleChangeInfo change = new SingleChangeInfo();
+            change.setMethodName(unescape(fields.get(0)));
+            change.setChangeEntity(unescape(fields.get(1)));
+            change.setChangeType(unescape(fields.get(2)));
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private static StringBuilder escape(final String value, final StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\\':
+                out.append("\\\\");
+                break;
+            case '\t':
+                out.append("\\t");
+                break;
+            case '\n':
+                out.append("\\n");
+                break;
+            case '\r':
+                out.append("\\r");
+                break;
+            default:
+                out.append(c);
+            }
+        }
+        return out;
+    }
+
+    private static String unescape(final String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                out.append(c);
+                continue;
+            }
+            char escaped = value.charAt(++i);
+            out.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+        }
+        return out.toString();
+    }
+}
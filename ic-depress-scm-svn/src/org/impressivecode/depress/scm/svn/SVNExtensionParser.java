@@ -21,8 +21,12 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
-import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -40,14 +44,21 @@ import javax.xml.bind.annotation.XmlSchemaType;
 import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.XmlValue;
 import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
+import org.impressivecode.depress.common.EntryListener;
 import org.impressivecode.depress.scm.SCMDataType;
 import org.impressivecode.depress.scm.SCMOperation;
 import org.impressivecode.depress.scm.SCMParserOptions;
 import org.impressivecode.depress.scm.svn.SVNExtensionParser.SVNLog.Logentry;
 import org.impressivecode.depress.scm.svn.SVNExtensionParser.SVNLog.Logentry.Paths.Path;
+import org.knime.core.node.CanceledExecutionException;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
 import com.google.common.io.Files;
 
 /**
@@ -56,6 +67,7 @@ import com.google.common.io.Files;
  * @author Zuzanna Pacholczyk, Capgemini Poland
  */
 public class SVNExtensionParser {
+    private static final String LOGENTRY = "logentry";
     final SCMParserOptions parserOptions;
 
     public SVNExtensionParser(final SCMParserOptions parserOptions) {
@@ -63,30 +75,54 @@ public class SVNExtensionParser {
     }
 
     public List<SCMDataType> parseEntries(final String path) throws JAXBException, CloneNotSupportedException {
-        checkArgument(!isNullOrEmpty(path), "Path has to be set.");
-
-        List<SCMDataType> commitsList = parse(path, parserOptions);
-
+        final List<SCMDataType> commitsList = Lists.newArrayListWithCapacity(1000);
+        try {
+            parseEntries(path, new EntryListener<SCMDataType>() {
+                @Override
+                public void entryParsed(final SCMDataType entry) {
+                    commitsList.add(entry);
+                }
+            });
+        } catch (CanceledExecutionException e) {
+            // collecting the entries is never canceled
+            throw Throwables.propagate(e);
+        }
         return commitsList;
     }
 
-    private List<SCMDataType> parse(final String path, final SCMParserOptions parserOptions) throws JAXBException,
-            CloneNotSupportedException {
+    /**
+     * Unmarshals one <code>logentry</code> at a time and passes its paths to
+     * the listener, so the whole log is never held in memory.
+     */
+    public void parseEntries(final String path, final EntryListener<SCMDataType> listener) throws JAXBException,
+            CloneNotSupportedException, CanceledExecutionException {
+        checkArgument(!isNullOrEmpty(path), "Path has to be set.");
+        checkNotNull(listener, "Listener has to be set.");
+
         JAXBContext jaxbContext = JAXBContext.newInstance(SVNLog.class);
         Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
-        SVNLog log = (SVNLog) unmarshaller.unmarshal(new File(path));
-        return convertToSCMType(log, parserOptions);
-    }
-
-    private List<SCMDataType> convertToSCMType(final SVNLog log, final SCMParserOptions parserOptions)
-            throws CloneNotSupportedException {
-        List<SCMDataType> scmEntries = Lists.newArrayListWithCapacity(1000);
-        parseLogEntries(log.getLogentry(), scmEntries, parserOptions);
-        return scmEntries;
+        InputStream stream = null;
+        try {
+            stream = new BufferedInputStream(new FileInputStream(path));
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+            while (reader.hasNext()) {
+                if (reader.isStartElement() && LOGENTRY.equals(reader.getLocalName())) {
+                    Logentry entry = unmarshaller.unmarshal(reader, Logentry.class).getValue();
+                    parseLogEntries(Collections.singletonList(entry), listener, parserOptions);
+                } else {
+                    reader.next();
+                }
+            }
+            reader.close();
+        } catch (IOException | XMLStreamException e) {
+            throw new JAXBException(e);
+        } finally {
+            Closeables.closeQuietly(stream);
+        }
     }
 
-    private void parseLogEntries(final List<Logentry> entries, final List<SCMDataType> scmEntries,
-            final SCMParserOptions parserOptions) throws CloneNotSupportedException {
+    private void parseLogEntries(final List<Logentry> entries, final EntryListener<SCMDataType> listener,
+            final SCMParserOptions parserOptions) throws CloneNotSupportedException, CanceledExecutionException {
         for (Logentry entry : entries) {
             if (entry.getPaths() == null) {
                 continue;
@@ -94,11 +130,11 @@ public class SVNExtensionParser {
             SCMDataType base = scmBase(entry);
             for (Path path : entry.getPaths().getPath()) {
                 if (include(path, parserOptions)) {
-                    scmEntries.add(scm((SCMDataType) base.clone(), path));
+                    listener.entryParsed(scm((SCMDataType) base.clone(), path));
                 }
             }
             if (!entry.getLogentry().isEmpty()) {
-                parseLogEntries(entry.getLogentry(), scmEntries, parserOptions);
+                parseLogEntries(entry.getLogentry(), listener, parserOptions);
             }
         }
     }
@@ -25,9 +25,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections; 
 
-import java.util.List;
-
-import org.impressivecode.depress.common.OutputTransformer;
+import org.impressivecode.depress.common.OutputSink;
 import org.impressivecode.depress.scm.SCMAdapterTableFactory;
 import org.impressivecode.depress.scm.SCMAdapterTransformer;
 import org.impressivecode.depress.scm.SCMDataType;
@@ -96,12 +94,12 @@ public class SVNOfflineAdapterNodeModel extends NodeModel {
             SCMParserOptions parserOptions = options(packageNameToFilter, userExtensions); 
             
             SVNExtensionParser parser = new SVNExtensionParser(parserOptions);
-   
-            List<SCMDataType> commits = parser.parseEntries(this.fileName.getStringValue());
-            
-            LOGGER.info("Reading logs finished");
-            BufferedDataTable out = transform(commits, exec);
-            LOGGER.info("Transforming logs finished.");
+            OutputSink<SCMDataType> sink = new SCMAdapterTransformer(createDataColumnSpec()).open(exec);
+
+            parser.parseEntries(this.fileName.getStringValue(), sink);
+
+            BufferedDataTable out = sink.close();
+            LOGGER.info("Reading and transforming logs finished.");
             return new BufferedDataTable[] { out };
         } catch (Exception ex) {
             LOGGER.error("Unable to parse SVN entries", ex);
@@ -110,12 +108,6 @@ public class SVNOfflineAdapterNodeModel extends NodeModel {
 
     }
 
-	private BufferedDataTable transform(final List<SCMDataType> commits, final ExecutionContext exec)
-            throws CanceledExecutionException {
-        OutputTransformer<SCMDataType> transformer = new SCMAdapterTransformer(createDataColumnSpec());
-        return transformer.transform(commits, exec);
-    }
-
     @Override
     protected void reset() {
         // NOOP
@@ -25,9 +25,9 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 
-import org.impressivecode.depress.common.OutputTransformer;
+import org.impressivecode.depress.common.EntryListener;
+import org.impressivecode.depress.common.OutputSink;
 import org.impressivecode.depress.scm.SCMAdapterTransformer;
 import org.impressivecode.depress.scm.SCMDataType;
 import org.impressivecode.depress.scm.SCMParserOptions;
@@ -45,7 +45,6 @@ import org.knime.core.node.defaultnodesettings.SettingsModelOptionalString;
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 
 /**
@@ -106,11 +105,16 @@ public class SVNOnlineAdapterNodeModel extends NodeModel {
 	        logger.info("Reading logs from repository " + svnPath);
 	        SVNOnlineLogParser parser = new SVNOnlineLogParser();
 	        SCMParserOptions parserOptions = options(svnPackageName.getStringValue(), userExtensions);
-	        List<SVNCommit> commits = parser.parseEntries(svnPath, svnLog, svnPass, parserOptions);
-
-	        logger.info("Reading git logs finished.");
-	        BufferedDataTable out = transform(commits, exec);	
-	        logger.info("Transforming logs finished.");
+	        final OutputSink<SCMDataType> sink = new SCMAdapterTransformer(createDataColumnSpec()).open(exec);
+	        parser.parseEntries(svnPath, svnLog, svnPass, parserOptions, new EntryListener<SVNCommit>() {
+	            @Override
+	            public void entryParsed(final SVNCommit commit) throws CanceledExecutionException {
+	                transform(commit, sink);
+	            }
+	        });
+
+	        BufferedDataTable out = sink.close();
+	        logger.info("Reading and transforming logs finished.");
 	        return new BufferedDataTable[] { out };
 	    } catch (Exception ex) {
 	    	logger.error("Unable to parse SVN entries", ex);
@@ -118,17 +122,11 @@ public class SVNOnlineAdapterNodeModel extends NodeModel {
         }
     }
     
-    private BufferedDataTable transform(final List<SVNCommit> commits, final ExecutionContext exec)
+    private void transform(final SVNCommit commit, final OutputSink<SCMDataType> sink)
             throws CanceledExecutionException {
-        List<SCMDataType> data = Lists.newLinkedList();
-        for (SVNCommit commit : commits) {
-            for (SVNCommitFile file : commit.getFiles()) {
-                progress(exec);
-                data.add(scm(commit, file));
-            }
+        for (SVNCommitFile file : commit.getFiles()) {
+            sink.entryParsed(scm(commit, file));
         }
-        OutputTransformer<SCMDataType> transformer = new SCMAdapterTransformer(createDataColumnSpec());
-        return transformer.transform(data, exec);
     }
 	
     private SCMDataType scm(final SVNCommit commit, final SVNCommitFile file) {
@@ -144,10 +142,6 @@ public class SVNOnlineAdapterNodeModel extends NodeModel {
         return scm;
     }
 
-    private void progress(final ExecutionContext exec) throws CanceledExecutionException {
-        exec.checkCanceled();
-    }
-
     @Override
     protected void reset() {
     	//NOOP
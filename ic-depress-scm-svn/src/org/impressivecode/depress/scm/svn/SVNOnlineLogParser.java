@@ -19,6 +19,7 @@ package org.impressivecode.depress.scm.svn;
 
 import org.impressivecode.depress.scm.SCMParserOptions;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.IOException;
@@ -29,7 +30,11 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import static org.impressivecode.depress.scm.svn.SVNExtensionParser.isCorrectAccordingToFilterRules;
+import org.impressivecode.depress.common.EntryListener;
 import org.impressivecode.depress.scm.SCMOperation;
+import org.knime.core.node.CanceledExecutionException;
+import org.tmatesoft.svn.core.ISVNLogEntryHandler;
+import org.tmatesoft.svn.core.SVNCancelException;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNLogEntry;
 import org.tmatesoft.svn.core.SVNLogEntryPath;
@@ -41,6 +46,8 @@ import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
 import org.tmatesoft.svn.core.wc.SVNWCUtil;
 
+import com.google.common.base.Throwables;
+
 public class SVNOnlineLogParser {
     
     private final Pattern PATTERN = Pattern.compile("^(.*)");
@@ -48,43 +55,74 @@ public class SVNOnlineLogParser {
     public List<SVNCommit> parseEntries(final String path, final String login, final String password,
             final SCMParserOptions svnParserOptions) throws IOException,
             ParseException, SVNException {
-        checkArgument(!isNullOrEmpty(path), "Path has to be set.");
-        List<SVNCommit> commitsList = processRepo(path, login, password, svnParserOptions);
-
+        final List<SVNCommit> commitsList = new ArrayList<SVNCommit>();
+        try {
+            parseEntries(path, login, password, svnParserOptions, new EntryListener<SVNCommit>() {
+                @Override
+                public void entryParsed(final SVNCommit commit) {
+                    commitsList.add(commit);
+                }
+            });
+        } catch (CanceledExecutionException e) {
+            // collecting the commits is never canceled
+            throw Throwables.propagate(e);
+        }
         return commitsList;
     }
 
-    private List<SVNCommit> processRepo(final String path, final String login, final String password,
-            final SCMParserOptions svnParserOptions) throws IOException,
-            SVNException {
-
-        SVNRepository svn = initializeSvn(path, login, password);
-
-        List<SVNCommit> analyzedCommits = new ArrayList<SVNCommit>();
-
-        List<SVNLogEntry> entries = new ArrayList<SVNLogEntry>();
+    /**
+     * Passes every commit to the listener as soon as the repository sends its
+     * log entry, the log is not collected first.
+     */
+    public void parseEntries(final String path, final String login, final String password,
+            final SCMParserOptions svnParserOptions, final EntryListener<SVNCommit> listener) throws IOException,
+            SVNException, CanceledExecutionException {
+        checkArgument(!isNullOrEmpty(path), "Path has to be set.");
+        checkNotNull(listener, "Listener has to be set.");
+        processRepo(path, login, password, svnParserOptions, listener);
+    }
 
-        svn.log(new String[] { "" }, entries,			
-                1, -1, true, false);
+    private void processRepo(final String path, final String login, final String password,
+            final SCMParserOptions svnParserOptions, final EntryListener<SVNCommit> listener) throws IOException,
+            SVNException, CanceledExecutionException {
 
-        for (SVNLogEntry svnLogEntry : entries) {
+        SVNRepository svn = initializeSvn(path, login, password);
 
-            SVNCommit commit = new SVNCommit();
+        final CanceledExecutionException[] canceled = new CanceledExecutionException[1];
+        try {
+            svn.log(new String[] { "" }, 1, -1, true, false, new ISVNLogEntryHandler() {
+                @Override
+                public void handleLogEntry(final SVNLogEntry svnLogEntry) throws SVNException {
+                    try {
+                        listener.entryParsed(commit(svnLogEntry, svnParserOptions));
+                    } catch (CanceledExecutionException e) {
+                        canceled[0] = e;
+                        throw new SVNCancelException();
+                    }
+                }
+            });
+        } catch (SVNCancelException e) {
+            if (canceled[0] != null) {
+                throw canceled[0];
+            }
+            throw e;
+        }
+    }
 
-            setHeader(commit, svnLogEntry);
-            setMessage(commit, svnLogEntry, svnParserOptions);
+    private SVNCommit commit(final SVNLogEntry svnLogEntry, final SCMParserOptions svnParserOptions) {
+        SVNCommit commit = new SVNCommit();
 
-            Map<String, SVNLogEntryPath> entryPaths = svnLogEntry
-                    .getChangedPaths();
+        setHeader(commit, svnLogEntry);
+        setMessage(commit, svnLogEntry, svnParserOptions);
 
-            for (SVNLogEntryPath logFile : entryPaths.values()) {
-                setCommitFile(commit, logFile, svnParserOptions);
-            }
+        Map<String, SVNLogEntryPath> entryPaths = svnLogEntry
+                .getChangedPaths();
 
-            analyzedCommits.add(commit);
+        for (SVNLogEntryPath logFile : entryPaths.values()) {
+            setCommitFile(commit, logFile, svnParserOptions);
         }
 
-        return analyzedCommits;
+        return commit;
     }
 
     private void setCommitFile(final SVNCommit commit, final SVNLogEntryPath logFile,
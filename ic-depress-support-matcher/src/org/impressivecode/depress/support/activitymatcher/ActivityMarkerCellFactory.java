@@ -18,16 +18,11 @@ along with this program.  If not, see <http://www.gnu.org/licenses/>.
 package org.impressivecode.depress.support.activitymatcher;
 
 import org.impressivecode.depress.common.Cells;
-import org.impressivecode.depress.its.ITSDataType;
 import org.knime.base.data.append.column.AppendedCellFactory;
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.date.DateAndTimeCell;
 
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
-
 /**
  * 
  * @author Marek Majchrzak, ImpressiveCode
@@ -37,45 +32,21 @@ public class ActivityMarkerCellFactory implements AppendedCellFactory {
 
     private final Configuration cfg;
     private final int commitDateCellIndex;
+    private final ResolvedIssuesIndex index;
 
     public ActivityMarkerCellFactory(final Configuration configuration, final int commitDateCellIndex) {
         this.cfg = configuration;
         this.commitDateCellIndex = commitDateCellIndex;
+        this.index = new ResolvedIssuesIndex(configuration.getIssues(), configuration.getBuilderFormat());
     }
 
     @Override
     public DataCell[] getAppendedCell(final DataRow row) {
         long commitTimeInMillis = ((DateAndTimeCell) row.getCell(commitDateCellIndex)).getUTCTimeInMillis();
 
-        // naive approach
-        final Iterable<ITSDataType> markers = findIssuesFromGivenInterval(commitTimeInMillis);
-
-        return new DataCell[] { Cells.stringSetCell(applyBuilder(markers))};
-    }
-
-    private Iterable<ITSDataType> findIssuesFromGivenInterval(final long commitTimeInMillis) {
         final long min = commitTimeInMillis - this.cfg.getIntervalInMillis();
         final long max = commitTimeInMillis + this.cfg.getIntervalInMillis();
-        return Iterables.filter(this.cfg.getIssues(), new Predicate<ITSDataType>() {
-            @Override
-            public boolean apply(final ITSDataType issue) {
-                return min < issue.getResolved().getTime() && issue.getResolved().getTime() < max;
-            }
-        });
-    }
 
-    private Iterable<String> applyBuilder(final Iterable<ITSDataType> markers) {
-        return Iterables.transform(markers, new Function<ITSDataType, String>() {
-            @Override
-            public String apply(final ITSDataType id) {
-                String transformedId = null;
-                if (cfg.getBuilderFormat() != null) {
-                    transformedId = String.format(cfg.getBuilderFormat(), id.getIssueId());
-                } else {
-                    transformedId = id.getIssueId();
-                }
-                return transformedId;
-            }
-        });
+        return new DataCell[] { Cells.stringSetCell(index.findIds(min, max)) };
     }
-}
\ No newline at end of file
+}
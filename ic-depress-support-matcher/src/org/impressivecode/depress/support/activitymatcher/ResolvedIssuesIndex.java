@@ -0,0 +1,108 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.support.activitymatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.impressivecode.depress.its.ITSDataType;
+
+/**
+ * Issues sorted by resolved time, so the issues resolved within an interval
+ * can be found with a binary search. Identifiers are built once per issue.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+class ResolvedIssuesIndex {
+
+    private final long[] resolved;
+    private final int[] positions;
+    private final String[] ids;
+
+    ResolvedIssuesIndex(final List<ITSDataType> issues, final String builderFormat) {
+        final List<Integer> order = new ArrayList<Integer>(issues.size());
+        final long[] times = new long[issues.size()];
+        for (int i = 0; i < issues.size(); i++) {
+            if (issues.get(i).getResolved() != null) {
+                times[i] = issues.get(i).getResolved().getTime();
+                order.add(i);
+            }
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer o1, final Integer o2) {
+                return Long.compare(times[o1], times[o2]);
+            }
+        });
+
+        this.resolved = new long[order.size()];
+        this.positions = new int[order.size()];
+        this.ids = new String[order.size()];
+        for (int i = 0; i < order.size(); i++) {
+            int position = order.get(i);
+            this.resolved[i] = times[position];
+            this.positions[i] = position;
+            this.ids[i] = buildId(issues.get(position).getIssueId(), builderFormat);
+        }
+    }
+
+    /**
+     * @return ids of issues resolved strictly between min and max, in the
+     *         order the issues were given
+     */
+    List<String> findIds(final long min, final long max) {
+        int from = firstAfter(min);
+        int to = from;
+        while (to < resolved.length && resolved[to] < max) {
+            to++;
+        }
+        if (from == to) {
+            return Collections.emptyList();
+        }
+
+        int[] found = Arrays.copyOfRange(positions, from, to);
+        Arrays.sort(found);
+        String[] byPosition = new String[found.length];
+        for (int i = from; i < to; i++) {
+            byPosition[Arrays.binarySearch(found, positions[i])] = ids[i];
+        }
+        return Arrays.asList(byPosition);
+    }
+
+    private int firstAfter(final long min) {
+        int low = 0;
+        int high = resolved.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (resolved[mid] <= min) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String buildId(final String issueId, final String builderFormat) {
+        return builderFormat != null ? String.format(builderFormat, issueId) : issueId;
+    }
+}
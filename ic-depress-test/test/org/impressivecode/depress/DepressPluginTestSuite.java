@@ -33,6 +33,7 @@ import org.impressivecode.depress.mr.pmd.PMDTransformerTest;
 import org.impressivecode.depress.scm.SCMAdapterTableFactoryTest;
 import org.impressivecode.depress.scm.SCMAdapterTransformerTest;
 import org.impressivecode.depress.scm.SCMInputTransformerTest;
+import org.impressivecode.depress.support.activitymatcher.ActivityMarkerCellFactoryTest;
 import org.impressivecode.depress.support.extmarkerparser.ExtMarkerCellFactoryTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -63,6 +64,7 @@ import org.junit.runners.Suite;
     SCMAdapterTransformerTest.class,
     SCMInputTransformerTest.class,
     ExtMarkerCellFactoryTest.class,
+    ActivityMarkerCellFactoryTest.class,
 })
 //@formatter:on
 public class DepressPluginTestSuite {
@@ -20,6 +20,7 @@ package org.impressivecode.depress;
 import org.impressivecode.depress.data.anonymisation.DataAnonymisationTest;
 import org.impressivecode.depress.its.bugzilla.BugzillaEntriesParserTest;
 import org.impressivecode.depress.its.bugzillaonline.BugzillaOnlineClientAdapterIntegrationTest;
+import org.impressivecode.depress.its.bugzillaonline.BugzillaOnlineClientAdapterTest;
 import org.impressivecode.depress.its.bugzillaonline.BugzillaOnlineParserTest;
 import org.impressivecode.depress.its.bugzillaonline.BugzillaOnlineXmlRpcClientIntegrationTest;
 import org.impressivecode.depress.its.clearquest.ClearQuestEntriesParserTest;
@@ -27,6 +28,10 @@ import org.impressivecode.depress.its.hpqc.HPQCEntriesParserTest;
 import org.impressivecode.depress.its.jira.JiraEntriesParserTest;
 import org.impressivecode.depress.its.jiraonline.JiraOnlineAdapterParserTest;
 import org.impressivecode.depress.its.jiraonline.JiraOnlineAdapterRsClientTest;
+import org.impressivecode.depress.its.jiraonline.JiraOnlineSnapshotTest;
+import org.impressivecode.depress.mg.astmetrics.AstLogParserTest;
+import org.impressivecode.depress.mg.astmetrics.LocCounterTest;
+import org.impressivecode.depress.mg.astmetrics.MetricsAggregatorTest;
 import org.impressivecode.depress.mg.ipa.IssuesMetricMetricProcessorTest;
 import org.impressivecode.depress.mg.po.PeopleOrganizationMetricProcessorTest;
 import org.impressivecode.depress.mr.checkstyle.CheckStyleEntriesParserTest;
@@ -36,8 +41,13 @@ import org.impressivecode.depress.mr.jacoco.JaCoCoEntriesParserTest;
 import org.impressivecode.depress.mr.judy.JudyEntriesParserTest;
 import org.impressivecode.depress.mr.pmd.PMDEntriesParserTest;
 import org.impressivecode.depress.mr.pmd.PMDEntryTest;
+import org.impressivecode.depress.scm.SourceFingerprintTest;
+import org.impressivecode.depress.scm.cochange.CoChangeMatrixTest;
 import org.impressivecode.depress.scm.git.GitOfflineLogParserTest;
 import org.impressivecode.depress.scm.git.GitOnlineLogParserTest;
+import org.impressivecode.depress.scm.git.GitTreeDifferTest;
+import org.impressivecode.depress.scm.git.ast.AstLogParserThreadsTest;
+import org.impressivecode.depress.scm.git.ast.DistillerCacheTest;
 import org.impressivecode.depress.scm.svn.SVNOfflineParserTest;
 import org.impressivecode.depress.scm.svn.SVNOnlineParserTest;
 import org.impressivecode.depress.support.sematicanalysis.SimilarityMatcherTest;
@@ -57,6 +67,7 @@ import org.junit.runners.Suite;
     DataAnonymisationTest.class, 
     BugzillaEntriesParserTest.class,
     BugzillaOnlineClientAdapterIntegrationTest.class,
+    BugzillaOnlineClientAdapterTest.class,
     BugzillaOnlineParserTest.class,
     BugzillaOnlineXmlRpcClientIntegrationTest.class,
     ClearQuestEntriesParserTest.class,
@@ -64,6 +75,10 @@ import org.junit.runners.Suite;
     JiraEntriesParserTest.class,
     JiraOnlineAdapterParserTest.class,
     JiraOnlineAdapterRsClientTest.class,
+    JiraOnlineSnapshotTest.class,
+    AstLogParserTest.class,
+    LocCounterTest.class,
+    MetricsAggregatorTest.class,
     IssuesMetricMetricProcessorTest.class,
     PeopleOrganizationMetricProcessorTest.class,
     CheckStyleEntryTest.class,
@@ -73,9 +88,14 @@ import org.junit.runners.Suite;
     JudyEntriesParserTest.class,
     PMDEntriesParserTest.class,
     PMDEntryTest.class,
+    CoChangeMatrixTest.class,
     GitOfflineLogParserTest.class,
     SimilarityMatcherTest.class,
     GitOnlineLogParserTest.class,
+    GitTreeDifferTest.class,
+    AstLogParserThreadsTest.class,
+    DistillerCacheTest.class,
+    SourceFingerprintTest.class,
     SVNOfflineParserTest.class,
     SVNOnlineParserTest.class,
 })
@@ -0,0 +1,242 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.its.bugzillaonline;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.impressivecode.depress.its.ITSDataType;
+import org.impressivecode.depress.its.ITSStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeProgressMonitor;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the adapter against a local XML-RPC stub of a Bugzilla instance.
+ * 
+ * @author ImpressiveCode contributors
+ * 
+ */
+public class BugzillaOnlineClientAdapterTest {
+
+    private static final Pattern METHOD_NAME = Pattern.compile("<methodName>(.*)</methodName>");
+
+    private HttpServer server;
+    private Map<String, AtomicInteger> calls = new ConcurrentHashMap<String, AtomicInteger>();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/xmlrpc.cgi", new BugzillaStub());
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldFetchBugsWithHistoryAndComments() throws Exception {
+        // given
+        BugzillaOnlineClientAdapter clientAdapter = new BugzillaOnlineClientAdapter(serverUrl(), monitor());
+        BugzillaOnlineOptions options = new BugzillaOnlineOptions();
+        options.setProductName("Stub");
+
+        // when
+        List<ITSDataType> entries = clientAdapter.listEntries(options);
+
+        // then
+        assertThat(entries).hasSize(2);
+        ITSDataType first = entries.get(0);
+        assertThat(first.getIssueId()).isEqualTo("1");
+        assertThat(first.getStatus()).isEqualTo(ITSStatus.RESOLVED);
+        assertThat(first.getResolved()).isEqualTo(date("20130105T10:00:00"));
+        assertThat(first.getComments()).containsExactly("description of 1", "comment of 1");
+        assertThat(first.getCommentAuthors()).containsOnly("reporter@example.com", "developer@example.com");
+        assertThat(first.getDescription()).isEqualTo("description of 1");
+
+        ITSDataType second = entries.get(1);
+        assertThat(second.getIssueId()).isEqualTo("2");
+        assertThat(second.getStatus()).isEqualTo(ITSStatus.OPEN);
+        assertThat(second.getResolved()).isNull();
+        assertThat(second.getComments()).containsExactly("description of 2");
+    }
+
+    @Test
+    public void shouldRequestEachBugsPartOnce() throws Exception {
+        // given
+        BugzillaOnlineClientAdapter clientAdapter = new BugzillaOnlineClientAdapter(serverUrl(), monitor());
+        BugzillaOnlineOptions options = new BugzillaOnlineOptions();
+        options.setProductName("Stub");
+
+        // when
+        clientAdapter.listEntries(options);
+
+        // then
+        assertThat(calls.get(BugzillaOnlineClientAdapter.BUG_GET_METHOD).get()).isEqualTo(1);
+        assertThat(calls.get(BugzillaOnlineClientAdapter.BUG_HISTORY_METHOD).get()).isEqualTo(1);
+        assertThat(calls.get(BugzillaOnlineClientAdapter.BUG_COMMENT_METHOD).get()).isEqualTo(1);
+    }
+
+    private String serverUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/xmlrpc.cgi";
+    }
+
+    private ExecutionMonitor monitor() {
+        return new ExecutionMonitor(mock(NodeProgressMonitor.class));
+    }
+
+    private static Date date(final String value) throws Exception {
+        return new SimpleDateFormat("yyyyMMdd'T'HH:mm:ss").parse(value);
+    }
+
+    private class BugzillaStub implements HttpHandler {
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            InputStream in = exchange.getRequestBody();
+            String request = new String(ByteStreams.toByteArray(in), Charsets.UTF_8);
+            in.close();
+
+            Matcher matcher = METHOD_NAME.matcher(request);
+            String method = matcher.find() ? matcher.group(1) : "";
+            countCall(method);
+
+            byte[] response = response(responseValue(method)).getBytes(Charsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/xml");
+            exchange.sendResponseHeaders(200, response.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(response);
+            out.close();
+        }
+
+        private void countCall(final String method) {
+            synchronized (calls) {
+                if (!calls.containsKey(method)) {
+                    calls.put(method, new AtomicInteger());
+                }
+            }
+            calls.get(method).incrementAndGet();
+        }
+
+        private String responseValue(final String method) {
+            switch (method) {
+            case BugzillaOnlineClientAdapter.BUGZILLA_VERSION_METHOD:
+                return struct(member("version", string("4.4")));
+            case BugzillaOnlineClientAdapter.BUG_SEARCH_METHOD:
+                return struct(member("bugs", array(struct(member("id", integer(1))), struct(member("id", integer(2))))));
+            case BugzillaOnlineClientAdapter.BUG_GET_METHOD:
+                return struct(member("bugs", array(bug(1, "RESOLVED", "FIXED"), bug(2, "NEW", "---"))));
+            case BugzillaOnlineClientAdapter.BUG_HISTORY_METHOD:
+                return struct(member("bugs", array(
+                        struct(member("id", integer(2)), member("history", array())),
+                        struct(member("id", integer(1)), member("history", array(
+                                change("20130103T10:00:00", "RESOLVED"),
+                                change("20130104T10:00:00", "REOPENED"),
+                                change("20130105T10:00:00", "RESOLVED")))))));
+            case BugzillaOnlineClientAdapter.BUG_COMMENT_METHOD:
+                return struct(member("bugs", struct(
+                        member("1", struct(member("comments", array(comment("description of 1", "reporter@example.com"),
+                                comment("comment of 1", "developer@example.com"))))),
+                        member("2", struct(member("comments", array(comment("description of 2",
+                                "reporter@example.com"))))))));
+            default:
+                return struct();
+            }
+        }
+
+        private String bug(final int id, final String status, final String resolution) {
+            return struct(member("id", integer(id)), member("creation_time", dateTime("20130101T10:00:00")),
+                    member("last_change_time", dateTime("20130106T10:00:00")), member("status", string(status)),
+                    member("assigned_to", string("developer@example.com")),
+                    member("target_milestone", string("1.0")), member("version", string("1.0")),
+                    member("creator", string("reporter@example.com")), member("severity", string("major")),
+                    member("summary", string("bug " + id)), member("url", string("")),
+                    member("resolution", string(resolution)));
+        }
+
+        private String change(final String when, final String status) {
+            return struct(member("when", dateTime(when)), member("who", string("developer@example.com")),
+                    member("changes", array(struct(member("field_name", string("status")),
+                            member("added", string(status)), member("removed", string(""))))));
+        }
+
+        private String comment(final String text, final String author) {
+            return struct(member("text", string(text)), member("author", string(author)));
+        }
+
+        private String response(final String value) {
+            return "<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodResponse><params><param>" + value
+                    + "</param></params></methodResponse>";
+        }
+
+        private String struct(final String... members) {
+            StringBuilder builder = new StringBuilder("<value><struct>");
+            for (String member : members) {
+                builder.append(member);
+            }
+            return builder.append("</struct></value>").toString();
+        }
+
+        private String member(final String name, final String value) {
+            return "<member><name>" + name + "</name>" + value + "</member>";
+        }
+
+        private String array(final String... values) {
+            StringBuilder builder = new StringBuilder("<value><array><data>");
+            for (String value : values) {
+                builder.append(value);
+            }
+            return builder.append("</data></array></value>").toString();
+        }
+
+        private String string(final String value) {
+            return "<value><string>" + value + "</string></value>";
+        }
+
+        private String integer(final int value) {
+            return "<value><int>" + value + "</int></value>";
+        }
+
+        private String dateTime(final String value) {
+            return "<value><dateTime.iso8601>" + value + "</dateTime.iso8601></value>";
+        }
+    }
+}
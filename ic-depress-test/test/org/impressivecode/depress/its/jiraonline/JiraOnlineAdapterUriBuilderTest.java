@@ -23,7 +23,9 @@ import static org.hamcrest.core.IsNull.notNullValue;
 import static org.junit.Assert.assertThat;
 
 import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 import java.text.ParseException;
+import java.util.Calendar;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -125,6 +127,20 @@ public class JiraOnlineAdapterUriBuilderTest {
                 is(equalTo("https://dummyhostname.com/rest/api/latest/search?" + createLinkPart() + "&jql=")));
     }
 
+    @Test
+    public void shouldCreateLinkWithUpdatedSinceFilter() throws UnsupportedEncodingException {
+        // given
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(2014, Calendar.MAY, 1, 12, 30);
+        builder.setJQL("labels=metamodel");
+
+        // when
+        String query = URLDecoder.decode(builder.setUpdatedSince(calendar.getTime()).build().getRawQuery(), "UTF-8");
+
+        // then
+        assertThat(query, is(equalTo(createLinkPart() + "&jql=labels=metamodel AND updated >= \"2014-05-01\"")));
+    }
+
     private String createLinkPart() {
         return FIELDS + "&" + START_AT + "&" + MAX_RESULTS + JiraOnlineAdapterUriBuilder.ISSUES_PER_BATCH;
     }
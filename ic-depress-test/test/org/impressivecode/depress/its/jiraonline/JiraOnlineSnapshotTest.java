@@ -0,0 +1,183 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.its.jiraonline;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+
+import org.impressivecode.depress.its.ITSDataType;
+import org.impressivecode.depress.its.ITSPriority;
+import org.impressivecode.depress.its.jiraonline.model.JiraOnlineIssueChangeRowItem;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test suite for {@link JiraOnlineSnapshot}, the incremental download is
+ * checked on the search query it builds and on a canned search response.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class JiraOnlineSnapshotTest {
+
+    private static final String SEARCH_RESPONSE = "{\"startAt\":0,\"maxResults\":50,\"total\":2,\"issues\":["
+            + "{\"key\":\"DEP-2\",\"fields\":{\"summary\":\"changed\",\"updated\":\"2012-01-17T04:56:55.579-0800\","
+            + "\"comment\":{\"comments\":[]}}},"
+            + "{\"key\":\"DEP-3\",\"fields\":{\"summary\":\"created\",\"updated\":\"2012-01-17T05:00:00.000-0800\","
+            + "\"comment\":{\"comments\":[]}}}]}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldQueryOnlyUpdatedIssuesAndMergeThem() throws Exception {
+        // given
+        JiraOnlineSnapshot snapshot = new JiraOnlineSnapshot("query", issues(issue("DEP-1", date(10)),
+                issue("DEP-2", date(16))), new ArrayList<JiraOnlineIssueChangeRowItem>());
+        JiraOnlineAdapterUriBuilder builder = new JiraOnlineAdapterUriBuilder();
+        builder.setHostname("http://localhost");
+        builder.setUpdatedSince(snapshot.getUpdatedSince());
+
+        // when
+        URI search = builder.build();
+        List<ITSDataType> fetched = createParser().parseSingleIssueBatch(SEARCH_RESPONSE, builder.getHostname());
+        snapshot.merge(fetched, new ArrayList<JiraOnlineIssueChangeRowItem>(), false);
+
+        // then
+        assertThat(URLDecoder.decode(search.getRawQuery(), "UTF-8")).contains("jql=updated >= \"2012-01-15\"");
+        assertThat(ids(snapshot.getIssues())).containsExactly("DEP-1", "DEP-2", "DEP-3");
+        assertThat(snapshot.getIssues().get(1).getSummary()).isEqualTo("changed");
+    }
+
+    @Test
+    public void shouldReplaceHistoryOfFetchedIssues() {
+        // given
+        JiraOnlineSnapshot snapshot = new JiraOnlineSnapshot("query", issues(issue("DEP-1", date(10)),
+                issue("DEP-2", date(16))), history(change("DEP-1", "status"), change("DEP-2", "status")));
+
+        // when
+        snapshot.merge(issues(issue("DEP-2", date(17))), history(change("DEP-2", "status"), change("DEP-2",
+                "resolution")), true);
+
+        // then
+        assertThat(snapshot.getHistory()).hasSize(3);
+        assertThat(snapshot.getHistory().get(0).getKey()).isEqualTo("DEP-1");
+        assertThat(snapshot.getHistory().get(2).getField()).isEqualTo("resolution");
+        assertThat(snapshot.getHighWaterMark()).isEqualTo(date(17));
+    }
+
+    @Test
+    public void shouldKeepHistoryWhenItWasNotDownloaded() {
+        // given
+        JiraOnlineSnapshot snapshot = new JiraOnlineSnapshot("query", issues(issue("DEP-1", date(10))),
+                history(change("DEP-1", "status")));
+
+        // when
+        snapshot.merge(issues(issue("DEP-1", date(17))), new ArrayList<JiraOnlineIssueChangeRowItem>(), false);
+
+        // then
+        assertThat(snapshot.getHistory()).hasSize(1);
+    }
+
+    @Test
+    public void shouldSaveAndLoadSnapshot() throws IOException {
+        // given
+        ITSDataType issue = issue("DEP-1", date(10));
+        issue.setPriority(ITSPriority.MAJOR);
+        issue.setVersion(Collections.singletonList("1.0"));
+        JiraOnlineSnapshot snapshot = new JiraOnlineSnapshot("query", issues(issue), history(change("DEP-1",
+                "status")));
+        File file = new File(folder.getRoot(), "snapshot.json");
+
+        // when
+        snapshot.save(file);
+        JiraOnlineSnapshot loaded = JiraOnlineSnapshot.load(file);
+
+        // then
+        assertThat(loaded.getQuery()).isEqualTo("query");
+        assertThat(loaded.getIssues()).containsExactly(issue);
+        assertThat(loaded.getHistory().get(0).getField()).isEqualTo("status");
+        assertThat(loaded.getHighWaterMark()).isEqualTo(date(10));
+    }
+
+    @Test
+    public void shouldNotHaveHighWaterMarkWithoutIssues() {
+        JiraOnlineSnapshot snapshot = new JiraOnlineSnapshot();
+
+        assertThat(snapshot.getHighWaterMark()).isNull();
+        assertThat(snapshot.getUpdatedSince()).isNull();
+    }
+
+    private JiraOnlineAdapterParser createParser() {
+        HashMap<String, String[]> empty = new HashMap<String, String[]>();
+        return new JiraOnlineAdapterParser(empty, empty, empty, empty);
+    }
+
+    private static Date date(final int dayOfMonth) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2012, Calendar.JANUARY, dayOfMonth, 12, 0);
+        return calendar.getTime();
+    }
+
+    private static ITSDataType issue(final String key, final Date updated) {
+        ITSDataType issue = new ITSDataType();
+        issue.setIssueId(key);
+        issue.setUpdated(updated);
+        return issue;
+    }
+
+    private static List<ITSDataType> issues(final ITSDataType... issues) {
+        List<ITSDataType> list = new ArrayList<ITSDataType>();
+        Collections.addAll(list, issues);
+        return list;
+    }
+
+    private static JiraOnlineIssueChangeRowItem change(final String key, final String field) {
+        JiraOnlineIssueChangeRowItem change = new JiraOnlineIssueChangeRowItem();
+        change.setKey(key);
+        change.setField(field);
+        change.setTimestamp(date(1));
+        return change;
+    }
+
+    private static List<JiraOnlineIssueChangeRowItem> history(final JiraOnlineIssueChangeRowItem... changes) {
+        List<JiraOnlineIssueChangeRowItem> list = new ArrayList<JiraOnlineIssueChangeRowItem>();
+        Collections.addAll(list, changes);
+        return list;
+    }
+
+    private static List<String> ids(final List<ITSDataType> issues) {
+        List<String> ids = new ArrayList<String>();
+        for (ITSDataType issue : issues) {
+            ids.add(issue.getIssueId());
+        }
+        return ids;
+    }
+}
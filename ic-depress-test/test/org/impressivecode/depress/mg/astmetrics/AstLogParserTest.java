@@ -0,0 +1,156 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.mg.astmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.Date;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Runs the parser on a repository built for every test, with commit times set
+ * so the order of the commits of all branches is known.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class AstLogParserTest {
+    private static final String FILE = "src/org/x/A.java";
+    private static final String HEADER = "package org.x;\n\npublic class A {\n    public int m(int x) {\n"
+            + "        int y = x + 1;\n";
+    private static final String FOOTER = "        return y;\n    }\n}\n";
+    private static final String FIRST = HEADER + FOOTER;
+    private static final String SECOND = HEADER + "        if (y > 2) {\n            y = y * 2;\n        }\n" + FOOTER;
+    private static final String THIRD = HEADER + "        if (y > 2) {\n            y = y * 2;\n        }\n"
+            + "        for (int i = 0; i < x; i++) {\n            y += i;\n        }\n" + FOOTER;
+    private static final String SIDE = "package org.x;\n\npublic class A {\n    public int m(int x) {\n"
+            + "        return x;\n    }\n\n    public Object n() {\n        return null;\n    }\n}\n";
+
+    private File directory;
+    private File databaseDirectory;
+    private Git git;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDir();
+        databaseDirectory = Files.createTempDir();
+        git = Git.init().setDirectory(directory).call();
+    }
+
+    @After
+    public void tearDown() {
+        git.getRepository().close();
+        FileUtils.deleteQuietly(directory);
+        FileUtils.deleteQuietly(databaseDirectory);
+    }
+
+    @Test
+    public void shouldDistillAgainPairsWhosePreviousRevisionChanged() throws Exception {
+        // given
+        RevCommit first = commit(FIRST, 1000);
+        commit(SECOND, 2000);
+        commit(THIRD, 4000);
+        File database = new File(databaseDirectory, "metrics.db");
+        metrics(new DbHandler(database), first);
+        // a branch committed between the second and the third commit becomes
+        // the previous revision of the third one
+        git.branchCreate().setName("side").setStartPoint(first).call();
+        git.checkout().setName("side").call();
+        commit(SIDE, 3000);
+        git.checkout().setName("master").call();
+
+        // when
+        Map<String, MetricEntry> kept = metrics(new DbHandler(database), first);
+
+        // then
+        Map<String, MetricEntry> temporary = metrics(new DbHandler(), first);
+        assertFalse(temporary.isEmpty());
+        assertEquals(temporary, kept);
+    }
+
+    @Test
+    public void shouldReuseKeptDatabaseLikeTemporaryOne() throws Exception {
+        // given
+        RevCommit first = commit(FIRST, 1000);
+        commit(SECOND, 2000);
+        File database = new File(databaseDirectory, "metrics.db");
+        Map<String, MetricEntry> initial = metrics(new DbHandler(database), first);
+        Map<String, MetricEntry> unchanged = metrics(new DbHandler(database), first);
+        commit(THIRD, 3000);
+
+        // when
+        Map<String, MetricEntry> extended = metrics(new DbHandler(database), first);
+
+        // then
+        assertFalse(initial.isEmpty());
+        assertEquals(initial, unchanged);
+        assertEquals(metrics(new DbHandler(), first), extended);
+        assertFalse(initial.equals(extended));
+    }
+
+    @Test
+    public void shouldCalculateSameMetricsWithoutDatabase() throws Exception {
+        // given
+        RevCommit first = commit(FIRST, 1000);
+        commit(SECOND, 2000);
+        commit(THIRD, 3000);
+
+        // when
+        AstLogParser parser = new AstLogParser(new File(directory, ".git").getAbsolutePath(), "org.");
+        Map<String, MetricEntry> aggregated = parser.getMetrics("current", first.getName());
+
+        // then
+        Map<String, MetricEntry> queried = metrics(new DbHandler(), first);
+        assertFalse(queried.isEmpty());
+        assertEquals(queried, aggregated);
+    }
+
+    private Map<String, MetricEntry> metrics(final DbHandler db, final RevCommit bottom) throws Exception {
+        try {
+            AstLogParser parser = new AstLogParser(new File(directory, ".git").getAbsolutePath(), "org.", db);
+            return parser.getMetrics("current", bottom.getName());
+        } finally {
+            db.close();
+            db.destroyDbFile();
+        }
+    }
+
+    private RevCommit commit(final String source, final long seconds) throws Exception {
+        File file = new File(directory, FILE);
+        Files.createParentDirs(file);
+        Files.write(source, file, Charsets.UTF_8);
+        git.add().addFilepattern(FILE).call();
+        PersonIdent ident = new PersonIdent("Author", "author@example.com", new Date(seconds * 1000),
+                TimeZone.getTimeZone("UTC"));
+        return git.commit().setMessage("Commit " + seconds).setAuthor(ident).setCommitter(ident).call();
+    }
+}
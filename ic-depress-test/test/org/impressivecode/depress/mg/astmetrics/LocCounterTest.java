@@ -0,0 +1,166 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.mg.astmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.Files;
+
+/**
+ * Compares the counts of sources parsed without bindings with the counts of
+ * the same sources parsed from files with resolved bindings, as the counter
+ * did before.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class LocCounterTest {
+    private static final String[] SOURCES = {
+            "package org.x;\n\npublic class A {\n    public int m(int x) {\n        int y = x + 1;\n"
+                    + "        if (y > 2) {\n            y = y * 2;\n        }\n        return y;\n    }\n\n"
+                    + "    public void empty() {\n    }\n\n    public A() {\n        super();\n    }\n}\n",
+            "package org.x;\n\nimport java.util.List;\nimport java.util.Map;\n\npublic class B<T> {\n"
+                    + "    public <K> Map<K, List<T>> group(List<? extends T> items, Map<K, T>[] maps) {\n"
+                    + "        return null;\n    }\n\n    public int sum(int values[][], String... names) {\n"
+                    + "        int sum = 0;\n        for (int[] row : values) {\n            for (int v : row) {\n"
+                    + "                sum += v;\n            }\n        }\n        return sum;\n    }\n}\n",
+            "package org.x.y;\n\npublic class C {\n    public void outer() {\n        new Object();\n    }\n\n"
+                    + "    static class Inner {\n        void inner(Inner other) {\n            other.toString();\n"
+                    + "        }\n    }\n\n    interface Callback {\n        void call(String value);\n    }\n\n"
+                    + "    abstract static class Base implements Callback {\n        abstract int size();\n\n"
+                    + "        public void call(String value) {\n            System.out.println(value);\n"
+                    + "            System.out.println(size());\n        }\n    }\n}\n",
+            "public class D {\n    void unresolved(Missing missing) {\n        missing.run();\n    }\n}\n" };
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        directory = Files.createTempDir();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void shouldCountSameLinesAsParserWithBindings() throws Exception {
+        for (int i = 0; i < SOURCES.length; i++) {
+            // given
+            byte[] source = SOURCES[i].getBytes(Charset.defaultCharset());
+            Map<String, Integer> expected = countLocWithBindings(source, "T" + i + ".java");
+
+            // when
+            Map<String, Integer> methods = LocCounter.countLoc(source);
+
+            // then
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, methods);
+        }
+    }
+
+    @Test
+    public void shouldCountSameLinesFromCache() throws Exception {
+        // given
+        LocCounter counter = new LocCounter(2);
+        ObjectInserter.Formatter formatter = new ObjectInserter.Formatter();
+
+        for (String text : SOURCES) {
+            byte[] source = text.getBytes(Charset.defaultCharset());
+            ObjectId blob = formatter.idFor(Constants.OBJ_BLOB, source);
+
+            // when
+            Map<String, Integer> methods = counter.countLoc(blob, source);
+
+            // then
+            assertEquals(LocCounter.countLoc(source), methods);
+            assertSame(methods, counter.countLoc(blob, source));
+        }
+    }
+
+    @Test
+    public void shouldCountSameLinesOnThreads() throws Exception {
+        // given
+        final LocCounter counter = new LocCounter();
+        ObjectInserter.Formatter formatter = new ObjectInserter.Formatter();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Map<String, Integer>>> futures = new ArrayList<Future<Map<String, Integer>>>();
+        List<Map<String, Integer>> expected = new ArrayList<Map<String, Integer>>();
+
+        // when
+        try {
+            for (int i = 0; i < 10; i++) {
+                for (String text : SOURCES) {
+                    final byte[] source = text.getBytes(Charset.defaultCharset());
+                    final ObjectId blob = formatter.idFor(Constants.OBJ_BLOB, source);
+                    expected.add(LocCounter.countLoc(source));
+                    futures.add(executor.submit(new Callable<Map<String, Integer>>() {
+                        @Override
+                        public Map<String, Integer> call() {
+                            return counter.countLoc(blob, source);
+                        }
+                    }));
+                }
+            }
+
+            // then
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(expected.get(i), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, Integer> countLocWithBindings(byte[] source, String name) throws Exception {
+        File file = new File(directory, name);
+        Files.write(source, file);
+
+        ASTParser parser = ASTParser.newParser(AST.JLS4);
+        parser.setEnvironment(new String[] { "." }, new String[] { file.getParent() }, null, false);
+        parser.setResolveBindings(true);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setSource(FileUtils.readFileToString(file).toCharArray());
+
+        return LocCounter.countLoc((CompilationUnit) parser.createAST(null));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.mg.astmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Compares {@link MetricsAggregator} with the SQL queries of
+ * {@link DbHandler} it replaces, on the same changes.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class MetricsAggregatorTest {
+    private static final String[] CHANGE_TYPES = { "STATEMENT_INSERT", "STATEMENT_UPDATE", "STATEMENT_DELETE",
+            "STATEMENT_PARENT_CHANGE", "STATEMENT_ORDERING_CHANGE", "CONDITION_EXPRESSION_CHANGE",
+            "ALTERNATIVE_PART_INSERT", "ALTERNATIVE_PART_UPDATE", "ALTERNATIVE_PART_DELETE", "RETURN_TYPE_CHANGE",
+            "METHOD_RENAMING", "PARAMETER_INSERT", "PARAMETER_TYPE_CHANGE", "INCREASING_ACCESSIBILITY_CHANGE",
+            "ADDITIONAL_FUNCTIONALITY" };
+    private static final String[] CHANGE_ENTITIES = { "FOR_STATEMENT: for (int i = 0; i < n; i++)",
+            "while_statement: while (x)", "VARIABLE_DECLARATION_STATEMENT: int a = null;",
+            "ASSIGNMENT: a = new B();", "RETURN_STATEMENT: return NULL;", "SWITCH_CASE: case 1:",
+            "BREAK_STATEMENT: break;", "CATCH_CLAUSE: catch (E e)", "THROW_STATEMENT: throw new E();",
+            "METHOD_INVOCATION: Class.forName(name);", "METHOD_INVOCATION: b.clone();",
+            "METHOD_INVOCATION: c.newInstance();", "METHOD_INVOCATION: in.readObject();", "FORXSTATEMENT",
+            "IF_STATEMENT: if (renewed)" };
+
+    @Test
+    public void shouldCalculateMetricsOfDatabase() throws Exception {
+        // given
+        List<SingleChangeInfo> changes = changes(new Random(42), 2000);
+        List<String> revisions = new ArrayList<String>();
+        for (SingleChangeInfo change : changes) {
+            revisions.add(change.getRevisionId());
+        }
+        MetricsAggregator aggregator = new MetricsAggregator();
+        DbHandler db = new DbHandler();
+        db.connect();
+
+        // when
+        Map<String, MetricEntry> expected;
+        try {
+            for (SingleChangeInfo change : changes) {
+                db.insertChangeData(change);
+                aggregator.insertChangeData(change);
+            }
+            db.setRevisions(revisions);
+            db.calculateMetrics();
+            expected = db.getMetrics();
+        } finally {
+            db.close();
+            db.destroyDbFile();
+        }
+        aggregator.calculateMetrics();
+
+        // then
+        assertFalse(expected.isEmpty());
+        assertEquals(changes.size(), aggregator.countData());
+        assertEquals(expected, aggregator.getMetrics());
+    }
+
+    private static List<SingleChangeInfo> changes(final Random random, final int count) {
+        List<SingleChangeInfo> changes = new ArrayList<SingleChangeInfo>();
+        for (int i = 0; i < count; i++) {
+            SingleChangeInfo change = new SingleChangeInfo();
+            change.setMethodName("org.x.A.m" + random.nextInt(40) + "()");
+            change.setAuthor("author" + random.nextInt(4));
+            change.setRevisionId("revision" + random.nextInt(60));
+            change.setChangeType(CHANGE_TYPES[random.nextInt(CHANGE_TYPES.length)]);
+            change.setChangeEntity(CHANGE_ENTITIES[random.nextInt(CHANGE_ENTITIES.length)]);
+            changes.add(change);
+        }
+        return changes;
+    }
+}
@@ -22,8 +22,11 @@ import static org.impressivecode.depress.common.TableCellReader.reader;
 import static org.impressivecode.depress.scm.SCMAdapterTableFactory.ACTION_COLNAME;
 import static org.impressivecode.depress.scm.SCMAdapterTableFactory.AUTHOR_COLNAME;
 import static org.impressivecode.depress.scm.SCMAdapterTableFactory.DATE_COLNAME;
+import static org.impressivecode.depress.scm.SCMAdapterTableFactory.LINES_ADDED_COLNAME;
+import static org.impressivecode.depress.scm.SCMAdapterTableFactory.LINES_DELETED_COLNAME;
 import static org.impressivecode.depress.scm.SCMAdapterTableFactory.MESSAGE_COLNAME;
 import static org.impressivecode.depress.scm.SCMAdapterTableFactory.PATH_COLNAME;
+import static org.impressivecode.depress.scm.SCMAdapterTableFactory.REPOSITORY_COLNAME;
 import static org.impressivecode.depress.scm.SCMAdapterTableFactory.RESOURCE_NAME;
 import static org.impressivecode.depress.scm.SCMAdapterTableFactory.createDataColumnSpec;
 import static org.junit.Assert.assertEquals;
@@ -36,6 +39,7 @@ import java.util.Date;
 import org.junit.Test;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.IntCell;
 
 /**
  * 
@@ -127,6 +131,47 @@ public class SCMAdapterTableFactoryTest {
         assertThat(reader(createDataColumnSpec(), row).string(ACTION_COLNAME)).isEqualTo("MODIFIED");
     }
 
+    @Test
+    public void shouldCreateChurnDataColumnSpec() {
+        DataTableSpec colSpec = SCMAdapterTableFactory.createChurnDataColumnSpec();
+        assertEquals(10, colSpec.getNumColumns());
+        assertEquals(PATH_COLNAME, colSpec.getColumnSpec(5).getName());
+    }
+
+    @Test
+    public void shouldTransformChurn() {
+        // given
+        SCMDataType scm = mockSCMDataType();
+        when(scm.getLinesAdded()).thenReturn(7);
+        when(scm.getLinesDeleted()).thenReturn(null);
+        // when
+        DataRow row = SCMAdapterTableFactory.createChurnTableRow("rowId", scm);
+
+        // then
+        DataTableSpec spec = SCMAdapterTableFactory.createChurnDataColumnSpec();
+        assertThat(reader(spec, row).string(PATH_COLNAME)).isEqualTo("path");
+        assertEquals(7, ((IntCell) row.getCell(spec.findColumnIndex(LINES_ADDED_COLNAME))).getIntValue());
+        assertThat(row.getCell(spec.findColumnIndex(LINES_DELETED_COLNAME)).isMissing()).isTrue();
+    }
+
+    @Test
+    public void shouldTransformChurnAndRepository() {
+        // given
+        SCMDataType scm = mockSCMDataType();
+        when(scm.getLinesAdded()).thenReturn(7);
+        when(scm.getRepository()).thenReturn("git@host:service.git");
+        // when
+        DataRow row = SCMAdapterTableFactory.createTableRow("rowId", scm, true, true);
+
+        // then
+        DataTableSpec spec = SCMAdapterTableFactory.createRepositoryDataColumnSpec(SCMAdapterTableFactory
+                .createChurnDataColumnSpec());
+        assertEquals(11, spec.getNumColumns());
+        assertEquals(11, row.getNumCells());
+        assertEquals(7, ((IntCell) row.getCell(spec.findColumnIndex(LINES_ADDED_COLNAME))).getIntValue());
+        assertThat(reader(spec, row).string(REPOSITORY_COLNAME)).isEqualTo("git@host:service.git");
+    }
+
     private SCMDataType mockSCMDataType() {
         SCMDataType scm = mock(SCMDataType.class, RETURNS_DEEP_STUBS);
         when(scm.getResourceName()).thenReturn("resource");
@@ -18,7 +18,9 @@
 package org.impressivecode.depress.scm;
 
 import static org.impressivecode.depress.its.ITSAdapterTableFactory.createDataColumnSpec;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -26,6 +28,7 @@ import static org.mockito.Mockito.when;
 import java.util.Date;
 import java.util.List;
 
+import org.impressivecode.depress.common.OutputSink;
 import org.impressivecode.depress.common.OutputTransformer;
 import org.junit.Test;
 import org.knime.core.data.DataRow;
@@ -61,6 +64,43 @@ public class SCMAdapterTransformerTest {
         verify(container, times(2)).addRowToTable(Mockito.any(DataRow.class));
     }
 
+    @Test
+    public void shouldWriteEntriesAsTheyArePushed() throws CanceledExecutionException {
+        // given
+        BufferedDataContainer container = mock(BufferedDataContainer.class);
+        ExecutionContext exec = mock(ExecutionContext.class);
+        when(exec.createDataContainer(Mockito.any(DataTableSpec.class))).thenReturn(container);
+        OutputSink<SCMDataType> sink = new SCMAdapterTransformer(createDataColumnSpec()).open(exec);
+
+        // when
+        sink.entryParsed(create("path1"));
+
+        // then
+        verify(container).addRowToTable(Mockito.any(DataRow.class));
+        verify(container, never()).close();
+
+        // when
+        sink.entryParsed(create("path2"));
+        sink.close();
+
+        // then
+        verify(container, times(2)).addRowToTable(Mockito.any(DataRow.class));
+        verify(container).close();
+    }
+
+    @Test(expected = CanceledExecutionException.class)
+    public void shouldStopPushingWhenCanceled() throws CanceledExecutionException {
+        // given
+        BufferedDataContainer container = mock(BufferedDataContainer.class);
+        ExecutionContext exec = mock(ExecutionContext.class);
+        when(exec.createDataContainer(Mockito.any(DataTableSpec.class))).thenReturn(container);
+        doThrow(new CanceledExecutionException()).when(exec).checkCanceled();
+        OutputSink<SCMDataType> sink = new SCMAdapterTransformer(createDataColumnSpec()).open(exec);
+
+        // when
+        sink.entryParsed(create("path1"));
+    }
+
     private SCMDataType create(final String path) {
         SCMDataType scm = new SCMDataType();
         scm.setAuthor("a");
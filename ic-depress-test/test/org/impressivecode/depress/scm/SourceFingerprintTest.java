@@ -0,0 +1,80 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+
+/**
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class SourceFingerprintTest {
+    private static final String SOURCE = "/* License v1 */\npackage org.x;\n\npublic class A {\n"
+            + "    public int m(int x) {\n        int y = x * 2 + 1;\n        return x + foo(y, 3);\n    }\n}\n";
+
+    @Test
+    public void shouldIgnoreFormatting() {
+        String reformatted = "package org.x;\npublic class A\n{\n\tpublic int m( int x )\n\t{\n"
+                + "\t\tint y = x*2+1;\n\t\treturn x +\n\t\t\tfoo(y,\n\t\t\t\t3);\n\t}\n}";
+        assertEquals(fingerprint(SOURCE, false), fingerprint(reformatted, false));
+    }
+
+    @Test
+    public void shouldIgnoreCommentsOnlyWhenAsked() {
+        String commented = SOURCE.replace("License v1", "License v2").replace("return", "// why\n return");
+        assertEquals(fingerprint(SOURCE, false), fingerprint(commented, false));
+        assertFalse(fingerprint(SOURCE, true).equals(fingerprint(commented, true)));
+    }
+
+    @Test
+    public void shouldEndLineComments() {
+        assertFalse(fingerprint("// log\nfoo();", true).equals(fingerprint("// log foo();", true)));
+        assertEquals(fingerprint("// log\nfoo();", true), fingerprint("// log\n\n    foo();", true));
+    }
+
+    @Test
+    public void shouldSeparateWordsAndOperators() {
+        assertFalse(fingerprint("int a = b + +c;", false).equals(fingerprint("int a = b ++c;", false)));
+        assertFalse(fingerprint("return x;", false).equals(fingerprint("returnx;", false)));
+        assertEquals(fingerprint("a [ i ] = b ;", false), fingerprint("a[i]=b;", false));
+    }
+
+    @Test
+    public void shouldKeepLiterals() {
+        assertFalse(fingerprint("s = \"a  b\";", false).equals(fingerprint("s = \"a b\";", false)));
+        assertFalse(fingerprint("s = \"/* x */\";", false).equals(fingerprint("s = \"\";", false)));
+        assertEquals(fingerprint("s = \"a\\\"//b\";", false), fingerprint("s=\"a\\\"//b\" ;", false));
+        assertFalse(fingerprint("c = ' ';", false).equals(fingerprint("c = '\t';", false)));
+    }
+
+    @Test
+    public void shouldDetectCodeChanges() {
+        assertFalse(fingerprint(SOURCE, false).equals(fingerprint(SOURCE.replace("x * 2", "x * 3"), false)));
+    }
+
+    private static HashCode fingerprint(final String source, final boolean keepComments) {
+        return SourceFingerprint.of(source.getBytes(Charsets.UTF_8), keepComments);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ ImpressiveCode Depress Framework
+ Copyright (C) 2013  ImpressiveCode contributors
+
+ This program is free software: you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation, either version 3 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License
+ along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.cochange;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * 
+ * @author ImpressiveCode contributors
+ * 
+ */
+public class CoChangeMatrixTest {
+
+    @Test
+    public void shouldCountFilesChangedTogether() {
+        // given
+        CoChangeMatrix matrix = new CoChangeMatrix(0);
+        add(matrix, "c1", "A.java", "B.java", "C.java");
+        add(matrix, "c2", "B.java", "A.java");
+        add(matrix, "c3", "C.java", "B.java");
+        add(matrix, "c4", "B.java", "A.java", "A.java");
+        // when
+        List<CoChange> top = matrix.top(1, 10);
+
+        // then
+        assertEquals(3, top.size());
+        assertCoChange(top.get(0), "A.java", "B.java", 3, 3, 4);
+        assertCoChange(top.get(1), "B.java", "C.java", 2, 4, 2);
+        assertCoChange(top.get(2), "A.java", "C.java", 1, 3, 2);
+    }
+
+    @Test
+    public void shouldGroupChangesOfCommitThatAreNotAdjacent() {
+        // given
+        CoChangeMatrix matrix = new CoChangeMatrix(0);
+        matrix.add("c1", "A.java");
+        matrix.add("c2", "A.java");
+        matrix.add("c1", "B.java");
+        matrix.add("c2", "B.java");
+        // when
+        List<CoChange> top = matrix.top(1, 10);
+
+        // then
+        assertEquals(1, top.size());
+        assertCoChange(top.get(0), "A.java", "B.java", 2, 2, 2);
+    }
+
+    @Test
+    public void shouldSkipPairsBelowMinSupportAndBeyondLimit() {
+        // given
+        CoChangeMatrix matrix = new CoChangeMatrix(0);
+        add(matrix, "c1", "A.java", "B.java", "C.java", "D.java");
+        add(matrix, "c2", "A.java", "B.java", "C.java");
+        add(matrix, "c3", "A.java", "B.java");
+        // when
+        List<CoChange> top = matrix.top(2, 2);
+
+        // then
+        assertEquals(2, top.size());
+        assertCoChange(top.get(0), "A.java", "B.java", 3, 3, 3);
+        assertCoChange(top.get(1), "A.java", "C.java", 2, 3, 2);
+    }
+
+    @Test
+    public void shouldNotPairCommitsWithTooManyFiles() {
+        // given
+        CoChangeMatrix matrix = new CoChangeMatrix(2);
+        add(matrix, "c1", "A.java", "B.java", "C.java");
+        add(matrix, "c2", "A.java", "B.java");
+        // when
+        List<CoChange> top = matrix.top(1, 10);
+
+        // then
+        assertEquals(1, top.size());
+        assertCoChange(top.get(0), "A.java", "B.java", 1, 2, 2);
+        assertEquals(1, matrix.getSkippedCommits());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveMinSupport() {
+        new CoChangeMatrix(0).top(0, 10);
+    }
+
+    private static void add(final CoChangeMatrix matrix, final String commitId, final String... paths) {
+        for (String path : paths) {
+            matrix.add(commitId, path);
+        }
+    }
+
+    private static void assertCoChange(final CoChange coChange, final String firstPath, final String secondPath,
+            final int coChanges, final int firstChanges, final int secondChanges) {
+        assertEquals(firstPath, coChange.getFirstPath());
+        assertEquals(secondPath, coChange.getSecondPath());
+        assertEquals(coChanges, coChange.getCoChanges());
+        assertEquals(firstChanges, coChange.getFirstChanges());
+        assertEquals(secondChanges, coChange.getSecondChanges());
+    }
+}
@@ -26,8 +26,11 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
+import org.impressivecode.depress.common.EntryListener;
 import org.impressivecode.depress.scm.SCMOperation;
 import org.impressivecode.depress.scm.SCMParserOptions;
 import org.junit.Before;
@@ -43,6 +46,10 @@ import org.junit.Test;
 public class GitOfflineLogParserTest {
 
     private final static String logFilePath = GitOfflineLogParserTest.class.getResource("git-test-log.txt").getPath();
+    private final static String recordLogFilePath = GitOfflineLogParserTest.class.getResource("git-test-log-z.txt")
+            .getPath();
+    private final static String separatorLogFilePath = GitOfflineLogParserTest.class.getResource(
+            "git-test-log-z-separator.txt").getPath();
     private GitOfflineLogParser parser;
 
     @Before
@@ -74,6 +81,14 @@ public class GitOfflineLogParserTest {
         throw new IllegalStateException("Fail");
     }
 
+    private List<GitCommit> recordCommits() throws IOException, ParseException {
+        return new GitOfflineLogParser(recordOptions()).parseEntries(recordLogFilePath);
+    }
+
+    private SCMParserOptions recordOptions() {
+        return options("org.", new ArrayList<String>(Arrays.asList("*")));
+    }
+
     private GitCommit packageCommit(String packageName) throws IOException, ParseException {
     	ArrayList<String> ext = new ArrayList<String>();
     	ext.add(".java");
@@ -165,4 +180,112 @@ public class GitOfflineLogParserTest {
     public void shouldCommitWithPackageMatch() throws Exception {
     	assertThat(packageCommit("org.spring.").getFiles()).hasSize(0);
     }
+
+    @Test
+    public void shouldParseChunksInLogOrder() throws Exception {
+        List<GitCommit> expected = parser.parseEntries(logFilePath);
+        parser.setThreads(3);
+        parser.setChunkSize(500);
+        List<GitCommit> commits = parser.parseEntries(logFilePath);
+
+        assertThat(commits).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), commits.get(i).getId());
+            assertEquals(expected.get(i).getMessage(), commits.get(i).getMessage());
+            assertThat(commits.get(i).getFiles()).hasSize(expected.get(i).getFiles().size());
+        }
+    }
+
+    @Test
+    public void shouldPassCommitsToListener() throws Exception {
+        final List<String> ids = new ArrayList<String>();
+        parser.parseEntries(logFilePath, new EntryListener<GitCommit>() {
+            @Override
+            public void entryParsed(final GitCommit commit) {
+                ids.add(commit.getId());
+            }
+        });
+        assertThat(ids).hasSize(51);
+        assertEquals("965885f3c9f03b62a41e79d8f95d3e0b2620215f", ids.get(0));
+    }
+
+    @Test
+    public void shouldCountRecordCommits() throws Exception {
+        List<GitCommit> commits = recordCommits();
+        assertEquals(3, commits.size());
+        assertThat(commits.get(0).getFiles()).isEmpty();
+        assertThat(commits.get(2).getFiles()).hasSize(5);
+    }
+
+    @Test
+    public void shouldParseRecordCommit() throws Exception {
+        GitCommit commit = recordCommits().get(2);
+        assertEquals("b884d40427de34055dff8e295afb89b2c9512b27", commit.getId());
+        assertEquals("Marek Majchrzak", commit.getAuthor());
+        assertEquals("initial importwith a body line", commit.getMessage());
+        assertThat(commit.getDate()).isEqualTo(new Date(1400000000 * 1000l));
+    }
+
+    @Test
+    public void shouldParseRecordPathsVerbatim() throws Exception {
+        List<GitCommitFile> files = recordCommits().get(2).getFiles();
+        assertEquals("docs/new\nline.txt", files.get(0).getPath());
+        assertEquals("docs/tab\tname.txt", files.get(1).getPath());
+        assertEquals("src/org/ic/Za\u017c\u00f3\u0142\u0107.java", files.get(4).getPath());
+        assertEquals("org.ic.Za\u017c\u00f3\u0142\u0107", files.get(4).getJavaClass());
+    }
+
+    @Test
+    public void shouldParseRecordLineCounts() throws Exception {
+        List<GitCommitFile> files = recordCommits().get(2).getFiles();
+        assertEquals(SCMOperation.ADDED, files.get(3).getOperation());
+        assertEquals(Integer.valueOf(5), files.get(3).getLinesAdded());
+        assertEquals(Integer.valueOf(0), files.get(3).getLinesDeleted());
+        assertEquals("img/logo.png", files.get(2).getPath());
+        assertEquals(null, files.get(2).getLinesAdded());
+        assertEquals(null, files.get(2).getLinesDeleted());
+    }
+
+    @Test
+    public void shouldParseRecordRename() throws Exception {
+        List<GitCommitFile> files = recordCommits().get(1).getFiles();
+        assertThat(files).hasSize(4);
+        assertEquals(SCMOperation.DELETED, files.get(0).getOperation());
+        assertEquals(Integer.valueOf(1), files.get(0).getLinesDeleted());
+        assertEquals("src/org/ic/B.java", files.get(2).getPath());
+        assertEquals(SCMOperation.RENAMED, files.get(2).getOperation());
+        assertEquals("org.ic.B", files.get(2).getJavaClass());
+    }
+
+    @Test
+    public void shouldParseRecordChunksInLogOrder() throws Exception {
+        List<GitCommit> expected = recordCommits();
+        GitOfflineLogParser chunked = new GitOfflineLogParser(recordOptions());
+        chunked.setThreads(3);
+        chunked.setChunkSize(100);
+        List<GitCommit> commits = chunked.parseEntries(recordLogFilePath);
+
+        assertThat(commits).hasSize(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), commits.get(i).getId());
+            assertThat(commits.get(i).getFiles()).hasSize(expected.get(i).getFiles().size());
+        }
+    }
+
+    @Test
+    public void shouldKeepRecordSeparatorsInMessagesAndPaths() throws Exception {
+        for (long chunkSize : new long[] { 1024, 150, 10 }) {
+            GitOfflineLogParser chunked = new GitOfflineLogParser(recordOptions());
+            chunked.setThreads(3);
+            chunked.setChunkSize(chunkSize);
+            List<GitCommit> commits = chunked.parseEntries(separatorLogFilePath);
+
+            assertThat(commits).hasSize(2);
+            assertEquals("separator before a hash\u001e0123456789abcdef0123456789abcdef01234567", commits.get(0)
+                    .getMessage());
+            assertEquals("docs/sep\u001ename.txt", commits.get(0).getFiles().get(0).getPath());
+            assertEquals("initial\u001e import", commits.get(1).getMessage());
+            assertThat(commits.get(1).getFiles()).hasSize(1);
+        }
+    }
 }
@@ -22,12 +22,16 @@ import static org.fest.assertions.Assertions.assertThat;
 import static org.impressivecode.depress.scm.git.GitParserOptions.options;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -36,10 +40,13 @@ import net.lingala.zip4j.exception.ZipException;
 
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.NoHeadException;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.impressivecode.depress.common.EntryListener;
 import org.impressivecode.depress.scm.SCMOperation;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.knime.core.node.ExecutionMonitor;
 
 /**
  * 
@@ -209,4 +216,149 @@ public class GitOnlineLogParserTest {
     public void shouldGetCurrentBranch() throws Exception {
         assertEquals("dev", GitOnlineLogParser.getCurrentBranch(repoPath));
     }
+
+    @Test
+    public void shouldReadOnlyCommitsAddedSinceProcessedOne() throws Exception {
+        GitParserOptions master = options("org.", "master");
+        List<GitCommit> all = new GitOnlineLogParser().parseEntries(repoPath, master);
+        String tip = GitOnlineLogParser.getTip(repoPath, master);
+        String processed = all.get(10).getId();
+
+        List<String> old = new ArrayList<String>();
+        new GitOnlineLogParser().parseEntries(repoPath, master, processed, Collections.<String> emptySet(),
+                collect(old));
+        List<String> added = new ArrayList<String>();
+        new GitOnlineLogParser().parseEntries(repoPath, master, tip, Collections.singleton(processed),
+                collect(added));
+
+        assertEquals(tip, all.get(0).getId());
+        assertThat(added).excludes(old.toArray());
+        assertEquals(all.size(), old.size() + added.size());
+        assertThat(added).contains(all.get(0).getId());
+    }
+
+    @Test
+    public void shouldFindAncestor() throws Exception {
+        GitParserOptions master = options("org.", "master");
+        List<GitCommit> all = new GitOnlineLogParser().parseEntries(repoPath, master);
+        String tip = all.get(0).getId();
+
+        assertTrue(GitOnlineLogParser.isAncestor(repoPath, all.get(10).getId(), tip));
+        assertTrue(GitOnlineLogParser.isAncestor(repoPath, tip, tip));
+        assertFalse(GitOnlineLogParser.isAncestor(repoPath, tip, all.get(10).getId()));
+        assertFalse(GitOnlineLogParser.isAncestor(repoPath, "0123456789012345678901234567890123456789", tip));
+    }
+
+    @Test
+    public void shouldReadOnlyFilesWithConfiguredExtensions() throws Exception {
+        ArrayList<String> extensions = new ArrayList<String>();
+        extensions.add(".xml");
+        int xmlFiles = 0;
+        for (GitCommit c : new GitOnlineLogParser().parseEntries(repoPath, options("org.", null))) {
+            for (GitCommitFile file : c.getFiles()) {
+                if (file.getPath().toLowerCase().endsWith(".xml")) {
+                    xmlFiles++;
+                }
+            }
+        }
+
+        int files = 0;
+        for (GitCommit c : new GitOnlineLogParser().parseEntries(repoPath, options("org.", extensions, null))) {
+            for (GitCommitFile file : c.getFiles()) {
+                assertEquals("xml", file.getExtension().toLowerCase());
+                files++;
+            }
+        }
+        assertTrue(xmlFiles > 0);
+        assertEquals(xmlFiles, files);
+    }
+
+    @Test
+    public void shouldCountLinesOnlyWhenEnabled() throws Exception {
+        assertEquals(null, specificCommit().getFiles().get(0).getLinesAdded());
+
+        GitOnlineLogParser parser = new GitOnlineLogParser();
+        parser.setCountLines(true);
+        for (GitCommit c : parser.parseEntries(repoPath, options("org.", null))) {
+            if (c.getId().equals("45a2beca9d97777733e1a472e54c003551b7d9b1")) {
+                GitCommitFile added = c.getFiles().get(0);
+                assertEquals(SCMOperation.ADDED, added.getOperation());
+                assertTrue(added.getLinesAdded() > 0);
+                assertEquals(Integer.valueOf(0), added.getLinesDeleted());
+                GitCommitFile deleted = c.getFiles().get(2);
+                assertEquals(SCMOperation.DELETED, deleted.getOperation());
+                assertEquals(Integer.valueOf(0), deleted.getLinesAdded());
+                assertTrue(deleted.getLinesDeleted() > 0);
+                return;
+            }
+        }
+        throw new IllegalStateException("Fail");
+    }
+
+    @Test
+    public void shouldReadBareSingleBranchClone() throws Exception {
+        File clone = new File(tempDir, "clone.git");
+        GitOnlineLogParser.cloneRepository("file://" + repoPath, clone.getAbsolutePath(),
+                GitCloneOptions.options(true, "master"), NullProgressMonitor.INSTANCE);
+
+        assertTrue(GitOnlineLogParser.isGitDirectory(clone));
+        assertFalse(new File(clone, ".git").exists());
+        assertThat(GitOnlineLogParser.getBranches(clone.getAbsolutePath())).containsOnly("master");
+        List<GitCommit> commits = new GitOnlineLogParser().parseEntries(clone.getAbsolutePath(), options("org.", null));
+        assertEquals(43, commits.size());
+        assertEquals("c10f2ad763c3c78ba267d473608253d9796542cc", commits.get(0).getId());
+    }
+
+    @Test
+    public void shouldReadManyRepositoriesInOrder() throws Exception {
+        List<String> repositories = Arrays.asList("file://" + repoPath, repoPath, "file://" + repoPath);
+        final List<GitOnlineBatchParser.RepositoryLog> logs = new ArrayList<GitOnlineBatchParser.RepositoryLog>();
+        GitOnlineBatchParser batchParser = new GitOnlineBatchParser();
+        batchParser.setThreads(2);
+        batchParser.parseEntries(repositories, options("org.", "master"), new ExecutionMonitor(),
+                new EntryListener<GitOnlineBatchParser.RepositoryLog>() {
+                    @Override
+                    public void entryParsed(final GitOnlineBatchParser.RepositoryLog log) {
+                        logs.add(log);
+                    }
+                });
+
+        assertEquals(3, logs.size());
+        for (int i = 0; i < repositories.size(); i++) {
+            assertEquals(repositories.get(i), logs.get(i).getRepository());
+            assertEquals(43, logs.get(i).getCommits().size());
+            assertEquals("c10f2ad763c3c78ba267d473608253d9796542cc", logs.get(i).getCommits().get(0).getId());
+        }
+        assertTrue(GitOnlineBatchParser.isRemote("git@github.com:impressivecode/depress.git"));
+        assertFalse(GitOnlineBatchParser.isRemote(repoPath));
+    }
+
+    @Test
+    public void shouldReadHeadOfRepositoriesWithoutBranch() throws Exception {
+        List<String> repositories = Arrays.asList(repoPath, "file://" + repoPath);
+        final List<GitOnlineBatchParser.RepositoryLog> logs = new ArrayList<GitOnlineBatchParser.RepositoryLog>();
+        GitOnlineBatchParser batchParser = new GitOnlineBatchParser();
+        batchParser.parseEntries(repositories, options("org.", "missing"), new ExecutionMonitor(),
+                new EntryListener<GitOnlineBatchParser.RepositoryLog>() {
+                    @Override
+                    public void entryParsed(final GitOnlineBatchParser.RepositoryLog log) {
+                        logs.add(log);
+                    }
+                });
+
+        assertEquals(2, logs.size());
+        for (GitOnlineBatchParser.RepositoryLog log : logs) {
+            assertEquals(43, log.getCommits().size());
+            assertEquals("c10f2ad763c3c78ba267d473608253d9796542cc", log.getCommits().get(0).getId());
+        }
+    }
+
+    private static EntryListener<GitCommit> collect(final List<String> ids) {
+        return new EntryListener<GitCommit>() {
+            @Override
+            public void entryParsed(final GitCommit commit) {
+                ids.add(commit.getId());
+            }
+        };
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git;
+
+import static org.impressivecode.depress.scm.git.GitParserOptions.options;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.patch.FileHeader;
+import org.eclipse.jgit.patch.FileHeader.PatchType;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.impressivecode.depress.common.EntryListener;
+import org.impressivecode.depress.scm.git.GitTreeDiffer.FileDiff;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Compares the diffs of a window of commits on a pool with the diffs of a
+ * single formatter walking the commits one by one, on a generated repository
+ * with more commits than the window.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class GitTreeDifferTest {
+    private static final int COMMITS = 60;
+    private static final String[] PATHS = { "src/org/x/A.java", "src/org/x/B.java", "src/org/y/C.java",
+            "docs/readme.txt", "img/logo.png" };
+
+    private File directory;
+    private Git git;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDir();
+        git = Git.init().setDirectory(directory).call();
+        generateHistory(new Random(7));
+    }
+
+    @After
+    public void tearDown() {
+        git.getRepository().close();
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void shouldDiffLikeSingleFormatter() throws Exception {
+        // given
+        Repository repository = git.getRepository();
+        GitTreeDiffer differ = new GitTreeDiffer(repository, TreeFilter.ALL, true, 2);
+        DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
+        formatter.setRepository(repository);
+        formatter.setDiffComparator(RawTextComparator.DEFAULT);
+        formatter.setDetectRenames(true);
+        RevWalk walk = new RevWalk(repository);
+        List<String> expected = new ArrayList<String>();
+        List<String> actual = new ArrayList<String>();
+
+        // when
+        try {
+            walk.markStart(walk.parseCommit(repository.resolve("HEAD")));
+            Deque<Future<List<FileDiff>>> pending = new ArrayDeque<Future<List<FileDiff>>>();
+            for (RevCommit commit : walk) {
+                if (commit.getParentCount() == 1) {
+                    for (DiffEntry entry : formatter.scan(commit.getParent(0).getTree(), commit.getTree())) {
+                        expected.add(describe(formatter, entry));
+                    }
+                }
+                pending.add(differ.submit(walk, commit));
+                if (pending.size() >= differ.getPendingLimit()) {
+                    describe(GitTreeDiffer.get(pending.poll()), actual);
+                }
+            }
+            while (!pending.isEmpty()) {
+                describe(GitTreeDiffer.get(pending.poll()), actual);
+            }
+        } finally {
+            differ.release();
+            formatter.release();
+            walk.release();
+        }
+
+        // then
+        assertTrue(COMMITS > differ.getPendingLimit());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldReadSameCommitsOnAnyNumberOfThreads() throws Exception {
+        List<String> sequential = read(1);
+        List<String> pooled = read(3);
+
+        assertEquals(COMMITS, sequential.size());
+        assertEquals(sequential, pooled);
+    }
+
+    private List<String> read(final int threads) throws Exception {
+        final List<String> commits = new ArrayList<String>();
+        GitOnlineLogParser parser = new GitOnlineLogParser();
+        parser.setThreads(threads);
+        parser.setCountLines(true);
+        parser.parseEntries(new File(directory, ".git").getAbsolutePath(), options("org.", null),
+                new EntryListener<GitCommit>() {
+                    @Override
+                    public void entryParsed(final GitCommit commit) {
+                        StringBuilder description = new StringBuilder(commit.getId());
+                        for (GitCommitFile file : commit.getFiles()) {
+                            description.append(' ').append(file.getOperation()).append(' ').append(file.getPath())
+                                    .append(' ').append(file.getLinesAdded()).append(' ')
+                                    .append(file.getLinesDeleted());
+                        }
+                        commits.add(description.toString());
+                    }
+                });
+        return commits;
+    }
+
+    private static void describe(final List<FileDiff> diffs, final List<String> descriptions) {
+        for (FileDiff diff : diffs) {
+            descriptions.add(describe(diff.getEntry(), diff.getLinesAdded(), diff.getLinesDeleted()));
+        }
+    }
+
+    private static String describe(final DiffFormatter formatter, final DiffEntry entry) throws Exception {
+        FileHeader header = formatter.toFileHeader(entry);
+        if (header.getPatchType() != PatchType.UNIFIED) {
+            return describe(entry, null, null);
+        }
+        int added = 0;
+        int deleted = 0;
+        for (Edit edit : header.toEditList()) {
+            added += edit.getLengthB();
+            deleted += edit.getLengthA();
+        }
+        return describe(entry, added, deleted);
+    }
+
+    private static String describe(final DiffEntry entry, final Integer added, final Integer deleted) {
+        return entry.getChangeType() + " " + entry.getOldPath() + " " + entry.getNewPath() + " " + added + " "
+                + deleted;
+    }
+
+    /**
+     * Every commit adds, changes, renames or deletes one of the files.
+     */
+    private void generateHistory(final Random random) throws Exception {
+        for (int i = 0; i < COMMITS; i++) {
+            String path = PATHS[random.nextInt(PATHS.length)];
+            File file = new File(directory, path);
+            File renamed = new File(directory, path.replace(".", "2."));
+            if (file.exists() && random.nextInt(6) == 0) {
+                git.rm().addFilepattern(path).call();
+            } else if (file.exists() && !renamed.exists() && random.nextInt(6) == 0) {
+                Files.move(file, renamed);
+                git.rm().addFilepattern(path).call();
+                git.add().addFilepattern(path.replace(".", "2.")).call();
+            } else {
+                Files.createParentDirs(file);
+                Files.write(content(path, random), file);
+                git.add().addFilepattern(path).call();
+            }
+            PersonIdent ident = new PersonIdent("Author", "author@example.com", new Date((1000 + i) * 1000L),
+                    TimeZone.getTimeZone("UTC"));
+            git.commit().setMessage("Commit " + i).setAuthor(ident).setCommitter(ident).call();
+        }
+    }
+
+    private static byte[] content(final String path, final Random random) {
+        if (path.endsWith(".png")) {
+            byte[] image = new byte[64 + random.nextInt(64)];
+            random.nextBytes(image);
+            image[0] = 0;
+            return image;
+        }
+        StringBuilder source = new StringBuilder();
+        int lines = 5 + random.nextInt(20);
+        for (int line = 0; line < lines; line++) {
+            source.append("line ").append(random.nextInt(8)).append('\n');
+        }
+        return source.toString().getBytes(Charsets.UTF_8);
+    }
+}
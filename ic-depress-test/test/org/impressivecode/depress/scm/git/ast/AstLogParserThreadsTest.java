@@ -0,0 +1,146 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.impressivecode.depress.scm.git.GitOnlineAdapterExtendedEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Checks that distilling on a pool, with a comparator reused by every
+ * worker, gives the same changes as distilling every pair on its own.
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class AstLogParserThreadsTest {
+    private static final String[] VERSIONS = {
+            "package org.x;\n\npublic class A {\n    public int m(int x) {\n        return x;\n    }\n}\n",
+            "package org.x;\n\npublic class A {\n    public int m(int x) {\n        int y = x + 1;\n"
+                    + "        return y;\n    }\n}\n",
+            "package org.x;\n\npublic class A {\n    public int m(int x) {\n        int y = x + 1;\n"
+                    + "        if (y > 2) {\n            y = y * 2;\n        }\n        return y;\n    }\n}\n",
+            "package org.x;\n\npublic class A {\n    public int m(long x) {\n        int y = 1;\n"
+                    + "        for (int i = 0; i < x; i++) {\n            y += i;\n        }\n        return y;\n    }\n\n"
+                    + "    public Object n() {\n        return null;\n    }\n}\n",
+            "package org.x;\n\npublic class A {\n    public int m(long x) {\n        return 0;\n    }\n\n"
+                    + "    public Object n() {\n        return new Object();\n    }\n}\n" };
+
+    private File directory;
+    private Git git;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDir();
+        git = Git.init().setDirectory(directory).call();
+    }
+
+    @After
+    public void tearDown() {
+        git.getRepository().close();
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void shouldReadSameHistoryOnAnyNumberOfThreads() throws Exception {
+        // given
+        RevCommit first = null;
+        for (int i = 0; i < VERSIONS.length; i++) {
+            commit("src/org/x/A.java", VERSIONS[i], 1000 + 2 * i);
+            RevCommit commit = commit("src/org/x/B.java", VERSIONS[VERSIONS.length - 1 - i].replace("class A",
+                    "class B"), 1001 + 2 * i);
+            first = first == null ? commit : first;
+        }
+
+        // when
+        Map<String, GitOnlineAdapterExtendedEntry> sequential = history(first, 1);
+        Map<String, GitOnlineAdapterExtendedEntry> pooled = history(first, 4);
+
+        // then
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, pooled);
+    }
+
+    @Test
+    public void shouldCompareChainOfRevisionsAsSeparatePairs() throws Exception {
+        // given
+        AstComparator reused = new AstComparator();
+        List<List<SingleChangeInfo>> chained = new ArrayList<List<SingleChangeInfo>>();
+        List<List<SingleChangeInfo>> separate = new ArrayList<List<SingleChangeInfo>>();
+
+        // when
+        try {
+            for (int i = 1; i < VERSIONS.length; i++) {
+                chained.add(reused.compareAstOfRevisions(bytes(VERSIONS[i - 1]), bytes(VERSIONS[i])));
+                AstComparator comparator = new AstComparator();
+                separate.add(comparator.compareAstOfRevisions(bytes(VERSIONS[i - 1]), bytes(VERSIONS[i])));
+                comparator.release();
+            }
+            // the older revision of the previous pair is written again
+            chained.add(reused.compareAstOfRevisions(bytes(VERSIONS[1]), bytes(VERSIONS[3])));
+            AstComparator comparator = new AstComparator();
+            separate.add(comparator.compareAstOfRevisions(bytes(VERSIONS[1]), bytes(VERSIONS[3])));
+            comparator.release();
+        } finally {
+            reused.release();
+        }
+
+        // then
+        assertFalse(separate.get(1).isEmpty());
+        assertEquals(separate, chained);
+    }
+
+    private Map<String, GitOnlineAdapterExtendedEntry> history(final RevCommit bottom, final int threads)
+            throws Exception {
+        AstLogParser parser = new AstLogParser(new File(directory, ".git").getAbsolutePath(), "org.");
+        parser.setThreads(threads);
+        return parser.getHistory(bottom.getName(), "current");
+    }
+
+    private RevCommit commit(final String path, final String source, final long seconds) throws Exception {
+        File file = new File(directory, path);
+        Files.createParentDirs(file);
+        Files.write(source, file, Charsets.UTF_8);
+        git.add().addFilepattern(path).call();
+        PersonIdent ident = new PersonIdent("Author", "author@example.com", new Date(seconds * 1000),
+                TimeZone.getTimeZone("UTC"));
+        return git.commit().setMessage("Commit " + seconds).setAuthor(ident).setCommitter(ident).call();
+    }
+
+    private static byte[] bytes(final String source) {
+        return source.getBytes(Charsets.UTF_8);
+    }
+}
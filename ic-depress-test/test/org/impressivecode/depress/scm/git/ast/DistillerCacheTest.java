@@ -0,0 +1,139 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.scm.git.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ *
+ * @author ImpressiveCode contributors
+ *
+ */
+public class DistillerCacheTest {
+    private static final ObjectId OLD = ObjectId.fromString("1111111111111111111111111111111111111111");
+    private static final ObjectId NEW = ObjectId.fromString("2222222222222222222222222222222222222222");
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        directory = Files.createTempDir();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void shouldReadChangesOfDistilledPair() throws Exception {
+        // given
+        DistillerCache cache = new DistillerCache(directory, 1024 * 1024);
+        List<SingleChangeInfo> changes = Arrays.asList(change("a.B.c(int)", "STATEMENT\tx = \"a\\n\";\n",
+                "STATEMENT_INSERT"), change("a.B.d()", "RETURN", "RETURN_TYPE_CHANGE"));
+        // when
+        cache.put(OLD, NEW, changes);
+
+        // then
+        assertEquals(changes, cache.get(OLD, NEW));
+        assertEquals(null, cache.get(NEW, OLD));
+    }
+
+    @Test
+    public void shouldKeepPairsWithoutChanges() throws Exception {
+        // given
+        DistillerCache cache = new DistillerCache(directory, 1024 * 1024);
+        // when
+        cache.put(OLD, NEW, new ArrayList<SingleChangeInfo>());
+
+        // then
+        assertEquals(new ArrayList<SingleChangeInfo>(), cache.get(OLD, NEW));
+    }
+
+    @Test
+    public void shouldKeepPairsAcrossExecutions() throws Exception {
+        // given
+        List<SingleChangeInfo> changes = Arrays.asList(change("a.B.c()", "STATEMENT", "STATEMENT_DELETE"));
+        new DistillerCache(directory, 1024 * 1024).put(OLD, NEW, changes);
+        // when
+        DistillerCache cache = new DistillerCache(directory, 1024 * 1024);
+
+        // then
+        assertEquals(changes, cache.get(OLD, NEW));
+        assertTrue(cache.size() > 0);
+    }
+
+    @Test
+    public void shouldDropPairsOfOtherVersion() throws Exception {
+        // given
+        new DistillerCache(directory, 1024 * 1024).put(OLD, NEW, new ArrayList<SingleChangeInfo>());
+        Files.write("0", new File(directory, DistillerCache.VERSION_FILE), Charsets.UTF_8);
+        // when
+        DistillerCache cache = new DistillerCache(directory, 1024 * 1024);
+
+        // then
+        assertEquals(null, cache.get(OLD, NEW));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedPairs() throws Exception {
+        // given
+        DistillerCache cache = new DistillerCache(directory, 4096);
+        List<SingleChangeInfo> changes = Arrays.asList(change("a.B.c()", "STATEMENT", "STATEMENT_UPDATE"));
+        for (int i = 0; i < 64; i++) {
+            cache.put(blob(i), NEW, changes);
+            new File(new File(directory, blob(i).getName().substring(0, 2)), blob(i).getName().substring(2)
+                    + NEW.getName() + ".changes").setLastModified(1000000000000L + i * 1000L);
+        }
+        // when
+        cache.put(OLD, NEW, changes);
+
+        // then
+        assertTrue(cache.size() <= 4096);
+        assertEquals(changes, cache.get(OLD, NEW));
+        assertEquals(null, cache.get(blob(0), NEW));
+    }
+
+    private static ObjectId blob(final int i) {
+        return ObjectId.fromString(String.format("%02x%038d", i + 16, i));
+    }
+
+    private static SingleChangeInfo change(final String methodName, final String entity, final String type) {
+        SingleChangeInfo change = new SingleChangeInfo();
+        change.setMethodName(methodName);
+        change.setChangeEntity(entity);
+        change.setChangeType(type);
+        return change;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ImpressiveCode Depress Framework
+Copyright (C) 2013  ImpressiveCode contributors
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.impressivecode.depress.support.activitymatcher;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.impressivecode.depress.support.activitymatcher.ActivityMatcherParserNodeModel.CFG_IDBUILDER;
+import static org.impressivecode.depress.support.activitymatcher.ActivityMatcherParserNodeModel.CFG_INTERVAL;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.impressivecode.depress.common.Cells;
+import org.impressivecode.depress.its.ITSDataType;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.collection.SetCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.mockito.Mockito;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+/**
+ * 
+ * @author ImpressiveCode contributors
+ * 
+ */
+public class ActivityMarkerCellFactoryTest {
+
+    private static final long MINUTE = 60000;
+    private static final long COMMIT_TIME = 1000 * MINUTE;
+
+    @Test
+    public void shouldMatchIssuesResolvedWithinInterval() {
+        // given
+        List<ITSDataType> issues = Lists.newArrayList(issue("1", COMMIT_TIME - 15 * MINUTE),
+                issue("2", COMMIT_TIME - 14 * MINUTE), issue("3", COMMIT_TIME), issue("4", COMMIT_TIME + 14 * MINUTE),
+                issue("5", COMMIT_TIME + 15 * MINUTE), issue("6", COMMIT_TIME + 100 * MINUTE));
+        ActivityMarkerCellFactory mcf = new ActivityMarkerCellFactory(configuration(15, "%s", issues), 0);
+
+        // when
+        DataCell[] cells = mcf.getAppendedCell(mockRow(COMMIT_TIME));
+
+        // then
+        assertThat(cells).hasSize(1);
+        assertThat(extractIds(cells[0])).containsOnly("2", "3", "4");
+    }
+
+    @Test
+    public void shouldApplyBuilderToUnsortedIssues() {
+        // given
+        List<ITSDataType> issues = Lists.newArrayList(issue("9", COMMIT_TIME + MINUTE), issue("7", COMMIT_TIME
+                - 50 * MINUTE), issue("8", COMMIT_TIME - MINUTE));
+        ActivityMarkerCellFactory mcf = new ActivityMarkerCellFactory(configuration(5, "#%s", issues), 0);
+
+        // when
+        DataCell[] cells = mcf.getAppendedCell(mockRow(COMMIT_TIME));
+
+        // then
+        assertThat(extractIds(cells[0])).containsOnly("#9", "#8");
+    }
+
+    @Test
+    public void shouldReturnEmptySetWhenNothingMatches() {
+        // given
+        List<ITSDataType> issues = Lists.newArrayList(issue("1", COMMIT_TIME - 100 * MINUTE));
+        ActivityMarkerCellFactory mcf = new ActivityMarkerCellFactory(configuration(15, "%s", issues), 0);
+
+        // when
+        DataCell[] cells = mcf.getAppendedCell(mockRow(COMMIT_TIME));
+
+        // then
+        assertThat(extractIds(cells[0])).isEmpty();
+    }
+
+    private Set<String> extractIds(final DataCell dataCell) {
+        SetCell set = ((SetCell) dataCell);
+        return newHashSet(Iterables.transform(set, new Function<DataCell, String>() {
+            @Override
+            public String apply(final DataCell cell) {
+                return ((StringCell) cell).getStringValue();
+            }
+        }));
+    }
+
+    private ITSDataType issue(final String id, final long resolved) {
+        ITSDataType issue = new ITSDataType();
+        issue.setIssueId(id);
+        issue.setResolved(new Date(resolved));
+        return issue;
+    }
+
+    private DataRow mockRow(final long commitTime) {
+        DataRow mock = Mockito.mock(DataRow.class);
+        when(mock.getCell(0)).thenReturn(Cells.dateTimeCell(new Date(commitTime)));
+        return mock;
+    }
+
+    private Configuration configuration(final int interval, final String builder, final List<ITSDataType> issues) {
+        return new Configuration(new SettingsModelInteger(CFG_INTERVAL, interval), new SettingsModelString(
+                CFG_IDBUILDER, builder), issues);
+    }
+}